@@ -0,0 +1,86 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calculator hot paths: single fees, daily tax over sorted passages and toll-free date checks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class CongestionTaxCalculatorBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int passageCount;
+
+    private CongestionTaxCalculator calculator;
+    private LocalDateTime[] passages;
+    private long[] epochMinutes;
+    private LocalDateTime tollTime;
+    private LocalDateTime holiday;
+    private LocalDateTime workday;
+
+    @Setup
+    public void setUp() {
+        calculator = new CongestionTaxCalculator(new TaxRulesRegistry(new TaxRulesConfig(), event -> { }));
+
+        // One Thursday, passages spread over toll hours in time order
+        Random random = new Random(42);
+        passages = new LocalDateTime[passageCount];
+        LocalDateTime time = LocalDateTime.of(2013, 2, 7, 6, 0);
+        for (int i = 0; i < passageCount; i++) {
+            passages[i] = time;
+            time = time.plusMinutes(1 + random.nextInt(Math.max(1, 700 / passageCount)));
+        }
+        epochMinutes = new long[passageCount];
+        for (int i = 0; i < passageCount; i++) {
+            epochMinutes[i] = EpochMinutes.of(passages[i]);
+        }
+
+        tollTime = LocalDateTime.of(2013, 2, 7, 7, 15);
+        holiday = LocalDateTime.of(2013, 12, 25, 8, 0);
+        workday = LocalDateTime.of(2013, 11, 13, 8, 0);
+    }
+
+    @Benchmark
+    public int getTollFee() {
+        return calculator.getTollFee(tollTime, VehicleClass.CAR);
+    }
+
+    @Benchmark
+    public int getTax() {
+        return calculator.getTax(VehicleClass.CAR, passages);
+    }
+
+    @Benchmark
+    public int getTaxEpochMinutes() {
+        return calculator.getTax(VehicleClass.CAR, epochMinutes, 0, epochMinutes.length);
+    }
+
+    @Benchmark
+    public boolean isTollFreeDateHoliday() {
+        return calculator.isTollFreeDate(holiday);
+    }
+
+    @Benchmark
+    public boolean isTollFreeDateWorkday() {
+        return calculator.isTollFreeDate(workday);
+    }
+}
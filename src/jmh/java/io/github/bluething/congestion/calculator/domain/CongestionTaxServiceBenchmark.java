@@ -0,0 +1,64 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CongestionTaxService#calculateTax} end to end: validation, sorting, per-day sweep
+ * and the response with per-passage details.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class CongestionTaxServiceBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int passageCount;
+
+    private CongestionTaxService service;
+    private TaxCalculationServiceRequest request;
+
+    @Setup
+    public void setUp() {
+        TaxRulesRegistry registry = new TaxRulesRegistry(new TaxRulesConfig(), event -> { });
+        service = new CongestionTaxService(new CongestionTaxCalculator(registry), registry,
+                new ValidationService(), new VehicleFactory(registry),
+                new TaxMetrics(new SimpleMeterRegistry()), new NoOpCacheManager());
+
+        // Unsorted passages over one working week, as clients send them
+        Random random = new Random(42);
+        List<LocalDateTime> passages = new ArrayList<>(passageCount);
+        LocalDateTime monday = LocalDateTime.of(2013, 2, 4, 6, 0);
+        for (int i = 0; i < passageCount; i++) {
+            passages.add(monday.plusDays(random.nextInt(5)).plusMinutes(random.nextInt(13 * 60)));
+        }
+        Collections.shuffle(passages, random);
+        request = new TaxCalculationServiceRequest("Car", passages);
+    }
+
+    @Benchmark
+    public TaxCalculationServiceResponse calculateTax() {
+        return service.calculateTax(request);
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.bluething.congestion.calculator.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.bluething.congestion.calculator.domain.DailyTaxSummary;
+import io.github.bluething.congestion.calculator.domain.PassageCalculation;
+import io.github.bluething.congestion.calculator.domain.TaxCalculationServiceResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response path after the calculation: {@link DTOMapper#toWebResponse} and Jackson
+ * serialization with an object mapper configured like Spring Boot's, against the direct
+ * {@link TaxCalculationResponseWriter}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class ResponseMappingBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int passageCount;
+
+    private DTOMapper dtoMapper;
+    private ObjectMapper objectMapper;
+    private TaxCalculationServiceResponse serviceResponse;
+    private TaxCalculationResponse webResponse;
+    private TaxCalculationResponseWriter responseWriter;
+    private LocalDateTime calculatedAt;
+
+    @Setup
+    public void setUp() {
+        dtoMapper = new DTOMapper(new SimpleMeterRegistry());
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        responseWriter = new TaxCalculationResponseWriter(objectMapper, new SimpleMeterRegistry());
+        calculatedAt = LocalDateTime.now();
+
+        List<PassageCalculation> passages = new ArrayList<>(passageCount);
+        List<DailyTaxSummary> days = new ArrayList<>();
+        LocalDateTime monday = LocalDateTime.of(2013, 2, 4, 6, 0);
+        int perDay = Math.max(1, (passageCount + 4) / 5);
+        for (int i = 0; i < passageCount; i++) {
+            LocalDateTime time = monday.plusDays(i / perDay).plusMinutes(i % perDay * 7L);
+            passages.add(new PassageCalculation(time, 13, 13, false, true, "Regular toll period - 13 SEK"));
+            if (i % perDay == 0) {
+                days.add(new DailyTaxSummary(time.toLocalDate(), 60, perDay, false, "Regular toll day"));
+            }
+        }
+        serviceResponse = new TaxCalculationServiceResponse("Car", days.size() * 60, false, days, passages, 1);
+        serviceResponse.setCity("Gothenburg");
+        webResponse = dtoMapper.toWebResponse(serviceResponse);
+    }
+
+    @Benchmark
+    public TaxCalculationResponse toWebResponse() {
+        return dtoMapper.toWebResponse(serviceResponse);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(webResponse);
+    }
+
+    @Benchmark
+    public byte[] toWebResponseAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtoMapper.toWebResponse(serviceResponse));
+    }
+
+    @Benchmark
+    public byte[] writeDirect() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(256 + passageCount * 128);
+        responseWriter.write(serviceResponse, calculatedAt, output);
+        return output.toByteArray();
+    }
+}
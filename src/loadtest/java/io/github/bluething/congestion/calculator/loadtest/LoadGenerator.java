@@ -0,0 +1,134 @@
+package io.github.bluething.congestion.calculator.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load: request {@code i} is due at {@code start + i / rate} and is sent on its own
+ * virtual thread at that time, however many earlier requests are still in flight.
+ * <p>
+ * Latency is measured from the time a request was due, not from when it was actually sent, so a
+ * stalled server is charged for the requests that queued up behind the stall instead of hiding
+ * them (coordinated omission). The service time from the actual send is recorded alongside.
+ */
+@Slf4j
+final class LoadGenerator {
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final LoadTestConfig config;
+    private final LoadTestScenario scenario;
+    private final Random random = new Random(42);
+    private final LoadTestEndpoint[] endpoints = LoadTestEndpoint.values();
+    private final Recorder[] latency = new Recorder[endpoints.length];
+    private final Recorder[] serviceTime = new Recorder[endpoints.length];
+    private final AtomicLongArray errors = new AtomicLongArray(endpoints.length);
+    private final AtomicBoolean firstFailureLogged = new AtomicBoolean();
+
+    LoadGenerator(LoadTestConfig config, URI baseUri) {
+        if (config.getRate() < 1) {
+            throw new IllegalStateException("Load test rate must be positive");
+        }
+        this.config = config;
+        this.scenario = new LoadTestScenario(config, baseUri, random);
+        for (int i = 0; i < endpoints.length; i++) {
+            latency[i] = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+            serviceTime[i] = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        }
+    }
+
+    LoadTestReport run() {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.getRate();
+        log.info("Load test: {} requests/s, {} warmup, {} measured", config.getRate(),
+                config.getWarmup(), config.getDuration());
+
+        // Resources close in reverse: the workers finish the requests in flight before the client closes
+        try (HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(config.getRequestTimeout())
+                     .build();
+             ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            long measureFrom = start + config.getWarmup().toNanos();
+            long end = measureFrom + config.getDuration().toNanos();
+
+            for (long i = 0; ; i++) {
+                long due = start + i * intervalNanos;
+                if (due >= end) {
+                    break;
+                }
+                waitUntil(due);
+                LoadTestEndpoint endpoint = scenario.nextEndpoint(random);
+                HttpRequest request = scenario.request(endpoint, random);
+                boolean measured = due >= measureFrom;
+                workers.execute(() -> send(client, endpoint, request, due, measured));
+            }
+        }
+
+        LoadTestReport report = new LoadTestReport(config.getDuration());
+        for (int i = 0; i < endpoints.length; i++) {
+            report.add(endpoints[i], latency[i].getIntervalHistogram(), serviceTime[i].getIntervalHistogram(),
+                    errors.get(i));
+        }
+        return report;
+    }
+
+    private void send(HttpClient client, LoadTestEndpoint endpoint, HttpRequest request, long due, boolean measured) {
+        long sent = System.nanoTime();
+        boolean failed;
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            failed = response.statusCode() >= 400;
+            if (failed) {
+                logFirstFailure(endpoint, "HTTP " + response.statusCode());
+            }
+        } catch (IOException e) {
+            failed = true;
+            logFirstFailure(endpoint, e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long done = System.nanoTime();
+
+        if (measured) {
+            int index = endpoint.ordinal();
+            latency[index].recordValue(micros(done - due));
+            serviceTime[index].recordValue(micros(done - sent));
+            if (failed) {
+                errors.incrementAndGet(index);
+            }
+        }
+    }
+
+    private void logFirstFailure(LoadTestEndpoint endpoint, String failure) {
+        if (firstFailureLogged.compareAndSet(false, true)) {
+            log.warn("First failed request to {}: {}", endpoint.label(), failure);
+        }
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    private static void waitUntil(long due) {
+        long remaining;
+        while ((remaining = due - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.bluething.congestion.calculator.loadtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DisplayName("LoadGenerator Tests")
+class LoadGeneratorTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    @DisplayName("Should drive every endpoint at the configured rate with valid payloads")
+    void shouldDriveAllEndpoints() {
+        LoadTestConfig config = new LoadTestConfig();
+        config.setRate(100);
+        config.setWarmup(Duration.ofMillis(500));
+        config.setDuration(Duration.ofSeconds(2));
+
+        LoadTestReport report = new LoadGenerator(config, URI.create("http://localhost:" + port)).run();
+
+        assertThat(report.requests()).isEqualTo(200);
+        assertThat(report.errors()).isZero();
+        assertThat(report.meetsSlo(Duration.ofMinutes(1))).isTrue();
+        assertThat(report.format()).contains("POST /calculate", "GET /calculate", "GET /toll-schedule", "total");
+    }
+}
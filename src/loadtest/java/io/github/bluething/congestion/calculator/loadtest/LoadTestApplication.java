@@ -0,0 +1,41 @@
+package io.github.bluething.congestion.calculator.loadtest;
+
+import io.github.bluething.congestion.calculator.CongestionTaxApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+
+/**
+ * Starts the application on a random port with the {@code loadtest} profile, drives it with
+ * {@link LoadGenerator} and logs the latency report. Exits non-zero when
+ * {@code congestion.tax.loadtest.p99-slo} is set and not met, so a release can be gated on it.
+ * <pre>
+ * mvn -P loadtest test-compile exec:java -Dexec.args="--congestion.tax.loadtest.rate=500 --congestion.tax.loadtest.p99-slo=50ms"
+ * </pre>
+ */
+@Slf4j
+public final class LoadTestApplication {
+    private LoadTestApplication() {}
+
+    public static void main(String[] args) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CongestionTaxApplication.class)
+                .profiles("loadtest")
+                .run(args);
+
+        LoadTestConfig config = context.getBean(LoadTestConfig.class);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        LoadTestReport report = new LoadGenerator(config, URI.create("http://localhost:" + port)).run();
+        log.info("Load test report:{}", report.format());
+
+        boolean passed = report.meetsSlo(config.getP99Slo());
+        if (config.getP99Slo() != null) {
+            log.info("p99 SLO {}: {} (p99 {} ms, {} errors)", config.getP99Slo(), passed ? "met" : "MISSED",
+                    report.p99().toNanos() / 1_000_000.0, report.errors());
+        }
+        System.exit(SpringApplication.exit(context, () -> passed ? 0 : 1));
+    }
+}
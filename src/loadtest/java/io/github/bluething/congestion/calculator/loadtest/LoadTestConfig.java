@@ -0,0 +1,32 @@
+package io.github.bluething.congestion.calculator.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "congestion.tax.loadtest")
+@Getter
+@Setter
+class LoadTestConfig {
+    // Requests per second, sent on schedule whether or not earlier ones have completed
+    private int rate = 200;
+
+    // Load before measuring starts, so the JIT and the caches settle
+    private Duration warmup = Duration.ofSeconds(5);
+
+    private Duration duration = Duration.ofSeconds(30);
+
+    private Duration requestTimeout = Duration.ofSeconds(5);
+
+    // Fail the run when the overall p99 is above this, or any request fails; unset only reports
+    private Duration p99Slo;
+
+    // Relative share of each endpoint in the request mix
+    private int postCalculateWeight = 6;
+    private int getCalculateWeight = 3;
+    private int tollScheduleWeight = 1;
+}
@@ -0,0 +1,20 @@
+package io.github.bluething.congestion.calculator.loadtest;
+
+/**
+ * Endpoints driven by the load test, each reported separately.
+ */
+enum LoadTestEndpoint {
+    POST_CALCULATE("POST /calculate"),
+    GET_CALCULATE("GET /calculate"),
+    TOLL_SCHEDULE("GET /toll-schedule");
+
+    private final String label;
+
+    LoadTestEndpoint(String label) {
+        this.label = label;
+    }
+
+    String label() {
+        return label;
+    }
+}
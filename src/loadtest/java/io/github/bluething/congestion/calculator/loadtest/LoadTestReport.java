@@ -0,0 +1,78 @@
+package io.github.bluething.congestion.calculator.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-endpoint and overall latency percentiles (from the due time of each request), service
+ * time p99, errors and achieved throughput of one load test run.
+ */
+final class LoadTestReport {
+    private final Duration duration;
+    private final Map<LoadTestEndpoint, Histogram> latencies = new EnumMap<>(LoadTestEndpoint.class);
+    private final Map<LoadTestEndpoint, Histogram> serviceTimes = new EnumMap<>(LoadTestEndpoint.class);
+    private final Map<LoadTestEndpoint, Long> errors = new EnumMap<>(LoadTestEndpoint.class);
+    private final Histogram totalLatency = new Histogram(LoadGenerator.HIGHEST_TRACKABLE_MICROS, 3);
+    private final Histogram totalServiceTime = new Histogram(LoadGenerator.HIGHEST_TRACKABLE_MICROS, 3);
+    private long totalErrors;
+
+    LoadTestReport(Duration duration) {
+        this.duration = duration;
+    }
+
+    void add(LoadTestEndpoint endpoint, Histogram latency, Histogram serviceTime, long endpointErrors) {
+        latencies.put(endpoint, latency);
+        serviceTimes.put(endpoint, serviceTime);
+        errors.put(endpoint, endpointErrors);
+        totalLatency.add(latency);
+        totalServiceTime.add(serviceTime);
+        totalErrors += endpointErrors;
+    }
+
+    long requests() {
+        return totalLatency.getTotalCount();
+    }
+
+    long errors() {
+        return totalErrors;
+    }
+
+    Duration p99() {
+        return Duration.ofNanos(totalLatency.getValueAtPercentile(99) * 1000);
+    }
+
+    /**
+     * Whether the run met the SLO: no failed requests and an overall p99 within the limit.
+     * Without a limit every run passes.
+     */
+    boolean meetsSlo(Duration p99Slo) {
+        return p99Slo == null || (totalErrors == 0 && requests() > 0 && p99().compareTo(p99Slo) <= 0);
+    }
+
+    String format() {
+        StringBuilder report = new StringBuilder(String.format(
+                "%n%-20s %9s %7s %9s %9s %9s %9s %9s %12s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99 ms"));
+        for (LoadTestEndpoint endpoint : latencies.keySet()) {
+            appendRow(report, endpoint.label(), latencies.get(endpoint), serviceTimes.get(endpoint), errors.get(endpoint));
+        }
+        appendRow(report, "total", totalLatency, totalServiceTime, totalErrors);
+        report.append("Latency is measured from each request's scheduled send time (corrected for coordinated omission).");
+        return report.toString();
+    }
+
+    private void appendRow(StringBuilder report, String label, Histogram latency, Histogram serviceTime, long rowErrors) {
+        double seconds = Math.max(1, duration.toMillis()) / 1000.0;
+        report.append(String.format("%-20s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %12.2f%n",
+                label, latency.getTotalCount(), rowErrors, latency.getTotalCount() / seconds,
+                millis(latency, 50), millis(latency, 99), millis(latency, 99.9),
+                latency.getMaxValue() / 1000.0, millis(serviceTime, 99)));
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
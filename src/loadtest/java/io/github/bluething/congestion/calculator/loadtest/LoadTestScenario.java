@@ -0,0 +1,101 @@
+package io.github.bluething.congestion.calculator.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Pre-built requests in the configured endpoint mix. Payloads look like real traffic: mostly
+ * cars, one to twenty passages over one or a few working days, sent unsorted. They are built
+ * once up front so generating load costs nothing per request.
+ */
+final class LoadTestScenario {
+    private static final String BASE_PATH = "/api/v1/congestion-tax";
+    private static final int PAYLOADS = 512;
+    private static final String[] VEHICLE_TYPES = {
+            "Car", "Car", "Car", "Car", "Car", "Car", "Car", "Car", "Motorcycle", "Emergency"
+    };
+
+    private final LoadTestEndpoint[] mix;
+    private final List<HttpRequest> postCalculate = new ArrayList<>(PAYLOADS);
+    private final List<HttpRequest> getCalculate = new ArrayList<>(PAYLOADS);
+    private final HttpRequest tollSchedule;
+
+    LoadTestScenario(LoadTestConfig config, URI baseUri, Random random) {
+        List<LoadTestEndpoint> weighted = new ArrayList<>();
+        addWeighted(weighted, LoadTestEndpoint.POST_CALCULATE, config.getPostCalculateWeight());
+        addWeighted(weighted, LoadTestEndpoint.GET_CALCULATE, config.getGetCalculateWeight());
+        addWeighted(weighted, LoadTestEndpoint.TOLL_SCHEDULE, config.getTollScheduleWeight());
+        if (weighted.isEmpty()) {
+            throw new IllegalStateException("At least one load test endpoint weight must be positive");
+        }
+        this.mix = weighted.toArray(new LoadTestEndpoint[0]);
+
+        Duration timeout = config.getRequestTimeout();
+        URI calculate = baseUri.resolve(BASE_PATH + "/calculate");
+        for (int i = 0; i < PAYLOADS; i++) {
+            String vehicleType = VEHICLE_TYPES[random.nextInt(VEHICLE_TYPES.length)];
+            List<LocalDateTime> passages = passages(random);
+
+            String body = "{\"vehicleType\":\"" + vehicleType + "\",\"passageTimes\":["
+                    + passages.stream().map(time -> "\"" + time + "\"").collect(Collectors.joining(","))
+                    + "]}";
+            postCalculate.add(HttpRequest.newBuilder(calculate)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build());
+
+            String query = "?vehicleType=" + vehicleType + "&passageTimes=" + URLEncoder.encode(
+                    passages.stream().map(LocalDateTime::toString).collect(Collectors.joining(",")),
+                    StandardCharsets.UTF_8);
+            getCalculate.add(HttpRequest.newBuilder(URI.create(calculate + query))
+                    .timeout(timeout)
+                    .GET()
+                    .build());
+        }
+        this.tollSchedule = HttpRequest.newBuilder(baseUri.resolve(BASE_PATH + "/toll-schedule"))
+                .timeout(timeout)
+                .GET()
+                .build();
+    }
+
+    LoadTestEndpoint nextEndpoint(Random random) {
+        return mix[random.nextInt(mix.length)];
+    }
+
+    HttpRequest request(LoadTestEndpoint endpoint, Random random) {
+        return switch (endpoint) {
+            case POST_CALCULATE -> postCalculate.get(random.nextInt(postCalculate.size()));
+            case GET_CALCULATE -> getCalculate.get(random.nextInt(getCalculate.size()));
+            case TOLL_SCHEDULE -> tollSchedule;
+        };
+    }
+
+    /**
+     * One to twenty passages over up to three consecutive working days of February 2013, unsorted.
+     */
+    private static List<LocalDateTime> passages(Random random) {
+        LocalDateTime firstDay = LocalDateTime.of(2013, 2, 4 + random.nextInt(3), 5, 0);
+        int days = 1 + random.nextInt(3);
+        int count = 1 + random.nextInt(20);
+        List<LocalDateTime> passages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            passages.add(firstDay.plusDays(random.nextInt(days)).plusSeconds(random.nextInt(15 * 60 * 60)));
+        }
+        return passages;
+    }
+
+    private static void addWeighted(List<LoadTestEndpoint> target, LoadTestEndpoint endpoint, int weight) {
+        for (int i = 0; i < weight; i++) {
+            target.add(endpoint);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+import io.github.bluething.congestion.calculator.domain.VehicleClass;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Layout of the binary passage file, little-endian throughout.
+ * <pre>
+ * header, 32 bytes:
+ *   0  int   magic "CTXP"
+ *   4  short schema version
+ *   6  byte  time unit: 0 = epoch minutes, 1 = epoch seconds
+ *   7  byte  reserved
+ *   8  long  rule-set id (rule version the file was prepared with)
+ *   16 long  record count, updated when a writer closes
+ *   24 long  reserved
+ * record, 16 bytes:
+ *   0  long  vehicle id, packed by {@link VehicleIds}
+ *   8  int   timestamp in the time unit, unsigned
+ *   12 byte  {@link VehicleClass} ordinal
+ *   13 3 bytes reserved
+ * </pre>
+ * Records are fixed-width, so a file is read by mapping it and striding through it, and its
+ * length alone says how many complete records it holds.
+ */
+final class BinaryPassageFormat {
+    static final int MAGIC = 'C' | 'T' << 8 | 'X' << 16 | 'P' << 24;
+    static final short SCHEMA_VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES = 16;
+    static final String FILE_EXTENSION = ".ctxp";
+
+    static final int VEHICLE_ID_OFFSET = 0;
+    static final int TIMESTAMP_OFFSET = 8;
+    static final int VEHICLE_CLASS_OFFSET = 12;
+    static final int RECORD_COUNT_OFFSET = 16;
+
+    private BinaryPassageFormat() {}
+
+    enum TimeUnit {
+        EPOCH_MINUTES(1), EPOCH_SECONDS(60);
+
+        private final int perMinute;
+
+        TimeUnit(int perMinute) {
+            this.perMinute = perMinute;
+        }
+
+        long toEpochMinute(long timestamp) {
+            return timestamp / perMinute;
+        }
+
+        long fromEpochMinute(long epochMinute) {
+            return epochMinute * perMinute;
+        }
+    }
+
+    record Header(TimeUnit timeUnit, long ruleSetId, long recordCount) {
+    }
+
+    static ByteBuffer encodeHeader(Header header) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC)
+                .putShort(SCHEMA_VERSION)
+                .put((byte) header.timeUnit().ordinal())
+                .put((byte) 0)
+                .putLong(header.ruleSetId())
+                .putLong(header.recordCount())
+                .putLong(0);
+        return buffer.flip();
+    }
+
+    /**
+     * Read and check the header. The record count is taken from the file length, which also
+     * covers a writer that stopped before updating the header.
+     */
+    static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+            // keep reading until the header is complete or the file ends
+        }
+        if (buffer.hasRemaining() || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a binary passage file");
+        }
+        short version = buffer.getShort(4);
+        if (version != SCHEMA_VERSION) {
+            throw new IllegalStateException("Unsupported binary passage schema version: " + version);
+        }
+        int timeUnit = buffer.get(6);
+        if (timeUnit < 0 || timeUnit >= TimeUnit.values().length) {
+            throw new IllegalStateException("Unknown time unit in binary passage file: " + timeUnit);
+        }
+        long recordCount = (channel.size() - HEADER_BYTES) / RECORD_BYTES;
+        return new Header(TimeUnit.values()[timeUnit], buffer.getLong(8), recordCount);
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+import io.github.bluething.congestion.calculator.domain.VehicleClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Reads a {@link BinaryPassageFormat} file through memory-mapped windows of whole records.
+ * Each record is three fixed-offset loads, so reading runs at memory bandwidth once the file
+ * is in the page cache. Records with an unknown or unsupported vehicle class are skipped. A file
+ * prepared under another rule set than the current one is still read, with a warning.
+ */
+@Slf4j
+final class BinaryPassageReader {
+    static final long DEFAULT_WINDOW_BYTES = 1L << 30;
+
+    private static final VehicleClass[] CLASSES = VehicleClass.values();
+    private static final int PROGRESS_EVERY_RECORDS = 1 << 20;
+
+    private final boolean[] supported = new boolean[CLASSES.length];
+    private final long ruleSetId;
+    private final Duration progressInterval;
+    private final int recordsPerWindow;
+
+    BinaryPassageReader(Set<VehicleClass> supportedClasses, long ruleSetId, Duration progressInterval) {
+        this(supportedClasses, ruleSetId, progressInterval, DEFAULT_WINDOW_BYTES);
+    }
+
+    BinaryPassageReader(Set<VehicleClass> supportedClasses, long ruleSetId, Duration progressInterval,
+                        long windowBytes) {
+        for (VehicleClass vehicleClass : supportedClasses) {
+            supported[vehicleClass.ordinal()] = true;
+        }
+        this.ruleSetId = ruleSetId;
+        this.progressInterval = progressInterval;
+        this.recordsPerWindow = (int) Math.max(1, Math.min(windowBytes, Integer.MAX_VALUE) / BinaryPassageFormat.RECORD_BYTES);
+    }
+
+    ReadStats read(Path file, PassageSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            BinaryPassageFormat.Header header = BinaryPassageFormat.readHeader(channel);
+            BinaryPassageFormat.TimeUnit timeUnit = header.timeUnit();
+            long recordCount = header.recordCount();
+            long totalBytes = BinaryPassageFormat.HEADER_BYTES + recordCount * BinaryPassageFormat.RECORD_BYTES;
+            log.info("Reading {}: {} records in {}, rule set {}",
+                    file.getFileName(), recordCount, timeUnit, header.ruleSetId());
+            if (header.ruleSetId() != ruleSetId) {
+                log.warn("{} was prepared with rule set {}, but rule set {} is active",
+                        file.getFileName(), header.ruleSetId(), ruleSetId);
+            }
+            ProgressReporter progress = new ProgressReporter("Reading " + file.getFileName(), totalBytes, progressInterval);
+
+            long passages = 0;
+            long rejected = 0;
+            long record = 0;
+            while (record < recordCount) {
+                int records = (int) Math.min(recordsPerWindow, recordCount - record);
+                long position = BinaryPassageFormat.HEADER_BYTES + record * BinaryPassageFormat.RECORD_BYTES;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        (long) records * BinaryPassageFormat.RECORD_BYTES);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+                for (int i = 0; i < records; i++) {
+                    int offset = i * BinaryPassageFormat.RECORD_BYTES;
+                    int vehicleClass = buffer.get(offset + BinaryPassageFormat.VEHICLE_CLASS_OFFSET);
+                    if (vehicleClass < 0 || vehicleClass >= CLASSES.length || !supported[vehicleClass]) {
+                        rejected++;
+                        continue;
+                    }
+                    long timestamp = Integer.toUnsignedLong(buffer.getInt(offset + BinaryPassageFormat.TIMESTAMP_OFFSET));
+                    sink.accept(buffer.getLong(offset + BinaryPassageFormat.VEHICLE_ID_OFFSET),
+                            CLASSES[vehicleClass], timeUnit.toEpochMinute(timestamp));
+                    passages++;
+                    if ((passages & (PROGRESS_EVERY_RECORDS - 1)) == 0) {
+                        progress.update(position + offset, passages);
+                    }
+                }
+                record += records;
+            }
+
+            progress.finish(totalBytes, recordCount);
+            if (rejected > 0) {
+                log.warn("Skipped {} of {} records in {} for unsupported vehicle classes",
+                        rejected, recordCount, file.getFileName());
+            }
+            return new ReadStats(totalBytes, recordCount, passages, rejected);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+import io.github.bluething.congestion.calculator.domain.VehicleClass;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends passages to a {@link BinaryPassageFormat} file. A new file gets a header; an
+ * existing file is checked and appended to in its own time unit, after any partial record
+ * left by an interrupted writer is cut off. Appending under another rule-set id than the file
+ * was prepared with is refused, so one file never mixes passages prepared under different rules. Records go through a direct buffer, and the header's
+ * record count is brought up to date on {@link #close()}.
+ */
+final class BinaryPassageWriter implements PassageSink, AutoCloseable {
+    private static final int BUFFER_RECORDS = 1 << 16;
+
+    private final FileChannel channel;
+    private final BinaryPassageFormat.TimeUnit timeUnit;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * BinaryPassageFormat.RECORD_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private long recordCount;
+
+    BinaryPassageWriter(Path file, long ruleSetId) throws IOException {
+        this(file, BinaryPassageFormat.TimeUnit.EPOCH_MINUTES, ruleSetId);
+    }
+
+    BinaryPassageWriter(Path file, BinaryPassageFormat.TimeUnit timeUnit, long ruleSetId) throws IOException {
+        boolean exists = Files.exists(file) && Files.size(file) > 0;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (exists) {
+                BinaryPassageFormat.Header header = BinaryPassageFormat.readHeader(channel);
+                if (header.ruleSetId() != ruleSetId) {
+                    throw new IllegalStateException(String.format(
+                            "Binary passage file was prepared with rule set %d, not %d", header.ruleSetId(), ruleSetId));
+                }
+                this.timeUnit = header.timeUnit();
+                this.recordCount = header.recordCount();
+                channel.truncate(BinaryPassageFormat.HEADER_BYTES + recordCount * BinaryPassageFormat.RECORD_BYTES);
+            } else {
+                this.timeUnit = timeUnit;
+                writeFully(BinaryPassageFormat.encodeHeader(new BinaryPassageFormat.Header(timeUnit, ruleSetId, 0)), 0);
+            }
+            channel.position(channel.size());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void accept(long vehicleId, VehicleClass vehicleClass, long epochMinute) {
+        append(vehicleId, vehicleClass, timeUnit.fromEpochMinute(epochMinute));
+    }
+
+    /**
+     * Append one record with a timestamp already in this file's time unit.
+     */
+    void append(long vehicleId, VehicleClass vehicleClass, long timestamp) {
+        if (timestamp < 0 || timestamp > 0xFFFF_FFFFL) {
+            throw new IllegalArgumentException("Timestamp out of range for the binary passage format: " + timestamp);
+        }
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.putLong(vehicleId)
+                .putInt((int) timestamp)
+                .put((byte) vehicleClass.ordinal())
+                .put((byte) 0)
+                .putShort((short) 0);
+        recordCount++;
+    }
+
+    long recordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (channel) {
+            flush();
+            ByteBuffer count = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(0, recordCount);
+            writeFully(count, BinaryPassageFormat.RECORD_COUNT_OFFSET);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer source, long position) throws IOException {
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+    }
+}
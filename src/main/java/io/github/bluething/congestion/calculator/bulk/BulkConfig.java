@@ -0,0 +1,31 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "congestion.tax.bulk")
+@Getter
+@Setter
+class BulkConfig {
+    // CSV files of vehicleId,vehicleType,passageTime lines, or binary .ctxp passage files, read in order
+    private List<Path> input = new ArrayList<>();
+
+    // CSV file for the per-vehicle, per-day totals
+    private Path output;
+
+    // Optional binary passage file the parsed input is appended to
+    private Path passagesOutput;
+
+    // Threads for the sort and the tax sweep; 0 uses every available processor
+    private int parallelism = 0;
+
+    private Duration progressInterval = Duration.ofSeconds(5);
+}
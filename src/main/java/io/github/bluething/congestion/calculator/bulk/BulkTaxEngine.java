@@ -0,0 +1,181 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+import io.github.bluething.congestion.calculator.domain.DailyTaxAccumulator;
+import io.github.bluething.congestion.calculator.domain.EpochMinutes;
+import io.github.bluething.congestion.calculator.domain.TaxCalculator;
+import io.github.bluething.congestion.calculator.domain.VehicleClass;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Daily tax over a whole {@link PassageTable}: the keys are sorted once, which groups them by
+ * vehicle and time, and every vehicle-day run is swept through a {@link DailyTaxAccumulator}.
+ * Totals come out by vehicle in first-seen order, then by day. Days whose rules do not support
+ * the vehicle class are skipped, as the readers skip types no rule set supports.
+ * <p>
+ * With more than one thread, the sort and the sweep run on a dedicated {@link ForkJoinPool}.
+ * The sorted keys are cut into chunks at vehicle boundaries, several per thread so work
+ * stealing can even out skew, and each chunk is swept into its own buffer. Buffers are
+ * emitted in chunk order, so the output is identical to the sequential sweep for any
+ * parallelism.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class BulkTaxEngine {
+    private static final int CHUNKS_PER_THREAD = 8;
+    private static final int MIN_CHUNK_PASSAGES = 1 << 14;
+
+    private final TaxCalculator taxCalculator;
+
+    void calculate(PassageTable table, DayTotalSink sink) {
+        calculate(table, sink, 1);
+    }
+
+    void calculate(PassageTable table, DayTotalSink sink, int parallelism) {
+        long[] keys = table.keys();
+        int size = table.size();
+        if (parallelism <= 1 || size < 2 * MIN_CHUNK_PASSAGES) {
+            Arrays.sort(keys, 0, size);
+            sweep(table, 0, size, sink);
+            return;
+        }
+
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            pool.submit(() -> Arrays.parallelSort(keys, 0, size)).join();
+
+            int[] bounds = chunkBounds(keys, size, parallelism);
+            DayTotals[] chunks = new DayTotals[bounds.length - 1];
+            pool.invoke(new SweepTask(table, bounds, chunks, 0, chunks.length));
+            log.debug("Swept {} passages in {} chunks on {} threads", size, chunks.length, parallelism);
+
+            for (DayTotals chunk : chunks) {
+                chunk.emit(sink);
+            }
+        }
+    }
+
+    /**
+     * Sweep the sorted keys in {@code [from, to)}, which must start and end at vehicle boundaries.
+     */
+    private void sweep(PassageTable table, int from, int to, DayTotalSink sink) {
+        long[] keys = table.keys();
+        int i = from;
+        while (i < to) {
+            int vehicle = PassageTable.vehicleOf(keys[i]);
+            VehicleClass vehicleClass = table.vehicleClass(vehicle);
+            long epochDay = EpochMinutes.epochDay(PassageTable.epochMinuteOf(keys[i]));
+            DailyTaxAccumulator day = taxCalculator.startDay(vehicleClass, epochDay);
+            boolean supported = day.isSupported(vehicleClass);
+
+            while (i < to && PassageTable.vehicleOf(keys[i]) == vehicle
+                    && EpochMinutes.epochDay(PassageTable.epochMinuteOf(keys[i])) == epochDay) {
+                if (supported) {
+                    day.add(PassageTable.epochMinuteOf(keys[i]));
+                }
+                i++;
+            }
+            if (!supported) {
+                continue;
+            }
+            sink.accept(table.vehicleId(vehicle), vehicleClass, epochDay, day.dailyTax(), day.passageCount());
+        }
+    }
+
+    /**
+     * Evenly sized chunk bounds over the sorted keys, each moved forward to the next vehicle
+     * boundary so no vehicle is split. Duplicate bounds collapse, so chunks are never empty.
+     */
+    private static int[] chunkBounds(long[] keys, int size, int parallelism) {
+        int target = (int) Math.max(1, Math.min((long) parallelism * CHUNKS_PER_THREAD, size / MIN_CHUNK_PASSAGES));
+        int[] bounds = new int[target + 1];
+        int count = 1;
+        for (int k = 1; k < target; k++) {
+            int bound = (int) ((long) size * k / target);
+            if (bound <= bounds[count - 1]) {
+                continue;
+            }
+            int vehicle = PassageTable.vehicleOf(keys[bound - 1]);
+            while (bound < size && PassageTable.vehicleOf(keys[bound]) == vehicle) {
+                bound++;
+            }
+            if (bound < size && bound > bounds[count - 1]) {
+                bounds[count++] = bound;
+            }
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private final class SweepTask extends RecursiveAction {
+        private final PassageTable table;
+        private final int[] bounds;
+        private final DayTotals[] chunks;
+        private final int from;
+        private final int to;
+
+        private SweepTask(PassageTable table, int[] bounds, DayTotals[] chunks, int from, int to) {
+            this.table = table;
+            this.bounds = bounds;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                DayTotals totals = new DayTotals();
+                sweep(table, bounds[from], bounds[from + 1], totals);
+                chunks[from] = totals;
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SweepTask(table, bounds, chunks, from, middle),
+                    new SweepTask(table, bounds, chunks, middle, to));
+        }
+    }
+
+    /**
+     * Day totals of one chunk, buffered in primitive columns until the chunks before it are emitted.
+     */
+    private static final class DayTotals implements DayTotalSink {
+        private static final VehicleClass[] CLASSES = VehicleClass.values();
+
+        private long[] vehicleIds = new long[256];
+        private byte[] vehicleClasses = new byte[256];
+        private long[] epochDays = new long[256];
+        private int[] dailyTaxes = new int[256];
+        private int[] passageCounts = new int[256];
+        private int size;
+
+        @Override
+        public void accept(long vehicleId, VehicleClass vehicleClass, long epochDay, int dailyTax, int passageCount) {
+            if (size == vehicleIds.length) {
+                int capacity = size * 2;
+                vehicleIds = Arrays.copyOf(vehicleIds, capacity);
+                vehicleClasses = Arrays.copyOf(vehicleClasses, capacity);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                dailyTaxes = Arrays.copyOf(dailyTaxes, capacity);
+                passageCounts = Arrays.copyOf(passageCounts, capacity);
+            }
+            vehicleIds[size] = vehicleId;
+            vehicleClasses[size] = (byte) vehicleClass.ordinal();
+            epochDays[size] = epochDay;
+            dailyTaxes[size] = dailyTax;
+            passageCounts[size] = passageCount;
+            size++;
+        }
+
+        void emit(DayTotalSink sink) {
+            for (int i = 0; i < size; i++) {
+                sink.accept(vehicleIds[i], CLASSES[vehicleClasses[i]], epochDays[i], dailyTaxes[i], passageCounts[i]);
+            }
+        }
+    }
+}
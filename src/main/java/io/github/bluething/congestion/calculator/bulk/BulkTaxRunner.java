@@ -0,0 +1,134 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+import io.github.bluething.congestion.calculator.domain.TaxService;
+import io.github.bluething.congestion.calculator.domain.VehicleClass;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Offline re-billing run, active with the {@code bulk} profile (which also turns the web server
+ * off): reads every input file into one {@link PassageTable}, calculates daily tax per vehicle
+ * with the same rules as the API and writes the totals to the output CSV. Inputs ending in
+ * {@code .ctxp} are read as {@link BinaryPassageFormat}, anything else as CSV. With
+ * {@code passages-output} set, the parsed passages are also appended to a binary file, so a
+ * camera dump is converted once and re-billed from the binary file afterwards.
+ * <pre>
+ * java -jar congestion-tax-calculator.jar --spring.profiles.active=bulk \
+ *     --congestion.tax.bulk.input=passages-1.csv,passages-2.csv \
+ *     --congestion.tax.bulk.output=totals.csv
+ *
+ * java -jar congestion-tax-calculator.jar --spring.profiles.active=bulk \
+ *     --congestion.tax.bulk.input=dump.csv --congestion.tax.bulk.passages-output=dump.ctxp
+ * </pre>
+ */
+@Component
+@Profile("bulk")
+@RequiredArgsConstructor
+@Slf4j
+class BulkTaxRunner implements ApplicationRunner {
+    // Rough size of one CSV line, used to presize the passage table
+    private static final int ESTIMATED_BYTES_PER_LINE = 32;
+
+    private final BulkConfig bulkConfig;
+    private final BulkTaxEngine bulkTaxEngine;
+    private final TaxService taxService;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (bulkConfig.getInput().isEmpty()
+                || (bulkConfig.getOutput() == null && bulkConfig.getPassagesOutput() == null)) {
+            throw new IllegalStateException("Bulk mode needs congestion.tax.bulk.input and "
+                    + "congestion.tax.bulk.output or congestion.tax.bulk.passages-output");
+        }
+
+        long totalBytes = 0;
+        long expectedPassages = 0;
+        for (Path input : bulkConfig.getInput()) {
+            long size = Files.size(input);
+            totalBytes += size;
+            expectedPassages += isBinary(input) ? size / BinaryPassageFormat.RECORD_BYTES : size / ESTIMATED_BYTES_PER_LINE;
+        }
+        long startNanos = System.nanoTime();
+
+        // Only the totals need every passage in memory; a plain conversion streams straight through
+        PassageTable table = bulkConfig.getOutput() == null
+                ? null
+                : new PassageTable((int) Math.min(Integer.MAX_VALUE - 8, expectedPassages));
+        long passages = 0;
+        long rejected = 0;
+        try (BinaryPassageWriter passagesWriter = bulkConfig.getPassagesOutput() == null
+                ? null
+                : new BinaryPassageWriter(bulkConfig.getPassagesOutput(), taxService.getRuleVersion())) {
+            PassageSink sink = sink(table, passagesWriter);
+            for (Path input : bulkConfig.getInput()) {
+                ReadStats stats = read(input, sink);
+                passages += stats.passages();
+                rejected += stats.rejected();
+            }
+        }
+        log.info("Loaded {} passages ({} rejected)", passages, rejected);
+        if (bulkConfig.getPassagesOutput() != null) {
+            log.info("Wrote {} passages to {}", passages, bulkConfig.getPassagesOutput());
+        }
+        if (table == null) {
+            return;
+        }
+
+        long days;
+        try (DayTotalWriter writer = new DayTotalWriter(bulkConfig.getOutput())) {
+            bulkTaxEngine.calculate(table, writer, parallelism());
+            days = writer.days();
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        log.info("Wrote {} vehicle-day totals of {} vehicles to {} in {} ms ({} passages/s, {} MB/s)",
+                days, table.vehicleCount(), bulkConfig.getOutput(), elapsedMillis,
+                table.size() * 1000L / elapsedMillis, (totalBytes >> 20) * 1000 / elapsedMillis);
+    }
+
+    private ReadStats read(Path input, PassageSink sink) throws IOException {
+        if (isBinary(input)) {
+            return new BinaryPassageReader(supportedClasses(), taxService.getRuleVersion(),
+                    bulkConfig.getProgressInterval()).read(input, sink);
+        }
+        return new CsvPassageReader(supportedClasses(), bulkConfig.getProgressInterval()).read(input, sink);
+    }
+
+    private static PassageSink sink(PassageTable table, BinaryPassageWriter passagesWriter) {
+        if (passagesWriter == null) {
+            return table;
+        }
+        if (table == null) {
+            return passagesWriter;
+        }
+        return (vehicleId, vehicleClass, epochMinute) -> {
+            table.accept(vehicleId, vehicleClass, epochMinute);
+            passagesWriter.accept(vehicleId, vehicleClass, epochMinute);
+        };
+    }
+
+    private static boolean isBinary(Path input) {
+        return input.getFileName().toString().endsWith(BinaryPassageFormat.FILE_EXTENSION);
+    }
+
+    private int parallelism() {
+        int parallelism = bulkConfig.getParallelism();
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Classes supported on some day; the engine skips the days whose rules do not support them.
+     */
+    private Set<VehicleClass> supportedClasses() {
+        return taxService.getSupportedVehicleClasses();
+    }
+}
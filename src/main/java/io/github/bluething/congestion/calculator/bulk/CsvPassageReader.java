@@ -0,0 +1,247 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+import io.github.bluething.congestion.calculator.domain.EpochMinutes;
+import io.github.bluething.congestion.calculator.domain.VehicleClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Year;
+import java.util.Set;
+
+/**
+ * Reads {@code vehicleId,vehicleType,passageTime} CSV lines straight from a memory-mapped file.
+ * <p>
+ * Fields are parsed in place from the mapped bytes: the vehicle id is packed into a long, the
+ * vehicle type is matched byte-wise against the {@link VehicleClass} names and the ISO time
+ * ({@code 2013-02-07T06:23:27}, {@code T} or a space, seconds optional) is decoded digit by digit
+ * into an epoch minute. Nothing is allocated per line. Files larger than one mapping are read in
+ * windows that restart at the last complete line.
+ * <p>
+ * An optional header line starting with {@code vehicleId} is skipped. Malformed lines and lines
+ * with a vehicle type outside {@code supportedClasses} are counted and skipped.
+ */
+@Slf4j
+final class CsvPassageReader {
+    static final long DEFAULT_WINDOW_BYTES = 1L << 30;
+
+    private static final int MAX_LOGGED_REJECTS = 10;
+    private static final int PROGRESS_EVERY_LINES = 1 << 16;
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final byte[] HEADER = "vehicleId".getBytes(StandardCharsets.US_ASCII);
+    private static final VehicleClass[] CLASSES = VehicleClass.values();
+    private static final byte[][] CLASS_NAMES = new byte[CLASSES.length][];
+
+    static {
+        for (int i = 0; i < CLASSES.length; i++) {
+            CLASS_NAMES[i] = CLASSES[i].getVehicleType().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final boolean[] supported = new boolean[CLASSES.length];
+    private final long windowBytes;
+    private final Duration progressInterval;
+
+    CsvPassageReader(Set<VehicleClass> supportedClasses, Duration progressInterval) {
+        this(supportedClasses, progressInterval, DEFAULT_WINDOW_BYTES);
+    }
+
+    CsvPassageReader(Set<VehicleClass> supportedClasses, Duration progressInterval, long windowBytes) {
+        for (VehicleClass vehicleClass : supportedClasses) {
+            supported[vehicleClass.ordinal()] = true;
+        }
+        this.progressInterval = progressInterval;
+        this.windowBytes = Math.min(windowBytes, Integer.MAX_VALUE);
+    }
+
+    ReadStats read(Path file, PassageSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ProgressReporter progress = new ProgressReporter("Reading " + file.getFileName(), fileSize, progressInterval);
+
+            long lines = 0;
+            long passages = 0;
+            long rejected = 0;
+            long position = 0;
+            while (position < fileSize) {
+                int length = (int) Math.min(windowBytes, fileSize - position);
+                boolean lastWindow = position + length == fileSize;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                int lineStart = 0;
+                while (lineStart < length) {
+                    int lineEnd = lineStart;
+                    while (lineEnd < length && buffer.get(lineEnd) != '\n') {
+                        lineEnd++;
+                    }
+                    if (lineEnd == length && !lastWindow) {
+                        break; // Incomplete line: the next window starts with it
+                    }
+
+                    int limit = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                    if (limit > lineStart && !(position == 0 && lineStart == 0 && isHeader(buffer, limit))) {
+                        lines++;
+                        if (parseLine(buffer, lineStart, limit, sink)) {
+                            passages++;
+                        } else if (++rejected <= MAX_LOGGED_REJECTS) {
+                            log.warn("Skipping line {} of {}: {}", lines, file.getFileName(),
+                                    text(buffer, lineStart, limit));
+                        }
+                        if ((lines & (PROGRESS_EVERY_LINES - 1)) == 0) {
+                            progress.update(position + lineStart, lines);
+                        }
+                    }
+                    lineStart = lineEnd + 1;
+                }
+
+                if (lineStart == 0) {
+                    throw new IllegalStateException("Line longer than " + windowBytes + " bytes at offset " + position);
+                }
+                position += Math.min(lineStart, length);
+            }
+
+            progress.finish(fileSize, lines);
+            if (rejected > 0) {
+                log.warn("Skipped {} of {} lines in {}", rejected, lines, file.getFileName());
+            }
+            return new ReadStats(fileSize, lines, passages, rejected);
+        }
+    }
+
+    private boolean parseLine(ByteBuffer buffer, int from, int to, PassageSink sink) {
+        int firstComma = indexOf(buffer, ',', from, to);
+        int secondComma = firstComma < 0 ? -1 : indexOf(buffer, ',', firstComma + 1, to);
+        if (secondComma < 0) {
+            return false;
+        }
+
+        int idLength = firstComma - from;
+        if (idLength < 1 || idLength > VehicleIds.MAX_LENGTH) {
+            return false;
+        }
+        long vehicleId = 0;
+        for (int i = from; i < firstComma; i++) {
+            int b = buffer.get(i);
+            if (!VehicleIds.isValidByte(b)) {
+                return false;
+            }
+            vehicleId = vehicleId << 8 | b;
+        }
+
+        VehicleClass vehicleClass = vehicleClass(buffer, firstComma + 1, secondComma);
+        if (vehicleClass == null || !supported[vehicleClass.ordinal()]) {
+            return false;
+        }
+
+        long epochMinute = epochMinute(buffer, secondComma + 1, to);
+        if (epochMinute < 0 || epochMinute > PassageTable.MAX_EPOCH_MINUTE) {
+            return false;
+        }
+
+        sink.accept(vehicleId, vehicleClass, epochMinute);
+        return true;
+    }
+
+    private static VehicleClass vehicleClass(ByteBuffer buffer, int from, int to) {
+        int length = to - from;
+        for (int i = 0; i < CLASS_NAMES.length; i++) {
+            byte[] name = CLASS_NAMES[i];
+            if (name.length == length && matches(buffer, from, name)) {
+                return CLASSES[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decode {@code yyyy-MM-dd[T ]HH:mm[:ss[.fraction]]} into an epoch minute, or -1 when malformed.
+     */
+    static long epochMinute(ByteBuffer buffer, int from, int to) {
+        int length = to - from;
+        if (length < 16 || buffer.get(from + 4) != '-' || buffer.get(from + 7) != '-'
+                || (buffer.get(from + 10) != 'T' && buffer.get(from + 10) != ' ')
+                || buffer.get(from + 13) != ':') {
+            return -1;
+        }
+        int year = digits(buffer, from, 4);
+        int month = digits(buffer, from + 5, 2);
+        int day = digits(buffer, from + 8, 2);
+        int hour = digits(buffer, from + 11, 2);
+        int minute = digits(buffer, from + 14, 2);
+        if (year < 1970 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return -1;
+        }
+        int daysInMonth = month == 2 && Year.isLeap(year) ? 29 : DAYS_IN_MONTH[month - 1];
+        if (day > daysInMonth || !validSeconds(buffer, from + 16, to)) {
+            return -1;
+        }
+        return EpochMinutes.of(year, month, day, hour, minute);
+    }
+
+    private static boolean validSeconds(ByteBuffer buffer, int from, int to) {
+        if (from == to) {
+            return true;
+        }
+        if (to - from < 3 || buffer.get(from) != ':') {
+            return false;
+        }
+        int seconds = digits(buffer, from + 1, 2);
+        if (seconds < 0 || seconds > 59) {
+            return false;
+        }
+        int rest = from + 3;
+        if (rest == to) {
+            return true;
+        }
+        return buffer.get(rest) == '.' && rest + 1 < to && digits(buffer, rest + 1, to - rest - 1) >= 0;
+    }
+
+    /**
+     * Value of {@code count} ASCII digits, or -1 if any byte is not a digit.
+     */
+    private static int digits(ByteBuffer buffer, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int indexOf(ByteBuffer buffer, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isHeader(ByteBuffer buffer, int limit) {
+        return limit >= HEADER.length && matches(buffer, 0, HEADER);
+    }
+
+    private static boolean matches(ByteBuffer buffer, int from, byte[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(from + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String text(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[Math.min(to - from, 200)];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
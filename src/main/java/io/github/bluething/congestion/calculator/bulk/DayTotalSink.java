@@ -0,0 +1,11 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+import io.github.bluething.congestion.calculator.domain.VehicleClass;
+
+/**
+ * Receives the daily tax of one vehicle on one day, vehicle id packed by {@link VehicleIds}.
+ */
+@FunctionalInterface
+interface DayTotalSink {
+    void accept(long vehicleId, VehicleClass vehicleClass, long epochDay, int dailyTax, int passageCount);
+}
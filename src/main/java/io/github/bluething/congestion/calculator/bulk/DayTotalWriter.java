@@ -0,0 +1,103 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+import io.github.bluething.congestion.calculator.domain.VehicleClass;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Writes per-vehicle, per-day totals as {@code vehicleId,vehicleType,date,dailyTax,passageCount}
+ * CSV lines under a header, formatting straight into a byte buffer.
+ */
+final class DayTotalWriter implements DayTotalSink, AutoCloseable {
+    static final String HEADER = "vehicleId,vehicleType,date,dailyTax,passageCount\n";
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final OutputStream output;
+    private final byte[] line = new byte[64];
+    private long lastEpochDay = Long.MIN_VALUE;
+    private byte[] lastDate;
+    private long days;
+
+    DayTotalWriter(Path file) throws IOException {
+        this(Files.newOutputStream(file));
+    }
+
+    DayTotalWriter(OutputStream output) throws IOException {
+        this.output = new BufferedOutputStream(output, BUFFER_BYTES);
+        this.output.write(HEADER.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public void accept(long vehicleId, VehicleClass vehicleClass, long epochDay, int dailyTax, int passageCount) {
+        int length = 0;
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            byte b = (byte) (vehicleId >>> shift);
+            if (b != 0) {
+                line[length++] = b;
+            }
+        }
+        line[length++] = ',';
+        String type = vehicleClass.getVehicleType();
+        for (int i = 0; i < type.length(); i++) {
+            line[length++] = (byte) type.charAt(i);
+        }
+        line[length++] = ',';
+        byte[] date = date(epochDay);
+        System.arraycopy(date, 0, line, length, date.length);
+        length += date.length;
+        line[length++] = ',';
+        length = writeInt(dailyTax, length);
+        line[length++] = ',';
+        length = writeInt(passageCount, length);
+        line[length++] = '\n';
+
+        try {
+            output.write(line, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        days++;
+    }
+
+    long days() {
+        return days;
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+    private byte[] date(long epochDay) {
+        // Totals arrive grouped by vehicle, but consecutive lines often share the day
+        if (epochDay != lastEpochDay) {
+            lastEpochDay = epochDay;
+            lastDate = LocalDate.ofEpochDay(epochDay).toString().getBytes(StandardCharsets.US_ASCII);
+        }
+        return lastDate;
+    }
+
+    private int writeInt(int value, int at) {
+        if (value == 0) {
+            line[at] = '0';
+            return at + 1;
+        }
+        int digits = 0;
+        for (int v = value; v > 0; v /= 10) {
+            digits++;
+        }
+        for (int i = at + digits - 1; i >= at; i--) {
+            line[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return at + digits;
+    }
+}
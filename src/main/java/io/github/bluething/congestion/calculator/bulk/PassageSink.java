@@ -0,0 +1,11 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+import io.github.bluething.congestion.calculator.domain.VehicleClass;
+
+/**
+ * Receives parsed passages one at a time, vehicle id packed by {@link VehicleIds}.
+ */
+@FunctionalInterface
+interface PassageSink {
+    void accept(long vehicleId, VehicleClass vehicleClass, long epochMinute);
+}
@@ -0,0 +1,129 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+import io.github.bluething.congestion.calculator.domain.VehicleClass;
+
+import java.util.Arrays;
+
+/**
+ * Passages of a bulk run in columnar, primitive form. Vehicle ids are interned to dense
+ * indexes in first-seen order, and each passage is a single long: vehicle index in the high
+ * 32 bits, epoch minute in the low 32. Sorting the keys therefore groups passages by vehicle
+ * and orders each vehicle's passages in time, at eight bytes per passage.
+ * <p>
+ * A vehicle keeps the class of its first passage. Not thread-safe while filling.
+ */
+final class PassageTable implements PassageSink {
+    static final long MAX_EPOCH_MINUTE = 0xFFFF_FFFFL;
+
+    private static final int MAX_KEYS = Integer.MAX_VALUE - 8;
+    private static final VehicleClass[] CLASSES = VehicleClass.values();
+
+    private long[] keys;
+    private int size;
+
+    private long[] vehicleIds = new long[1024];
+    private byte[] vehicleClasses = new byte[1024];
+    private int vehicleCount;
+    private int[] slots = new int[2048]; // vehicle index + 1 by hash of the id; 0 is empty
+
+    PassageTable() {
+        this(1 << 16);
+    }
+
+    PassageTable(int expectedPassages) {
+        this.keys = new long[Math.max(16, expectedPassages)];
+    }
+
+    @Override
+    public void accept(long vehicleId, VehicleClass vehicleClass, long epochMinute) {
+        if (epochMinute < 0 || epochMinute > MAX_EPOCH_MINUTE) {
+            throw new IllegalArgumentException("Passage time out of range for bulk processing: " + epochMinute);
+        }
+        int vehicle = intern(vehicleId, vehicleClass);
+        if (size == keys.length) {
+            grow();
+        }
+        keys[size++] = (long) vehicle << 32 | epochMinute;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int vehicleCount() {
+        return vehicleCount;
+    }
+
+    /**
+     * Backing key array; only the first {@link #size()} entries are passages.
+     */
+    long[] keys() {
+        return keys;
+    }
+
+    long vehicleId(int vehicle) {
+        return vehicleIds[vehicle];
+    }
+
+    VehicleClass vehicleClass(int vehicle) {
+        return CLASSES[vehicleClasses[vehicle]];
+    }
+
+    static int vehicleOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    static long epochMinuteOf(long key) {
+        return key & MAX_EPOCH_MINUTE;
+    }
+
+    private int intern(long vehicleId, VehicleClass vehicleClass) {
+        int mask = slots.length - 1;
+        int slot = hash(vehicleId) & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            if (vehicleIds[entry - 1] == vehicleId) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int vehicle = vehicleCount++;
+        if (vehicle == vehicleIds.length) {
+            vehicleIds = Arrays.copyOf(vehicleIds, vehicle * 2);
+            vehicleClasses = Arrays.copyOf(vehicleClasses, vehicle * 2);
+        }
+        vehicleIds[vehicle] = vehicleId;
+        vehicleClasses[vehicle] = (byte) vehicleClass.ordinal();
+        slots[slot] = vehicle + 1;
+        if (vehicleCount * 2 > slots.length) {
+            rehash();
+        }
+        return vehicle;
+    }
+
+    private void rehash() {
+        int[] rehashed = new int[slots.length * 2];
+        int mask = rehashed.length - 1;
+        for (int vehicle = 0; vehicle < vehicleCount; vehicle++) {
+            int slot = hash(vehicleIds[vehicle]) & mask;
+            while (rehashed[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            rehashed[slot] = vehicle + 1;
+        }
+        slots = rehashed;
+    }
+
+    private void grow() {
+        if (keys.length >= MAX_KEYS) {
+            throw new IllegalStateException("Too many passages for one bulk run (" + size + "); split the input");
+        }
+        keys = Arrays.copyOf(keys, (int) Math.min(MAX_KEYS, keys.length + (long) (keys.length >> 1)));
+    }
+
+    private static int hash(long vehicleId) {
+        long h = vehicleId * 0x9E37_79B9_7F4A_7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+}
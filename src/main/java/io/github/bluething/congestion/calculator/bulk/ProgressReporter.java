@@ -0,0 +1,49 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+
+/**
+ * Logs progress and throughput of one bulk phase at a fixed interval. {@link #update} is cheap
+ * enough to call from a hot loop every few thousand records.
+ */
+@Slf4j
+final class ProgressReporter {
+    private final String phase;
+    private final long totalBytes;
+    private final long intervalNanos;
+    private final long startNanos;
+    private long nextReportNanos;
+
+    ProgressReporter(String phase, long totalBytes, Duration interval) {
+        this.phase = phase;
+        this.totalBytes = totalBytes;
+        this.intervalNanos = interval.toNanos();
+        this.startNanos = System.nanoTime();
+        this.nextReportNanos = startNanos + intervalNanos;
+    }
+
+    void update(long bytes, long records) {
+        long now = System.nanoTime();
+        if (now < nextReportNanos) {
+            return;
+        }
+        nextReportNanos = now + intervalNanos;
+        log.info("{}: {} of {} MB ({}%), {} records, {} MB/s, {} records/s", phase,
+                bytes >> 20, totalBytes >> 20, totalBytes == 0 ? 100 : bytes * 100 / totalBytes,
+                records, perSecond(bytes, now) >> 20, perSecond(records, now));
+    }
+
+    void finish(long bytes, long records) {
+        long now = System.nanoTime();
+        log.info("{} done: {} MB, {} records in {} ms, {} MB/s, {} records/s", phase,
+                bytes >> 20, records, (now - startNanos) / 1_000_000,
+                perSecond(bytes, now) >> 20, perSecond(records, now));
+    }
+
+    private long perSecond(long count, long now) {
+        long elapsed = Math.max(1, now - startNanos);
+        return (long) (count * 1e9 / elapsed);
+    }
+}
@@ -0,0 +1,8 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+/**
+ * Outcome of reading one input file: bytes scanned, data lines seen, passages delivered and
+ * lines rejected as malformed or for an unsupported vehicle type.
+ */
+record ReadStats(long bytes, long lines, long passages, long rejected) {
+}
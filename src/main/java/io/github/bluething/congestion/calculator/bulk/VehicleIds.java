@@ -0,0 +1,47 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Vehicle ids of up to eight printable ASCII characters, e.g. "ABC123", packed into a long
+ * one byte per character so bulk runs never allocate a string per passage.
+ */
+final class VehicleIds {
+    static final int MAX_LENGTH = 8;
+
+    private VehicleIds() {}
+
+    static boolean isValidByte(int b) {
+        return b > ' ' && b < 0x7F && b != ',';
+    }
+
+    /**
+     * Pack an id; fails with {@link IllegalArgumentException} when it cannot be packed.
+     */
+    static long pack(String vehicleId) {
+        if (vehicleId.isEmpty() || vehicleId.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Vehicle id must have 1 to " + MAX_LENGTH + " characters: " + vehicleId);
+        }
+        long packed = 0;
+        for (int i = 0; i < vehicleId.length(); i++) {
+            char c = vehicleId.charAt(i);
+            if (!isValidByte(c)) {
+                throw new IllegalArgumentException("Vehicle id must be printable ASCII: " + vehicleId);
+            }
+            packed = packed << 8 | c;
+        }
+        return packed;
+    }
+
+    static String unpack(long packed) {
+        byte[] bytes = new byte[MAX_LENGTH];
+        int length = 0;
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            byte b = (byte) (packed >>> shift);
+            if (b != 0) {
+                bytes[length++] = b;
+            }
+        }
+        return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+    }
+}
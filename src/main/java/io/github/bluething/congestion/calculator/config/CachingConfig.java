@@ -1,21 +1,42 @@
 package io.github.bluething.congestion.calculator.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bluething.congestion.calculator.domain.TaxResultKey;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 @EnableCaching
 class CachingConfig {
+    /**
+     * Caffeine caches from the {@code spring.cache.caffeine.spec}; with {@code recordStats} in the
+     * spec, actuator publishes their hit and miss counts as {@code cache.gets}.
+     * <p>
+     * Calculation results get their own spec. Their size varies with the passage count, so the
+     * cache is bounded by weight, one unit per passage of the key whatever the response detail,
+     * rather than by entry count. Day patterns
+     * are memoized per day below that, so a new statement still reuses the days seen before.
+     */
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(
+    public CacheManager cacheManager(
+            @Value("${spring.cache.caffeine.spec:recordStats}") String spec,
+            @Value("${congestion.tax.result-cache.spec:maximumWeight=200000,expireAfterWrite=1h,recordStats}")
+            String resultCacheSpec,
+            @Value("${congestion.tax.day-pattern-cache.spec:maximumSize=50000,recordStats}")
+            String dayPatternCacheSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
                 "vehicleTypes",
-                "tollSchedule",
-                "tollFreeStatus",
-                "holidayCache"
+                "tollSchedule"
         );
+        cacheManager.setCacheSpecification(spec);
+        cacheManager.registerCustomCache("taxResults", Caffeine.from(resultCacheSpec)
+                .weigher(TaxResultKey::weigh)
+                .build());
+        cacheManager.registerCustomCache("dayPatterns", Caffeine.from(dayPatternCacheSpec).build());
+        return cacheManager;
     }
 }
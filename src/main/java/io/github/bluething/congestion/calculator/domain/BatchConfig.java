@@ -0,0 +1,15 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "congestion.tax.batch")
+@Getter
+@Setter
+class BatchConfig {
+    // Batch items calculated at the same time, across all batch requests of this node
+    private int maxConcurrency = 64;
+}
@@ -0,0 +1,19 @@
+package io.github.bluething.congestion.calculator.domain;
+
+/**
+ * Outcome of one request of a batch: either a response or the exception it failed with.
+ */
+public record BatchItemResult(TaxCalculationServiceResponse response, RuntimeException error) {
+
+    static BatchItemResult success(TaxCalculationServiceResponse response) {
+        return new BatchItemResult(response, null);
+    }
+
+    static BatchItemResult failure(RuntimeException error) {
+        return new BatchItemResult(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
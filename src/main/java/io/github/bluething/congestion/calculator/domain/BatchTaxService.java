@@ -0,0 +1,11 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import java.util.List;
+
+public interface BatchTaxService {
+    /**
+     * Calculate every request concurrently. Results are in request order; a failing request
+     * yields a failed item instead of failing the batch.
+     */
+    List<BatchItemResult> calculateTaxBatch(List<TaxCalculationServiceRequest> requests);
+}
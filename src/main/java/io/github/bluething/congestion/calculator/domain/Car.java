@@ -1,8 +0,0 @@
-package io.github.bluething.congestion.calculator.domain;
-
-class Car implements Vehicle {
-
-    public String getVehicleType() {
-        return "Car";
-    }
-}
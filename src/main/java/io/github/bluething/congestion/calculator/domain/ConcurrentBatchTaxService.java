@@ -0,0 +1,77 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Fans batch items out on the application task executor, which runs on virtual threads when
+ * {@code spring.threads.virtual.enabled} is set. A node-wide semaphore bounds how many items
+ * run at once; the submitting thread blocks for a permit, which throttles large batches.
+ */
+@Service
+@Slf4j
+class ConcurrentBatchTaxService implements BatchTaxService {
+    private final TaxService taxService;
+    private final TaskExecutor taskExecutor;
+    private final Semaphore permits;
+
+    ConcurrentBatchTaxService(TaxService taxService,
+                              @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                              BatchConfig batchConfig) {
+        if (batchConfig.getMaxConcurrency() < 1) {
+            throw new IllegalStateException("Batch max-concurrency must be positive");
+        }
+        this.taxService = taxService;
+        this.taskExecutor = taskExecutor;
+        this.permits = new Semaphore(batchConfig.getMaxConcurrency());
+    }
+
+    @Override
+    public List<BatchItemResult> calculateTaxBatch(List<TaxCalculationServiceRequest> requests) {
+        log.debug("Calculating batch of {} requests", requests.size());
+
+        BatchItemResult[] results = new BatchItemResult[requests.size()];
+        CountDownLatch done = new CountDownLatch(requests.size());
+        try {
+            for (int i = 0; i < results.length; i++) {
+                permits.acquire();
+                int index = i;
+                try {
+                    taskExecutor.execute(() -> {
+                        try {
+                            results[index] = calculate(requests.get(index));
+                        } finally {
+                            permits.release();
+                            done.countDown();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    // Rejected by the executor: record it as this item's failure
+                    permits.release();
+                    results[index] = BatchItemResult.failure(e);
+                    done.countDown();
+                }
+            }
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calculating batch", e);
+        }
+        return Arrays.asList(results);
+    }
+
+    private BatchItemResult calculate(TaxCalculationServiceRequest request) {
+        try {
+            return BatchItemResult.success(taxService.calculateTax(request));
+        } catch (RuntimeException e) {
+            return BatchItemResult.failure(e);
+        }
+    }
+}
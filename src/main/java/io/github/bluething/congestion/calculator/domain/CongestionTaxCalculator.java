@@ -4,17 +4,16 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.time.DayOfWeek;
-import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.*;
+import java.util.Arrays;
+import java.util.Objects;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 class CongestionTaxCalculator implements TaxCalculator {
 
-    private final TaxRulesConfig taxRulesConfig;
+    private final TaxRulesRegistry taxRulesRegistry;
 
     @Override
     public int getTax(Vehicle vehicle, LocalDateTime[] dates) {
@@ -23,40 +22,69 @@ class CongestionTaxCalculator implements TaxCalculator {
             return 0;
         }
 
-        if (isTollFreeVehicle(vehicle)) {
+        // Adapt to the primitive path: one long[] instead of a sorted copy of the objects
+        long[] epochMinutes = new long[dates.length];
+        for (int i = 0; i < dates.length; i++) {
+            epochMinutes[i] = EpochMinutes.of(dates[i]);
+        }
+        Arrays.sort(epochMinutes);
+
+        return getTax(vehicle, epochMinutes, 0, epochMinutes.length);
+    }
+
+    /**
+     * Primitive variant of {@link #getTax(Vehicle, LocalDateTime[])} over
+     * {@code epochMinutes[from, to)}, which the caller must supply already sorted.
+     * Allocates nothing.
+     */
+    @Override
+    public int getTax(Vehicle vehicle, long[] epochMinutes, int from, int to) {
+        if (epochMinutes == null || from >= to) {
+            log.debug("No dates provided for tax calculation");
+            return 0;
+        }
+        Objects.checkFromToIndex(from, to, epochMinutes.length);
+
+        // Rules of the default city in effect on the first passage's day
+        TaxRuleSet rules = taxRulesRegistry.index().rulesFor(EpochMinutes.epochDay(epochMinutes[from]));
+        if (isTollFreeVehicle(rules, vehicle)) {
             log.debug("Vehicle type {} is toll-free", vehicle == null ? "unknown" : vehicle.getVehicleType());
             return 0;
         }
 
-        log.debug("Calculating tax for {} passages", dates.length);
+        log.debug("Calculating tax for {} passages", to - from);
 
-        // Sort dates to ensure chronological order
-        LocalDateTime[] sortedDates = Arrays.copyOf(dates, dates.length);
-        Arrays.sort(sortedDates);
+        int singleChargeInterval = rules.getSingleChargeIntervalMinutes();
+        int maxDailyTax = rules.getMaxDailyTax();
 
-        LocalDateTime intervalStart = sortedDates[0];
+        long intervalStart = epochMinutes[from];
         int totalFee = 0;
-        int tempFee = getTollFee(intervalStart, vehicle);
+        int tempFee = tollFee(rules, intervalStart);
 
-        for (LocalDateTime date : sortedDates) {
-            int nextFee = getTollFee(date, vehicle);
-            long minutes = Duration.between(intervalStart, date).toMinutes();
+        for (int i = from; i < to; i++) {
+            long minute = epochMinutes[i];
+            int nextFee = tollFee(rules, minute);
 
-            if (minutes <= taxRulesConfig.getSingleChargeIntervalMinutes()) {
+            if (minute - intervalStart <= singleChargeInterval) {
                 if (nextFee > tempFee) {
                     tempFee = nextFee;
                 }
             } else {
                 totalFee += tempFee;
-                intervalStart = date;
+                if (totalFee >= maxDailyTax) {
+                    break; // Nothing after this can change the capped result
+                }
+                intervalStart = minute;
                 tempFee = nextFee;
             }
         }
 
-        totalFee += tempFee;
+        if (totalFee < maxDailyTax) {
+            totalFee += tempFee;
+        }
 
         // Apply daily maximum
-        int finalTax = Math.min(totalFee, taxRulesConfig.getMaxDailyTax());
+        int finalTax = Math.min(totalFee, maxDailyTax);
 
         log.debug("Tax calculation completed. Total before cap: {} SEK, Final: {} SEK",
                 totalFee, finalTax);
@@ -64,12 +92,103 @@ class CongestionTaxCalculator implements TaxCalculator {
         return finalTax;
     }
 
-    private boolean isTollFreeVehicle(Vehicle vehicle) {
+    /**
+     * Single sweep over one day's sorted passages {@code epochMinutes[from, to)} that yields the
+     * daily tax, every passage's individual and effective fee, and the toll-free day classification.
+     * Follows the same 60-minute and daily maximum rules as {@link #getTax(Vehicle, long[], int, int)},
+     * evaluated against the given rule snapshot.
+     */
+    @Override
+    public DayCalculation calculateDay(TaxRuleSet rules, Vehicle vehicle, long[] epochMinutes, int from, int to) {
+        Objects.checkFromToIndex(from, to, epochMinutes.length);
+        int count = to - from;
+        int[] individualFees = new int[count];
+        int[] effectiveFees = new int[count];
+        if (count == 0) {
+            return new DayCalculation(0, false, individualFees, effectiveFees, 0);
+        }
+
+        long epochDay = EpochMinutes.epochDay(epochMinutes[from]);
+        if (EpochMinutes.epochDay(epochMinutes[to - 1]) != epochDay) {
+            throw new IllegalArgumentException("Passages passed to calculateDay must fall on a single day");
+        }
+
+        boolean tollFreeDay = rules.isTollFreeEpochDay(epochDay);
+        if (tollFreeDay || isTollFreeVehicle(rules, vehicle)) {
+            return new DayCalculation(0, tollFreeDay, individualFees, effectiveFees, count);
+        }
+
+        int singleChargeInterval = rules.getSingleChargeIntervalMinutes();
+        int maxDailyTax = rules.getMaxDailyTax();
+
+        long intervalStart = epochMinutes[from];
+        int windowFee = rules.feeAt(EpochMinutes.minuteOfDay(intervalStart));
+        int windowHolder = 0;
+        int totalFee = 0;
+        int cappedFrom = count;
+
+        for (int i = 0; i < count; i++) {
+            long minute = epochMinutes[from + i];
+            int fee = rules.feeAt(EpochMinutes.minuteOfDay(minute));
+            individualFees[i] = fee;
+            if (cappedFrom < count) {
+                continue; // Only the individual fee is still of interest
+            }
+
+            if (minute - intervalStart <= singleChargeInterval) {
+                if (fee > windowFee) {
+                    windowFee = fee;
+                    windowHolder = i;
+                }
+            } else {
+                // Close the window: charge it to its highest-fee passage, clipped by the daily maximum
+                int charge = Math.min(windowFee, maxDailyTax - totalFee);
+                effectiveFees[windowHolder] = charge;
+                totalFee += charge;
+                if (totalFee >= maxDailyTax) {
+                    cappedFrom = i;
+                    continue;
+                }
+                intervalStart = minute;
+                windowFee = fee;
+                windowHolder = i;
+            }
+        }
+
+        if (cappedFrom == count) {
+            int charge = Math.min(windowFee, maxDailyTax - totalFee);
+            effectiveFees[windowHolder] = charge;
+            totalFee += charge;
+        }
+
+        log.debug("Day calculation completed for {} passages: {} SEK", count, totalFee);
+        return new DayCalculation(totalFee, false, individualFees, effectiveFees, cappedFrom);
+    }
+
+    /**
+     * Start streaming one day's passages for a vehicle under the default city's rules for that day.
+     */
+    @Override
+    public DailyTaxAccumulator startDay(Vehicle vehicle, long epochDay) {
+        TaxRuleSet rules = taxRulesRegistry.index().rulesFor(epochDay);
+        return new DailyTaxAccumulator(rules, epochDay, isTollFreeVehicle(rules, vehicle));
+    }
+
+    private static int tollFee(TaxRuleSet rules, long epochMinute) {
+        if (rules.isTollFreeEpochDay(EpochMinutes.epochDay(epochMinute))) {
+            return 0;
+        }
+        return rules.feeAt(EpochMinutes.minuteOfDay(epochMinute));
+    }
+
+    private static boolean isTollFreeVehicle(TaxRuleSet rules, Vehicle vehicle) {
         if (vehicle == null) return true;
-        String vehicleType = vehicle.getVehicleType();
-        boolean isTollFree = taxRulesConfig.isTollFreeVehicle(vehicleType);
+        // Registry instances take the bitmask path; other Vehicle implementations fall back to the type name
+        boolean isTollFree = vehicle instanceof VehicleClass vehicleClass
+                ? rules.isTollFreeVehicle(vehicleClass)
+                : rules.isTollFreeVehicle(vehicle.getVehicleType());
 
-        log.debug("Vehicle type {} is toll-free: {}", vehicleType, isTollFree);
+        log.debug("Vehicle type {} is toll-free: {}", vehicle.getVehicleType(), isTollFree);
         return isTollFree;
     }
 
@@ -81,79 +200,33 @@ class CongestionTaxCalculator implements TaxCalculator {
             return 0;
         }
 
-        if (isTollFreeDate(date) || isTollFreeVehicle(vehicle)) {
+        TaxRuleSet rules = rulesFor(date);
+        if (isTollFreeDate(rules, date) || isTollFreeVehicle(rules, vehicle)) {
             log.debug("Toll-free date or vehicle for {}", date);
             return 0;
         }
 
-        int hour = date.getHour();
-        int minute = date.getMinute();
-
-        int fee = calculateHourlyFee(hour, minute);
+        int fee = rules.feeAt(date.getHour() * 60 + date.getMinute());
 
-        log.debug("Toll fee for {} at {}:{} = {} SEK",
-                vehicle != null ? vehicle.getVehicleType() : "unknown", hour, minute, fee);
+        log.debug("Toll fee for {} at {} = {} SEK",
+                vehicle != null ? vehicle.getVehicleType() : "unknown", date.toLocalTime(), fee);
         return fee;
     }
-    private int calculateHourlyFee(int hour, int minute) {
-        // 06:00–06:29: SEK 8
-        if (hour == 6 && minute <= 29) return 8;
-            // 06:30–06:59: SEK 13
-        else if (hour == 6 && minute >= 30) return 13;
-            // 07:00–07:59: SEK 18
-        else if (hour == 7) return 18;
-            // 08:00–08:29: SEK 13
-        else if (hour == 8 && minute <= 29) return 13;
-            // 08:30–14:59: SEK 8
-        else if ((hour == 8 && minute >= 30) || (hour >= 9 && hour <= 14)) return 8;
-            // 15:00–15:29: SEK 13
-        else if (hour == 15 && minute <= 29) return 13;
-            // 15:30–16:59: SEK 18
-        else if ((hour == 15 && minute >= 30) || hour == 16) return 18;
-            // 17:00–17:59: SEK 13
-        else if (hour == 17) return 13;
-            // 18:00–18:29: SEK 8
-        else if (hour == 18 && minute <= 29) return 8;
-            // 18:30–05:59: SEK 0 (free)
-        else return 0;
-    }
 
     @Override
     public boolean isTollFreeDate(LocalDateTime date) {
-        DayOfWeek dayOfWeek = date.getDayOfWeek();
-        if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
-            log.debug("Weekend date: {}", date.toLocalDate());
-            return true;
-        }
-
-        int year = date.getYear();
-        int month = date.getMonthValue();
-        int dayOfMonth = date.getDayOfMonth();
-
-        // Check toll-free months
-        if (taxRulesConfig.isTollFreeMonth(month)) {
-            log.debug("Toll-free month: {}", month);
-            return true;
-        }
+        return isTollFreeDate(rulesFor(date), date);
+    }
 
-        // Check holidays and days before holidays
-        boolean isHoliday = isSwedishHoliday(year, month, dayOfMonth) ||
-                isDayBeforeHoliday(year, month, dayOfMonth);
+    private TaxRuleSet rulesFor(LocalDateTime date) {
+        return taxRulesRegistry.index().rulesFor(date.toLocalDate().toEpochDay());
+    }
 
-        if (isHoliday) {
-            log.debug("Holiday or day before holiday: {}-{}-{}", year, month, dayOfMonth);
+    private static boolean isTollFreeDate(TaxRuleSet rules, LocalDateTime date) {
+        boolean tollFree = rules.isTollFreeDate(date);
+        if (tollFree) {
+            log.debug("Toll-free date (weekend/holiday/toll-free month): {}", date);
         }
-
-        return isHoliday;
-    }
-    private boolean isSwedishHoliday(int year, int month, int dayOfMonth) {
-        String dateKey = String.format("%02d-%02d", month, dayOfMonth);
-        List<String> holidays = taxRulesConfig.getHolidaysForYear(year);
-        return holidays.contains(dateKey);
-    }
-    private boolean isDayBeforeHoliday(int year, int month, int dayOfMonth) {
-        String dateKey = String.format("%02d-%02d", month, dayOfMonth);
-        List<String> daysBefore = taxRulesConfig.getDaysBeforeHolidaysForYear(year);
-        return daysBefore.contains(dateKey);
+        return tollFree;
     }
 }
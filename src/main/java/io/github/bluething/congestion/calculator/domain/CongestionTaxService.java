@@ -2,162 +2,404 @@ package io.github.bluething.congestion.calculator.domain;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 class CongestionTaxService implements TaxService {
+    static final String RESULT_CACHE = "taxResults";
+    static final String DAY_PATTERN_CACHE = "dayPatterns";
+    static final String VEHICLE_TYPES_CACHE = "vehicleTypes";
+    static final String TOLL_SCHEDULE_CACHE = "tollSchedule";
+
     private final TaxCalculator taxCalculator;
-    private final TaxRulesConfig taxRulesConfig;
+    private final TaxRulesRegistry taxRulesRegistry;
     private final ValidationService validationService;
     private final VehicleFactory vehicleFactory;
+    private final TaxMetrics taxMetrics;
+    private final CacheManager cacheManager;
+
+    // Identical requests in flight at the same time, e.g. client retries, are calculated once
+    private final SingleFlight<RequestKey, TaxCalculationServiceResponse> inFlight =
+            new SingleFlight<>(this::recordCoalesced);
 
     @Override
     public TaxCalculationServiceResponse calculateTax(TaxCalculationServiceRequest request) {
         log.debug("Calculating tax for vehicle type: {} with {} passage times",
-                request.getVehicleType(), request.getPassageTimes().size());
-
-        validationService.validateServiceRequest(request);
-
-        Vehicle vehicle = vehicleFactory.createVehicle(request.getVehicleType());
+                request == null ? null : request.getVehicleType(),
+                request == null || request.getPassageTimes() == null ? 0 : request.getPassageTimes().size());
+
+        long startTime = taxMetrics.startTime();
+        try {
+            LocalDateTime[] sortedPassages = sortedPassages(request);
+            ResponseDetail detail = detailOf(request);
+            TaxCalculationServiceResponse response = sortedPassages == null
+                    ? calculate(request, null, detail)
+                    : inFlight.execute(
+                            new RequestKey(request.getVehicleType(), request.getCity(), detail,
+                                    Arrays.asList(sortedPassages)),
+                            () -> calculate(request, sortedPassages, detail));
+
+            VehicleClass vehicle = VehicleClass.fromType(response.getVehicleType());
+            taxMetrics.recordRequest(vehicle, sortedPassages == null ? 0 : sortedPassages.length, response.getDayCount());
+            taxMetrics.recordDays(vehicle, response);
+            taxMetrics.recordCalculation(vehicle, TaxMetrics.Outcome.SUCCESS, startTime);
+            return response;
+        } catch (RuntimeException e) {
+            // Only known classes become tags; anything else the client sent is "unknown"
+            VehicleClass vehicle = request == null || request.getVehicleType() == null
+                    ? null
+                    : VehicleClass.fromType(request.getVehicleType().trim());
+            TaxMetrics.Outcome outcome = taxMetrics.recordRejection(e)
+                    ? TaxMetrics.Outcome.REJECTED
+                    : TaxMetrics.Outcome.ERROR;
+            taxMetrics.recordCalculation(vehicle, outcome, startTime);
+            throw e;
+        }
+    }
 
-        boolean isTollFreeVehicle = taxRulesConfig.isTollFreeVehicle(request.getVehicleType());
+    /**
+     * Validate and calculate one request. Runs once per flight: identical requests arriving
+     * meanwhile share the outcome, including a validation failure.
+     */
+    private TaxCalculationServiceResponse calculate(TaxCalculationServiceRequest request,
+                                                    LocalDateTime[] sortedPassages, ResponseDetail detail) {
+        // One index for the whole request, validation included, even if the rules are reloaded meanwhile
+        TaxRuleIndex index = taxRulesRegistry.index();
+        validate(request, index);
+        String city = index.resolveCity(request.getCity());
+
+        // Resolve the type name once; validation checked its support on every day of the request
+        VehicleClass vehicle = vehicleFactory.createVehicle(request.getVehicleType());
+
+        if (sortedPassages == null) {
+            sortedPassages = sortedPassages(request);
+        }
+        return calculateOrGetCached(index, city, vehicle, sortedPassages, detail);
+    }
 
-        return calculateTaxGroupedByDay(request, vehicle, isTollFreeVehicle);
+    private static ResponseDetail detailOf(TaxCalculationServiceRequest request) {
+        return request == null || request.getDetail() == null ? ResponseDetail.VERBOSE : request.getDetail();
     }
 
     /**
-     * Calculate tax with proper daily grouping (recommended approach)
+     * Sort once: the sorted passages are the coalescing key, the result cache key and the
+     * calculation input. Returns {@code null} for requests that validation will reject.
      */
-    private TaxCalculationServiceResponse calculateTaxGroupedByDay(
-            TaxCalculationServiceRequest request, Vehicle vehicle, boolean isTollFreeVehicle) {
-
-        // Group passages by day
-        Map<LocalDate, List<LocalDateTime>> passagesByDay = request.getPassageTimes()
-                .stream()
-                .collect(Collectors.groupingBy(LocalDateTime::toLocalDate));
+    private static LocalDateTime[] sortedPassages(TaxCalculationServiceRequest request) {
+        if (request == null || request.getPassageTimes() == null) {
+            return null;
+        }
+        LocalDateTime[] passages = request.getPassageTimes().toArray(new LocalDateTime[0]);
+        for (LocalDateTime passage : passages) {
+            if (passage == null) {
+                return null;
+            }
+        }
+        Arrays.sort(passages);
+        return passages;
+    }
 
-        List<DailyTaxSummary> dailySummaries = new ArrayList<>();
-        List<PassageCalculation> allPassageCalculations = new ArrayList<>();
-        int totalTax = 0;
+    private void recordCoalesced() {
+        taxMetrics.recordCoalesced();
+    }
 
-        for (Map.Entry<LocalDate, List<LocalDateTime>> dayEntry : passagesByDay.entrySet()) {
-            LocalDate date = dayEntry.getKey();
-            List<LocalDateTime> dayPassages = dayEntry.getValue();
+    private void validate(TaxCalculationServiceRequest request, TaxRuleIndex index) {
+        long startTime = taxMetrics.startTime();
+        boolean passed = false;
+        try {
+            validationService.validateServiceRequest(request, index);
+            passed = true;
+        } finally {
+            taxMetrics.recordValidation(passed, startTime);
+        }
+    }
 
-            log.debug("Calculating tax for {} with {} passages", date, dayPassages.size());
+    /**
+     * Serve repeated requests from the bounded result cache. Cached responses are shared between
+     * callers, so their lists are unmodifiable and callers must not change them.
+     */
+    private TaxCalculationServiceResponse calculateOrGetCached(
+            TaxRuleIndex index, String city, VehicleClass vehicle, LocalDateTime[] sortedPassages,
+            ResponseDetail detail) {
+        Cache cache = cacheManager.getCache(RESULT_CACHE);
+        if (cache == null) {
+            return calculateTaxGroupedByDay(index, city, vehicle, sortedPassages, detail);
+        }
+        TaxResultKey key = new TaxResultKey(vehicle, city, index.getVersion(), detail, sortedPassages);
+        return getCached(cache, key, () -> calculateTaxGroupedByDay(index, city, vehicle, sortedPassages, detail));
+    }
 
-            // Calculate tax for this day
-            LocalDateTime[] dayPassagesArray = dayPassages.toArray(new LocalDateTime[0]);
-            int dailyTax = taxCalculator.getTax(vehicle, dayPassagesArray);
+    /**
+     * Calculate tax per day over the sorted passages, sweeping each day's index range
+     * so summaries come out in chronological order without per-day collections.
+     * Each day uses the rule set in effect on that day. Summaries and passage details the
+     * requested detail leaves out are never built.
+     */
+    private TaxCalculationServiceResponse calculateTaxGroupedByDay(
+            TaxRuleIndex index, String city, VehicleClass vehicle, LocalDateTime[] passages,
+            ResponseDetail detail) {
 
-            // Create passage calculations for this day
-            List<PassageCalculation> dayCalculations = createPassageCalculations(
-                    vehicle, dayPassages, isTollFreeVehicle);
-            allPassageCalculations.addAll(dayCalculations);
+        List<LocalDateTime> sortedPassages = Arrays.asList(passages);
 
-            // Create daily summary
-            boolean isTollFreeDay = dailyTax == 0 && !isTollFreeVehicle && !dayPassages.isEmpty();
-            String reason = determineDayReason(isTollFreeVehicle, isTollFreeDay);
+        long[] epochMinutes = new long[sortedPassages.size()];
+        for (int i = 0; i < epochMinutes.length; i++) {
+            epochMinutes[i] = EpochMinutes.of(sortedPassages.get(i));
+        }
 
-            DailyTaxSummary dailySummary = new DailyTaxSummary(
-                    dayPassages.getFirst(), // Use first passage time for date reference
-                    dailyTax,
-                    dayPassages.size(),
-                    isTollFreeDay,
-                    reason
-            );
-            dailySummaries.add(dailySummary);
+        List<DailyTaxSummary> dailySummaries = new ArrayList<>();
+        List<PassageCalculation> allPassageCalculations =
+                detail.includesPassages() ? new ArrayList<>(epochMinutes.length) : List.of();
+        int totalTax = 0;
+        int dayCount = 0;
+        int tollFreeVehicleDays = 0;
+        int tollFreeCalendarDays = 0;
+        int dailyCapHits = 0;
+        TaxRuleSet rules = null;
+        // Without passages there are no days and nothing to ask the rules; the result is empty
+        boolean tollFreeOnEveryDay = passages.length > 0;
+
+        int from = 0;
+        while (from < epochMinutes.length) {
+            long epochDay = EpochMinutes.epochDay(epochMinutes[from]);
+            int to = from + 1;
+            while (to < epochMinutes.length && EpochMinutes.epochDay(epochMinutes[to]) == epochDay) {
+                to++;
+            }
+            LocalDate date = sortedPassages.get(from).toLocalDate();
+
+            if (rules == null || !rules.appliesTo(epochDay)) {
+                // Days arrive in order, so the index is searched once per rule set, not per passage
+                rules = index.rulesFor(city, epochDay);
+            }
+            boolean isTollFreeVehicle = rules.isTollFreeVehicle(vehicle);
+            tollFreeOnEveryDay &= isTollFreeVehicle;
+
+            log.debug("Calculating tax for {} with {} passages", date, to - from);
+
+            // One sweep yields the daily total, per-passage fees and the toll-free classification
+            DayCalculation day = calculateDay(rules, vehicle, isTollFreeVehicle, epochMinutes, from, to);
+            int dailyTax = day.dailyTax();
+            if (isTollFreeVehicle) {
+                tollFreeVehicleDays++;
+            } else if (day.tollFreeDay()) {
+                tollFreeCalendarDays++;
+            } else if (rules.getMaxDailyTax() > 0 && dailyTax >= rules.getMaxDailyTax()) {
+                dailyCapHits++;
+            }
+
+            if (detail.includesPassages()) {
+                addPassageCalculations(allPassageCalculations, vehicle, sortedPassages, from, day,
+                        isTollFreeVehicle, detail == ResponseDetail.VERBOSE);
+            }
+
+            if (detail.includesDays()) {
+                boolean isTollFreeDay = !isTollFreeVehicle && day.tollFreeDay();
+                dailySummaries.add(new DailyTaxSummary(
+                        date,
+                        dailyTax,
+                        to - from,
+                        isTollFreeDay,
+                        determineDayReason(isTollFreeVehicle, isTollFreeDay)
+                ));
+            }
 
             totalTax += dailyTax;
+            dayCount++;
 
             log.debug("Daily tax for {}: {} SEK", date, dailyTax);
+            from = to;
         }
 
         log.debug("Total tax across all days: {} SEK", totalTax);
 
-        return new TaxCalculationServiceResponse(
-                request.getVehicleType(),
+        TaxCalculationServiceResponse response = new TaxCalculationServiceResponse(
+                vehicle.getVehicleType(),
                 totalTax,
-                isTollFreeVehicle,
-                dailySummaries,
-                allPassageCalculations
+                tollFreeOnEveryDay,
+                Collections.unmodifiableList(dailySummaries),
+                Collections.unmodifiableList(allPassageCalculations),
+                index.getVersion()
         );
+        response.setCity(city);
+        response.setDetail(detail);
+        response.setDayCount(dayCount);
+        response.setTollFreeVehicleDays(tollFreeVehicleDays);
+        response.setTollFreeCalendarDays(tollFreeCalendarDays);
+        response.setDailyCapHits(dailyCapHits);
+        return response;
     }
 
-    private List<PassageCalculation> createPassageCalculations(
-            Vehicle vehicle, List<LocalDateTime> passageTimes, boolean isTollFreeVehicle) {
+    /**
+     * Sweep one day, or reuse the result of an identical taxed day: same rule set, same minutes
+     * of day. Toll-free days and vehicles are not memoized, as they return without a sweep.
+     */
+    private DayCalculation calculateDay(TaxRuleSet rules, VehicleClass vehicle, boolean isTollFreeVehicle,
+                                        long[] epochMinutes, int from, int to) {
+        Cache cache = cacheManager.getCache(DAY_PATTERN_CACHE);
+        if (cache == null || isTollFreeVehicle || rules.isTollFreeEpochDay(EpochMinutes.epochDay(epochMinutes[from]))) {
+            return taxCalculator.calculateDay(rules, vehicle, epochMinutes, from, to);
+        }
+        DayPatternKey key = new DayPatternKey(rules, epochMinutes, from, to);
+        return getCached(cache, key, () -> taxCalculator.calculateDay(rules, vehicle, epochMinutes, from, to));
+    }
 
-        return passageTimes.stream()
-                .map(time -> {
-                    int individualFee = taxCalculator.getTollFee(time, vehicle);
-                    boolean isTollFreeDay = taxCalculator.isTollFreeDate(time);
-                    String reason = determinePassageReason(vehicle, individualFee, isTollFreeDay, isTollFreeVehicle);
+    /**
+     * Look up, else compute and store. Unlike {@link Cache#get(Object, java.util.concurrent.Callable)},
+     * the computation runs outside the cache's locks, so waiting callers never pin a carrier thread;
+     * concurrent identical requests are coalesced by the single flight instead. Failures are not cached.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T getCached(Cache cache, Object key, Supplier<T> loader) {
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value = loader.get();
+        cache.put(key, value);
+        return value;
+    }
 
-                    return new PassageCalculation(
-                            time,
-                            individualFee,
-                            individualFee, // For now, same as individual (60-minute rule is complex to track)
-                            isTollFreeDay,
-                            individualFee > 0,
-                            reason
-                    );
-                })
-                .collect(Collectors.toList());
+    private void addPassageCalculations(List<PassageCalculation> target, Vehicle vehicle,
+                                        List<LocalDateTime> sortedPassages, int from, DayCalculation day,
+                                        boolean isTollFreeVehicle, boolean withReasonText) {
+        for (int i = 0; i < day.passageCount(); i++) {
+            int individualFee = day.individualFees()[i];
+            int effectiveFee = day.effectiveFees()[i];
+            ReasonCode reasonCode = determinePassageReason(individualFee, effectiveFee,
+                    day.isCapped(i), day.tollFreeDay(), isTollFreeVehicle);
+
+            target.add(new PassageCalculation(
+                    sortedPassages.get(from + i),
+                    individualFee,
+                    effectiveFee,
+                    day.tollFreeDay(),
+                    effectiveFee > 0,
+                    reasonCode,
+                    withReasonText ? reasonText(reasonCode, vehicle, individualFee, effectiveFee) : null
+            ));
+        }
     }
 
-    private String determineDayReason(boolean isTollFreeVehicle, boolean isTollFreeDay) {
+    private ReasonCode determineDayReason(boolean isTollFreeVehicle, boolean isTollFreeDay) {
         if (isTollFreeVehicle) {
-            return "Toll-free vehicle type";
+            return ReasonCode.TOLL_FREE_VEHICLE;
         }
         if (isTollFreeDay) {
-            return "Toll-free day (weekend/holiday/July)";
+            return ReasonCode.TOLL_FREE_DAY;
         }
-        return "Regular toll day";
+        return ReasonCode.REGULAR_DAY;
     }
 
-    private String determinePassageReason(Vehicle vehicle, int fee,
-                                          boolean isTollFreeDay, boolean isTollFreeVehicle) {
+    private ReasonCode determinePassageReason(int fee, int effectiveFee, boolean capped,
+                                              boolean isTollFreeDay, boolean isTollFreeVehicle) {
         if (isTollFreeVehicle) {
-            return "Toll-free vehicle type: " + vehicle.getVehicleType();
+            return ReasonCode.TOLL_FREE_VEHICLE;
         }
         if (isTollFreeDay) {
-            return "Toll-free day (weekend/holiday/July)";
+            return ReasonCode.TOLL_FREE_DAY;
         }
         if (fee == 0) {
-            return "Outside toll hours (18:30-05:59)";
+            return ReasonCode.OUTSIDE_TOLL_HOURS;
+        }
+        if (capped) {
+            return ReasonCode.DAILY_MAXIMUM_REACHED;
+        }
+        if (effectiveFee == 0) {
+            return ReasonCode.SINGLE_CHARGE_COVERED;
+        }
+        if (effectiveFee < fee) {
+            return ReasonCode.REDUCED_BY_DAILY_MAXIMUM;
         }
-        return "Regular toll period - " + fee + " SEK";
+        return ReasonCode.REGULAR_TOLL;
     }
 
+    /**
+     * The verbose reason of a passage: the code's description, with the vehicle or fees filled in.
+     */
+    private static String reasonText(ReasonCode reasonCode, Vehicle vehicle, int fee, int effectiveFee) {
+        return switch (reasonCode) {
+            case TOLL_FREE_VEHICLE -> "Toll-free vehicle type: " + vehicle.getVehicleType();
+            case REDUCED_BY_DAILY_MAXIMUM ->
+                    "Regular toll period - " + fee + " SEK, reduced to " + effectiveFee + " SEK by daily maximum";
+            case REGULAR_TOLL -> "Regular toll period - " + fee + " SEK";
+            default -> reasonCode.getDescription();
+        };
+    }
 
+    @EventListener
+    @CacheEvict(cacheNames = {VEHICLE_TYPES_CACHE, TOLL_SCHEDULE_CACHE, RESULT_CACHE, DAY_PATTERN_CACHE}, allEntries = true)
+    public void onTaxRulesChanged(TaxRulesChangedEvent event) {
+        log.debug("Evicting rule-derived caches for tax rules version {}", event.current().getVersion());
+    }
 
+    /**
+     * Supported types of the rule set in effect today. Cached per rule set, so a rule set taking
+     * effect is picked up without a reload.
+     */
     @Override
-    @Cacheable("vehicleTypes")
     public List<String> getSupportedVehicleTypes() {
-        return taxRulesConfig.getAllVehicleTypes();
+        TaxRuleSet rules = getActiveRules();
+        return cachedForRules(VEHICLE_TYPES_CACHE, rules, rules::getSupportedVehicleTypes);
+    }
+
+    /**
+     * Classes supported by any of the default city's rule sets, for filtering input that spans
+     * many days; each day's own rule set still decides.
+     */
+    @Override
+    public Set<VehicleClass> getSupportedVehicleClasses() {
+        return taxRulesRegistry.index().supportedVehicleClasses(null);
+    }
+
+    @Override
+    public long getRuleVersion() {
+        return taxRulesRegistry.index().getVersion();
     }
 
     @Override
-    @Cacheable("tollSchedule")
+    public TaxRuleSet getActiveRules() {
+        return taxRulesRegistry.current();
+    }
+
+    /**
+     * Schedule of the rule set in effect today, cached per rule set like the vehicle types.
+     */
+    @Override
     public Map<String, Object> getTollSchedule() {
+        TaxRuleSet rules = getActiveRules();
+        return cachedForRules(TOLL_SCHEDULE_CACHE, rules, () -> tollSchedule(rules));
+    }
+
+    private <T> T cachedForRules(String cacheName, TaxRuleSet rules, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        return cache == null ? loader.get() : getCached(cache, rules, loader);
+    }
+
+    private Map<String, Object> tollSchedule(TaxRuleSet rules) {
         log.debug("Retrieving toll schedule information");
 
         Map<String, Object> schedule = new LinkedHashMap<>();
-        schedule.put("description", "Congestion tax hours and amounts for Gothenburg");
+        schedule.put("description", "Congestion tax hours and amounts for " + rules.getCity());
+        schedule.put("city", rules.getCity());
+        schedule.put("effectiveFrom", rules.getEffectiveFrom());
         schedule.put("currency", "SEK");
-        schedule.put("maxDailyAmount", taxRulesConfig.getMaxDailyTax());
-        schedule.put("singleChargeRule", taxRulesConfig.getSingleChargeIntervalMinutes() + " minutes - highest fee applies");
-        schedule.put("tollFreeMonths", taxRulesConfig.getTollFreeMonths());
+        schedule.put("maxDailyAmount", rules.getMaxDailyTax());
+        schedule.put("singleChargeRule", rules.getSingleChargeIntervalMinutes() + " minutes - highest fee applies");
+        schedule.put("tollFreeMonths", rules.getTollFreeMonths());
 
-        List<Map<String, Object>> timeSlots = taxRulesConfig.getTimeSlots()
+        List<Map<String, Object>> timeSlots = rules.getTimeSlots()
                 .entrySet()
                 .stream()
                 .map(entry -> {
@@ -176,10 +418,16 @@ class CongestionTaxService implements TaxService {
                 "July (entire month)"
         ));
 
-        schedule.put("tollFreeVehicles", getSupportedVehicleTypes().stream()
-                .filter(taxRulesConfig::isTollFreeVehicle)
-                .collect(Collectors.toList()));
+        schedule.put("tollFreeVehicles", rules.getTollFreeVehicleTypes());
+        schedule.put("ruleVersion", rules.getVersion());
 
         return schedule;
     }
+
+    /**
+     * Request as sent, with the passages sorted: equal keys are bound to produce equal outcomes.
+     */
+    private record RequestKey(String vehicleType, String city, ResponseDetail detail,
+                              List<LocalDateTime> sortedPassages) {
+    }
 }
@@ -0,0 +1,99 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Incremental daily tax for one vehicle on one day. Passages are fed in chronological order
+ * and each costs O(1); {@link #dailyTax()} is the tax of everything seen so far and always
+ * equals {@link TaxCalculator#getTax(Vehicle, long[], int, int)} over the same passages.
+ * <p>
+ * State is the open 60-minute window (start and highest fee) plus the total of the closed
+ * windows. Not thread-safe: use one instance per vehicle and day from a single thread.
+ */
+public final class DailyTaxAccumulator {
+    private final TaxRuleSet rules;
+    private final long epochDay;
+    private final boolean tollFree;
+
+    private int passageCount;
+    private long lastMinute = Long.MIN_VALUE;
+    private long windowStart;
+    private int windowFee;
+    private int closedTotal;
+
+    DailyTaxAccumulator(TaxRuleSet rules, long epochDay, boolean tollFreeVehicle) {
+        this.rules = rules;
+        this.epochDay = epochDay;
+        this.tollFree = tollFreeVehicle || rules.isTollFreeEpochDay(epochDay);
+    }
+
+    /**
+     * Whether the rules of this day support the vehicle class at all.
+     */
+    public boolean isSupported(VehicleClass vehicleClass) {
+        return rules.isSupportedVehicle(vehicleClass);
+    }
+
+    public void add(LocalDateTime passageTime) {
+        add(EpochMinutes.of(passageTime));
+    }
+
+    /**
+     * Record a passage of this accumulator's day, no earlier than the previous one.
+     */
+    public void add(long epochMinute) {
+        if (EpochMinutes.epochDay(epochMinute) != epochDay) {
+            throw new IllegalArgumentException("Passage " + EpochMinutes.toLocalDateTime(epochMinute)
+                    + " is not on " + LocalDate.ofEpochDay(epochDay));
+        }
+        if (epochMinute < lastMinute) {
+            throw new IllegalArgumentException("Passage " + EpochMinutes.toLocalDateTime(epochMinute)
+                    + " is earlier than the previous passage");
+        }
+        lastMinute = epochMinute;
+        passageCount++;
+
+        if (tollFree || closedTotal >= rules.getMaxDailyTax()) {
+            return; // Nothing can change the daily tax any more
+        }
+
+        int fee = rules.feeAt(EpochMinutes.minuteOfDay(epochMinute));
+        if (passageCount == 1) {
+            windowStart = epochMinute;
+            windowFee = fee;
+        } else if (epochMinute - windowStart <= rules.getSingleChargeIntervalMinutes()) {
+            windowFee = Math.max(windowFee, fee);
+        } else {
+            closedTotal += windowFee;
+            windowStart = epochMinute;
+            windowFee = fee;
+        }
+    }
+
+    /**
+     * Tax for the passages seen so far, capped at the daily maximum.
+     */
+    public int dailyTax() {
+        if (closedTotal >= rules.getMaxDailyTax()) {
+            return rules.getMaxDailyTax();
+        }
+        return Math.min(closedTotal + windowFee, rules.getMaxDailyTax());
+    }
+
+    public int passageCount() {
+        return passageCount;
+    }
+
+    public long epochDay() {
+        return epochDay;
+    }
+
+    public boolean isTollFree() {
+        return tollFree;
+    }
+
+    public long ruleVersion() {
+        return rules.getVersion();
+    }
+}
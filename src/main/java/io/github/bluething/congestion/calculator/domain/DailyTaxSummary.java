@@ -14,6 +14,7 @@ public class DailyTaxSummary {
     private int passageCount;
     private boolean tollFreeDay;
     private String reason;
+    private ReasonCode reasonCode;
 
     public DailyTaxSummary() {}
 
@@ -25,6 +26,11 @@ public class DailyTaxSummary {
         this.reason = reason;
     }
 
+    public DailyTaxSummary(LocalDate date, int dailyTax, int passageCount, boolean tollFreeDay, ReasonCode reasonCode) {
+        this(date, dailyTax, passageCount, tollFreeDay, reasonCode.getDescription());
+        this.reasonCode = reasonCode;
+    }
+
     // Convenience constructor that extracts date from LocalDateTime
     public DailyTaxSummary(LocalDateTime dateTime, int dailyTax, int passageCount, boolean tollFreeDay, String reason) {
         this(dateTime.toLocalDate(), dailyTax, passageCount, tollFreeDay, reason);
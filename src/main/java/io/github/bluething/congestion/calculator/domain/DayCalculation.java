@@ -0,0 +1,25 @@
+package io.github.bluething.congestion.calculator.domain;
+
+/**
+ * Result of one sorted sweep over a single day's passages.
+ * <p>
+ * {@code effectiveFees[i]} is what passage {@code i} actually contributes to {@code dailyTax}: each
+ * 60-minute window is charged to the passage holding its highest fee and clipped by the daily
+ * maximum, so the effective fees always add up to the daily tax. Passages from {@code cappedFrom}
+ * onwards were not evaluated against the 60-minute rule because the daily maximum was already reached.
+ * The arrays are owned by this result and must not be modified.
+ */
+public record DayCalculation(int dailyTax,
+                             boolean tollFreeDay,
+                             int[] individualFees,
+                             int[] effectiveFees,
+                             int cappedFrom) {
+
+    public int passageCount() {
+        return individualFees.length;
+    }
+
+    public boolean isCapped(int index) {
+        return index >= cappedFrom;
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import java.util.Arrays;
+
+/**
+ * Fingerprint of a taxed day: the rule set and the sorted minute-of-day sequence of its passages.
+ * On a day that is neither toll-free nor for a toll-free vehicle, the sweep depends on nothing
+ * else, so commuters repeating the same passages on different weekdays share one entry.
+ * Minutes of day fit in a {@code char}, two bytes per passage.
+ * <p>
+ * Rule sets are compared by identity: each compiled snapshot is immutable, and a rules reload
+ * compiles new ones.
+ */
+final class DayPatternKey {
+    private final TaxRuleSet rules;
+    private final char[] minutesOfDay;
+    private final int hash;
+
+    DayPatternKey(TaxRuleSet rules, long[] sortedEpochMinutes, int from, int to) {
+        char[] minutes = new char[to - from];
+        for (int i = 0; i < minutes.length; i++) {
+            minutes[i] = (char) EpochMinutes.minuteOfDay(sortedEpochMinutes[from + i]);
+        }
+        this.rules = rules;
+        this.minutesOfDay = minutes;
+        this.hash = 31 * System.identityHashCode(rules) + Arrays.hashCode(minutes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof DayPatternKey other
+                && hash == other.hash
+                && rules == other.rules
+                && Arrays.equals(minutesOfDay, other.minutesOfDay);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return rules.getCity() + " v" + rules.getVersion() + " " + minutesOfDay.length + " passages";
+    }
+}
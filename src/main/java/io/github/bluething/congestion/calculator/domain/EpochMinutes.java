@@ -0,0 +1,91 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Passage times encoded as minutes since 1970-01-01T00:00 local time. Seconds are truncated.
+ * The helpers below decode the encoding arithmetically so hot paths never build date objects.
+ */
+public final class EpochMinutes {
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final int DAYS_PER_400_YEARS = 146_097;
+    private static final int DAYS_0000_TO_1970 = 719_468; // 0000-03-01 to 1970-01-01
+    private static final int[] DAYS_BEFORE_MONTH = {0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334};
+
+    private EpochMinutes() {}
+
+    public static long of(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Encode already validated date and time fields, e.g. straight from a parser, without
+     * building a {@link LocalDateTime}.
+     */
+    public static long of(int year, int month, int dayOfMonth, int hour, int minute) {
+        long epochDay = firstEpochDayOfYear(year) + DAYS_BEFORE_MONTH[month - 1] + dayOfMonth - 1;
+        if (month > 2 && Year.isLeap(year)) {
+            epochDay++;
+        }
+        return epochDay * MINUTES_PER_DAY + hour * 60L + minute;
+    }
+
+    /**
+     * Convert and sort passage times into a new primitive array.
+     */
+    public static long[] sorted(List<LocalDateTime> dateTimes) {
+        long[] minutes = new long[dateTimes.size()];
+        for (int i = 0; i < minutes.length; i++) {
+            minutes[i] = of(dateTimes.get(i));
+        }
+        Arrays.sort(minutes);
+        return minutes;
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    public static LocalDate toLocalDate(long epochMinute) {
+        return LocalDate.ofEpochDay(epochDay(epochMinute));
+    }
+
+    public static long epochDay(long epochMinute) {
+        return Math.floorDiv(epochMinute, MINUTES_PER_DAY);
+    }
+
+    public static int minuteOfDay(long epochMinute) {
+        return (int) Math.floorMod(epochMinute, MINUTES_PER_DAY);
+    }
+
+    /**
+     * Proleptic Gregorian year of an epoch day, without allocating a {@link LocalDate}.
+     */
+    static int yearOfEpochDay(long epochDay) {
+        long z = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(z, DAYS_PER_400_YEARS);
+        long dayOfEra = z - era * DAYS_PER_400_YEARS;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYearFromMarch = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        // Days from March 1st; the year rolls over at January 1st, 306 days later
+        long year = yearOfEra + era * 400 + (dayOfYearFromMarch >= 306 ? 1 : 0);
+        return (int) year;
+    }
+
+    /**
+     * Epoch day of January 1st of the given year.
+     */
+    static long firstEpochDayOfYear(int year) {
+        long y = year - 1L; // January belongs to the previous March-based year
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + 306;
+        return era * DAYS_PER_400_YEARS + dayOfEra - DAYS_0000_TO_1970;
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import java.util.Map;
+
+/**
+ * Toll fee for every minute of the day, compiled once from the configured time slots.
+ * Slots use the format {@code HH:mm-HH:mm} (both ends inclusive) and may wrap past midnight.
+ * Compilation fails if two slots claim the same minute or if any minute is left uncovered.
+ */
+final class FeeSchedule {
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final int[] feeByMinute;
+
+    private FeeSchedule(int[] feeByMinute) {
+        this.feeByMinute = feeByMinute;
+    }
+
+    static FeeSchedule compile(Map<String, Integer> timeSlots) {
+        if (timeSlots == null || timeSlots.isEmpty()) {
+            throw new IllegalStateException("No congestion tax time slots configured");
+        }
+
+        int[] fees = new int[MINUTES_PER_DAY];
+        String[] owners = new String[MINUTES_PER_DAY];
+
+        for (Map.Entry<String, Integer> slot : timeSlots.entrySet()) {
+            String range = slot.getKey();
+            Integer fee = slot.getValue();
+            if (fee == null || fee < 0) {
+                throw new IllegalStateException("Time slot " + range + " has an invalid fee: " + fee);
+            }
+
+            int[] bounds = parseRange(range);
+            int minute = bounds[0];
+            while (true) {
+                if (owners[minute] != null) {
+                    throw new IllegalStateException(String.format(
+                            "Time slot %s overlaps %s at %s", range, owners[minute], formatMinute(minute)));
+                }
+                owners[minute] = range;
+                fees[minute] = fee;
+                if (minute == bounds[1]) {
+                    break;
+                }
+                minute = (minute + 1) % MINUTES_PER_DAY;
+            }
+        }
+
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            if (owners[minute] == null) {
+                int end = minute;
+                while (end + 1 < MINUTES_PER_DAY && owners[end + 1] == null) {
+                    end++;
+                }
+                throw new IllegalStateException(String.format(
+                        "Time slots leave %s-%s uncovered", formatMinute(minute), formatMinute(end)));
+            }
+        }
+
+        return new FeeSchedule(fees);
+    }
+
+    int feeAt(int minuteOfDay) {
+        return feeByMinute[minuteOfDay];
+    }
+
+    private static int[] parseRange(String range) {
+        String[] parts = range == null ? new String[0] : range.split("-");
+        if (parts.length != 2) {
+            throw new IllegalStateException("Time slot must be in HH:mm-HH:mm format: " + range);
+        }
+        return new int[]{parseMinute(parts[0].trim(), range), parseMinute(parts[1].trim(), range)};
+    }
+
+    private static int parseMinute(String time, String range) {
+        String[] parts = time.split(":");
+        try {
+            if (parts.length == 2) {
+                int hour = Integer.parseInt(parts[0]);
+                int minute = Integer.parseInt(parts[1]);
+                if (hour >= 0 && hour < 24 && minute >= 0 && minute < 60) {
+                    return hour * 60 + minute;
+                }
+            }
+        } catch (NumberFormatException ignored) {
+            // fall through to the error below
+        }
+        throw new IllegalStateException("Time slot must be in HH:mm-HH:mm format: " + range);
+    }
+
+    private static String formatMinute(int minuteOfDay) {
+        return String.format("%02d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
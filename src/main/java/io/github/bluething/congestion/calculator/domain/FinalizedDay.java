@@ -0,0 +1,15 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import java.time.LocalDate;
+
+/**
+ * Daily tax of one vehicle, emitted by {@link ReorderingTaxStream} once no on-time passage
+ * can change it any more.
+ */
+public record FinalizedDay(String vehicleId,
+                           VehicleClass vehicleClass,
+                           LocalDate date,
+                           int dailyTax,
+                           int passageCount,
+                           long ruleVersion) {
+}
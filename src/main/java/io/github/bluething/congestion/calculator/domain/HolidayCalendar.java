@@ -0,0 +1,12 @@
+package io.github.bluething.congestion.calculator.domain;
+
+/**
+ * Source of generated holidays for a rule set. Configured {@code holidays} and
+ * {@code days-before-holidays} are always added on top.
+ */
+public enum HolidayCalendar {
+    /** Only the configured holiday lists. */
+    NONE,
+    /** Swedish public holidays and the days before them, for any year. */
+    SWEDEN
+}
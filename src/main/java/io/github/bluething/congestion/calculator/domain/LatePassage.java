@@ -0,0 +1,13 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import java.time.LocalDateTime;
+
+/**
+ * Passage that arrived behind the watermark and could not be applied in order. Routed to
+ * the correction path instead of the running totals.
+ */
+public record LatePassage(String vehicleId,
+                          VehicleClass vehicleClass,
+                          LocalDateTime passageTime,
+                          LocalDateTime watermark) {
+}
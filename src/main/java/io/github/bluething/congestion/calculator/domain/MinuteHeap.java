@@ -0,0 +1,73 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Fixed-capacity binary min-heap of epoch minutes. Insertion and removal cost
+ * O(log capacity), independent of how many passages went through it before.
+ */
+final class MinuteHeap {
+    private final long[] heap;
+    private int size;
+
+    MinuteHeap(int capacity) {
+        this.heap = new long[capacity];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean isFull() {
+        return size == heap.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return heap[0];
+    }
+
+    void push(long minute) {
+        if (size == heap.length) {
+            throw new IllegalStateException("Heap is full");
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= minute) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = minute;
+    }
+
+    long poll() {
+        long top = peek();
+        long last = heap[--size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (size > 0) {
+            heap[i] = last;
+        }
+        return top;
+    }
+}
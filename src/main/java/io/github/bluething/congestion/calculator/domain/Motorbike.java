@@ -1,8 +0,0 @@
-package io.github.bluething.congestion.calculator.domain;
-
-class Motorbike implements Vehicle {
-    @Override
-    public String getVehicleType() {
-        return "Motorcycle";
-    }
-}
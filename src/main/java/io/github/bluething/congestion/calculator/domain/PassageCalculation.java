@@ -13,7 +13,8 @@ public class PassageCalculation {
     private int effectiveFee; // Fee after 60-minute rule applied
     private boolean tollFreeDay;
     private boolean includedInTotal;
-    private String reason;
+    private String reason; // Only at verbose detail; the code is always set
+    private ReasonCode reasonCode;
 
     public PassageCalculation() {}
 
@@ -26,4 +27,10 @@ public class PassageCalculation {
         this.includedInTotal = includedInTotal;
         this.reason = reason;
     }
+
+    public PassageCalculation(LocalDateTime passageTime, int individualFee, int effectiveFee,
+                              boolean tollFreeDay, boolean includedInTotal, ReasonCode reasonCode, String reason) {
+        this(passageTime, individualFee, effectiveFee, tollFreeDay, includedInTotal, reason);
+        this.reasonCode = reasonCode;
+    }
 }
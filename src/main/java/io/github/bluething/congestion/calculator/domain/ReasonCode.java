@@ -0,0 +1,27 @@
+package io.github.bluething.congestion.calculator.domain;
+
+/**
+ * Why a passage or day was charged the way it was. Responses carry the constant name; the
+ * description is published once, in the reason code lookup, instead of in every response.
+ * Names are part of the API and must not change.
+ */
+public enum ReasonCode {
+    REGULAR_DAY("Regular toll day"),
+    TOLL_FREE_VEHICLE("Toll-free vehicle type"),
+    TOLL_FREE_DAY("Toll-free day (weekend/holiday/July)"),
+    OUTSIDE_TOLL_HOURS("Outside toll hours (18:30-05:59)"),
+    DAILY_MAXIMUM_REACHED("Daily maximum already reached"),
+    SINGLE_CHARGE_COVERED("Covered by a higher fee within the single charge interval"),
+    REDUCED_BY_DAILY_MAXIMUM("Regular toll period, fee reduced by the daily maximum"),
+    REGULAR_TOLL("Regular toll period");
+
+    private final String description;
+
+    ReasonCode(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
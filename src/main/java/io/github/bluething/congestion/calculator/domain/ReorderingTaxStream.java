@@ -0,0 +1,212 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streaming daily tax over passages that may arrive out of order.
+ * <p>
+ * The watermark trails the newest passage seen by the allowed lateness. Each vehicle buffers
+ * its pending passages in a bounded min-heap; passages at or behind the watermark are applied
+ * in order to the vehicle's {@link DailyTaxAccumulator}, and a day is emitted as a
+ * {@link FinalizedDay} once the watermark passes its end. A passage that arrives behind the
+ * watermark (or behind what its vehicle has already applied) is counted and routed to the
+ * correction path; late passages and buffer overflows are also counted in {@link TaxMetrics}.
+ * A vehicle is released by its own passages, and every vehicle is released each time the
+ * watermark enters a new day, so the days of idle vehicles are finalized and their state dropped
+ * without an outside heartbeat. Memory is bounded by the vehicles with open days times the
+ * buffer capacity.
+ * <p>
+ * Not thread-safe: feed a stream from one thread, or partition vehicles across streams.
+ */
+@Slf4j
+public final class ReorderingTaxStream implements AutoCloseable {
+    private final TaxCalculator taxCalculator;
+    private final long allowedLatenessMinutes;
+    private final int bufferCapacity;
+    private final Consumer<FinalizedDay> results;
+    private final Consumer<LatePassage> corrections;
+    private final TaxMetrics taxMetrics;
+    private final Map<String, VehicleState> vehicles = new HashMap<>();
+
+    private long maxEventMinute = Long.MIN_VALUE;
+    private long sweptEpochDay = Long.MIN_VALUE;
+    private long accepted;
+    private long late;
+    private long overflowed;
+    private long finalizedDays;
+
+    ReorderingTaxStream(TaxCalculator taxCalculator, Duration allowedLateness, int bufferCapacity,
+                        Consumer<FinalizedDay> results, Consumer<LatePassage> corrections, TaxMetrics taxMetrics) {
+        if (allowedLateness.isNegative() || bufferCapacity < 1) {
+            throw new IllegalArgumentException("Allowed lateness must not be negative and buffer capacity must be positive");
+        }
+        this.taxCalculator = taxCalculator;
+        this.allowedLatenessMinutes = allowedLateness.toMinutes();
+        this.bufferCapacity = bufferCapacity;
+        this.results = results;
+        this.corrections = corrections;
+        this.taxMetrics = taxMetrics;
+    }
+
+    public void accept(String vehicleId, VehicleClass vehicleClass, LocalDateTime passageTime) {
+        accept(vehicleId, vehicleClass, EpochMinutes.of(passageTime));
+    }
+
+    public void accept(String vehicleId, VehicleClass vehicleClass, long epochMinute) {
+        long watermark = watermarkMinute();
+        VehicleState state = vehicles.get(vehicleId);
+        if (epochMinute < watermark || (state != null && epochMinute < state.lastApplied)) {
+            late++;
+            taxMetrics.recordStreamLatePassage();
+            corrections.accept(new LatePassage(vehicleId, vehicleClass,
+                    EpochMinutes.toLocalDateTime(epochMinute), EpochMinutes.toLocalDateTime(watermark)));
+            return;
+        }
+
+        accepted++;
+        if (state == null) {
+            state = new VehicleState(vehicleClass, bufferCapacity);
+            vehicles.put(vehicleId, state);
+        }
+        if (state.pending.isFull()) {
+            // Keep memory bounded: apply the earliest pending passage ahead of the watermark
+            overflowed++;
+            taxMetrics.recordStreamBufferOverflow();
+            apply(vehicleId, state, state.pending.poll());
+        }
+        state.pending.push(epochMinute);
+
+        if (epochMinute > maxEventMinute) {
+            maxEventMinute = epochMinute;
+        }
+        if (!sweepOnNewDay() && release(vehicleId, state, watermarkMinute())) {
+            vehicles.remove(vehicleId);
+        }
+    }
+
+    /**
+     * Move event time forward without a passage, e.g. from a clock heartbeat, and release
+     * every vehicle behind the new watermark. Useful when input stops for a while: passages
+     * already release every vehicle once per day of event time.
+     */
+    public void advanceTo(LocalDateTime eventTime) {
+        long minute = EpochMinutes.of(eventTime);
+        if (minute > maxEventMinute) {
+            maxEventMinute = minute;
+        }
+        sweptEpochDay = Math.max(sweptEpochDay, EpochMinutes.epochDay(watermarkMinute()));
+        releaseAll(watermarkMinute());
+    }
+
+    /**
+     * Apply every pending passage and emit all open days.
+     */
+    @Override
+    public void close() {
+        releaseAll(Long.MAX_VALUE);
+    }
+
+    public LocalDateTime watermark() {
+        return maxEventMinute == Long.MIN_VALUE ? null : EpochMinutes.toLocalDateTime(watermarkMinute());
+    }
+
+    public Stats stats() {
+        int pending = 0;
+        for (VehicleState state : vehicles.values()) {
+            pending += state.pending.size();
+        }
+        return new Stats(accepted, late, overflowed, finalizedDays, vehicles.size(), pending);
+    }
+
+    private long watermarkMinute() {
+        return maxEventMinute == Long.MIN_VALUE ? Long.MIN_VALUE : maxEventMinute - allowedLatenessMinutes;
+    }
+
+    /**
+     * Release every vehicle when the watermark has moved into a day not swept yet: one pass over
+     * the open vehicles per day of event time. Returns whether the sweep ran.
+     */
+    private boolean sweepOnNewDay() {
+        long watermark = watermarkMinute();
+        long epochDay = EpochMinutes.epochDay(watermark);
+        if (epochDay <= sweptEpochDay) {
+            return false;
+        }
+        sweptEpochDay = epochDay;
+        releaseAll(watermark);
+        return true;
+    }
+
+    private void releaseAll(long watermark) {
+        Iterator<Map.Entry<String, VehicleState>> iterator = vehicles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, VehicleState> entry = iterator.next();
+            if (release(entry.getKey(), entry.getValue(), watermark)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Apply the vehicle's passages up to the watermark and finalize its day once the watermark
+     * has passed it. Returns whether the vehicle holds no state any more.
+     */
+    private boolean release(String vehicleId, VehicleState state, long watermark) {
+        while (!state.pending.isEmpty() && state.pending.peek() <= watermark) {
+            apply(vehicleId, state, state.pending.poll());
+        }
+        DailyTaxAccumulator day = state.day;
+        if (day != null && watermark >= (day.epochDay() + 1) * EpochMinutes.MINUTES_PER_DAY) {
+            emit(vehicleId, state);
+        }
+        return state.day == null && state.pending.isEmpty();
+    }
+
+    private void apply(String vehicleId, VehicleState state, long epochMinute) {
+        long epochDay = EpochMinutes.epochDay(epochMinute);
+        if (state.day != null && state.day.epochDay() != epochDay) {
+            emit(vehicleId, state);
+        }
+        if (state.day == null) {
+            state.day = taxCalculator.startDay(state.vehicleClass, epochDay);
+        }
+        state.day.add(epochMinute);
+        state.lastApplied = epochMinute;
+    }
+
+    private void emit(String vehicleId, VehicleState state) {
+        DailyTaxAccumulator day = state.day;
+        state.day = null;
+        finalizedDays++;
+        results.accept(new FinalizedDay(vehicleId, state.vehicleClass, LocalDate.ofEpochDay(day.epochDay()),
+                day.dailyTax(), day.passageCount(), day.ruleVersion()));
+        log.debug("Finalized {} for {}: {} SEK", LocalDate.ofEpochDay(day.epochDay()), vehicleId, day.dailyTax());
+    }
+
+    /**
+     * Counters since the stream was opened, plus the state currently held.
+     */
+    public record Stats(long accepted, long late, long overflowed, long finalizedDays,
+                        int openVehicles, int pendingPassages) {
+    }
+
+    private static final class VehicleState {
+        private final VehicleClass vehicleClass;
+        private final MinuteHeap pending;
+        private DailyTaxAccumulator day;
+        private long lastApplied = Long.MIN_VALUE;
+
+        private VehicleState(VehicleClass vehicleClass, int bufferCapacity) {
+            this.vehicleClass = vehicleClass;
+            this.pending = new MinuteHeap(bufferCapacity);
+        }
+    }
+}
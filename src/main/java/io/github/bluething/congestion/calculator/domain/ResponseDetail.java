@@ -0,0 +1,40 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import java.util.Locale;
+
+/**
+ * How much of a calculation a client asked for. The totals are always calculated; work for the
+ * parts left out is skipped, not just hidden. {@link #VERBOSE} is the response as it has always
+ * been, with a human-readable reason per passage; the other levels carry {@link ReasonCode}s.
+ */
+public enum ResponseDetail {
+    /** Totals only. */
+    NONE,
+    /** Totals and one summary per day. */
+    DAILY,
+    /** Totals, daily summaries and every passage, with reason codes. */
+    FULL,
+    /** Everything in {@link #FULL}, with reasons spelled out as text. */
+    VERBOSE;
+
+    public boolean includesDays() {
+        return this != NONE;
+    }
+
+    public boolean includesPassages() {
+        return this == FULL || this == VERBOSE;
+    }
+
+    /**
+     * Parse a request parameter such as {@code none} or {@code daily}, ignoring case.
+     */
+    public static ResponseDetail fromParam(String value) {
+        String name = value.trim().toUpperCase(Locale.ROOT);
+        for (ResponseDetail detail : values()) {
+            if (detail.name().equals(name)) {
+                return detail;
+            }
+        }
+        throw new IllegalArgumentException("Unknown response detail: " + value);
+    }
+}
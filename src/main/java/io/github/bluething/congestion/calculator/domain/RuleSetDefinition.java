@@ -0,0 +1,59 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One entry of {@code congestion.tax.rule-sets}: the rules of a city from a given date onwards.
+ * Fields left unset inherit from the previous entry of the same city, or from the top-level
+ * settings for the first one. Holidays are merged by year rather than replaced.
+ */
+@Getter
+@Setter
+class RuleSetDefinition {
+    private String city;
+    private LocalDate effectiveFrom;
+
+    private Integer maxDailyTax;
+    private Integer singleChargeIntervalMinutes;
+    private List<Integer> tollFreeMonths;
+    private Set<String> tollFreeVehicles;
+    private List<String> allVehicleTypes;
+    private Map<String, Integer> timeSlots;
+    private HolidayCalendar holidayCalendar;
+    private Map<String, List<String>> holidays;
+    private Map<String, List<String>> daysBeforeHolidays;
+
+    TaxRulesConfig inherit(TaxRulesConfig parent) {
+        TaxRulesConfig merged = new TaxRulesConfig();
+        merged.setCity(city != null ? city : parent.getCity());
+        merged.setMaxDailyTax(maxDailyTax != null ? maxDailyTax : parent.getMaxDailyTax());
+        merged.setSingleChargeIntervalMinutes(singleChargeIntervalMinutes != null
+                ? singleChargeIntervalMinutes : parent.getSingleChargeIntervalMinutes());
+        merged.setTollFreeMonths(tollFreeMonths != null ? tollFreeMonths : parent.getTollFreeMonths());
+        merged.setTollFreeVehicles(tollFreeVehicles != null ? tollFreeVehicles : parent.getTollFreeVehicles());
+        merged.setAllVehicleTypes(allVehicleTypes != null ? allVehicleTypes : parent.getAllVehicleTypes());
+        merged.setTimeSlots(timeSlots != null ? timeSlots : parent.getTimeSlots());
+        merged.setHolidayCalendar(holidayCalendar != null ? holidayCalendar : parent.getHolidayCalendar());
+        merged.setHolidays(mergeByYear(parent.getHolidays(), holidays));
+        merged.setDaysBeforeHolidays(mergeByYear(parent.getDaysBeforeHolidays(), daysBeforeHolidays));
+        merged.setRuleSets(List.of());
+        return merged;
+    }
+
+    private static Map<String, List<String>> mergeByYear(Map<String, List<String>> parent,
+                                                         Map<String, List<String>> overrides) {
+        if (overrides == null) {
+            return parent;
+        }
+        Map<String, List<String>> merged = new HashMap<>(parent);
+        merged.putAll(overrides);
+        return merged;
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with equal keys: the first caller runs the computation, and callers
+ * arriving while it runs wait for it and share its outcome, result or exception. Nothing is kept
+ * once the computation completes, so a later call computes afresh.
+ * <p>
+ * The computation runs outside any lock and waiters park on a {@link CompletableFuture} rather
+ * than a monitor, so virtual threads unmount while they wait instead of pinning their carrier.
+ * A computation must not call back into the same flight with the same key.
+ */
+final class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Runnable onCoalesced;
+
+    SingleFlight(Runnable onCoalesced) {
+        this.onCoalesced = onCoalesced;
+    }
+
+    V execute(K key, Supplier<V> computation) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            onCoalesced.run();
+            return join(leader);
+        }
+
+        try {
+            V result = computation.get();
+            // Leave the map before completing, so no caller joins a finished flight
+            inFlight.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (Throwable t) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(t);
+            throw t;
+        }
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private static <V> V join(CompletableFuture<V> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            // Rethrow what the leader saw; each waiter gets the same exception instance
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
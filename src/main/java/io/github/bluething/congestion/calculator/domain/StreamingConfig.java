@@ -0,0 +1,20 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "congestion.tax.streaming")
+@Getter
+@Setter
+class StreamingConfig {
+    // How far behind the newest passage seen an event may arrive and still be applied in order
+    private Duration allowedLateness = Duration.ofMinutes(5);
+
+    // Pending passages held per vehicle; when full, the earliest is applied early
+    private int reorderBufferCapacity = 64;
+}
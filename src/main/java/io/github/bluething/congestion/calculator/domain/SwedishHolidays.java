@@ -0,0 +1,111 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Swedish public holidays for any year, and the toll-free days derived from them: every
+ * holiday and the day before it. The derived days are memoized per year as a day-of-year
+ * bitmap shared by all rule sets.
+ */
+final class SwedishHolidays {
+    private static final int MIN_CACHED_YEAR = TollFreeCalendar.MIN_CACHED_YEAR;
+    private static final int MAX_CACHED_YEAR = TollFreeCalendar.MAX_CACHED_YEAR;
+    private static final int NATIONAL_DAY_SINCE = 2005; // Replaced Whit Monday
+
+    private static final AtomicReferenceArray<long[]> TOLL_FREE_DAYS =
+            new AtomicReferenceArray<>(MAX_CACHED_YEAR - MIN_CACHED_YEAR + 1);
+
+    private SwedishHolidays() {}
+
+    /**
+     * Easter Sunday in the Gregorian calendar (anonymous Gregorian algorithm).
+     */
+    static LocalDate easterSunday(int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = (h + l - 7 * m + 114) % 31 + 1;
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Public holidays of the year in date order.
+     */
+    static List<LocalDate> publicHolidays(int year) {
+        LocalDate easter = easterSunday(year);
+        List<LocalDate> holidays = new ArrayList<>();
+        holidays.add(LocalDate.of(year, 1, 1)); // New Year's Day
+        holidays.add(LocalDate.of(year, 1, 6)); // Epiphany
+        holidays.add(easter.minusDays(2)); // Good Friday
+        holidays.add(easter); // Easter Sunday
+        holidays.add(easter.plusDays(1)); // Easter Monday
+        holidays.add(LocalDate.of(year, 5, 1)); // Labour Day
+        holidays.add(easter.plusDays(39)); // Ascension Day
+        holidays.add(easter.plusDays(49)); // Whit Sunday
+        if (year < NATIONAL_DAY_SINCE) {
+            holidays.add(easter.plusDays(50)); // Whit Monday
+        } else {
+            holidays.add(LocalDate.of(year, 6, 6)); // National Day
+        }
+        holidays.add(LocalDate.of(year, 6, 20)
+                .with(TemporalAdjusters.nextOrSame(DayOfWeek.SATURDAY))); // Midsummer Day
+        holidays.add(LocalDate.of(year, 10, 31)
+                .with(TemporalAdjusters.nextOrSame(DayOfWeek.SATURDAY))); // All Saints' Day
+        holidays.add(LocalDate.of(year, 12, 25)); // Christmas Day
+        holidays.add(LocalDate.of(year, 12, 26)); // Boxing Day
+        holidays.sort(null);
+        return holidays;
+    }
+
+    /**
+     * Toll-free days of the year as a day-of-year bitmap (bit {@code dayOfYear - 1}).
+     * The returned array is shared and must not be modified.
+     */
+    static long[] tollFreeDays(int year) {
+        if (year < MIN_CACHED_YEAR || year > MAX_CACHED_YEAR) {
+            return computeTollFreeDays(year);
+        }
+        int slot = year - MIN_CACHED_YEAR;
+        long[] bits = TOLL_FREE_DAYS.get(slot);
+        if (bits == null) {
+            bits = computeTollFreeDays(year);
+            if (!TOLL_FREE_DAYS.compareAndSet(slot, null, bits)) {
+                bits = TOLL_FREE_DAYS.get(slot);
+            }
+        }
+        return bits;
+    }
+
+    private static long[] computeTollFreeDays(int year) {
+        long[] bits = new long[6];
+        List<LocalDate> holidays = publicHolidays(year);
+        holidays.add(LocalDate.of(year + 1, 1, 1)); // Makes December 31st a day before a holiday
+        for (LocalDate holiday : holidays) {
+            set(bits, year, holiday);
+            set(bits, year, holiday.minusDays(1));
+        }
+        return bits;
+    }
+
+    private static void set(long[] bits, int year, LocalDate date) {
+        if (date.getYear() == year) {
+            int index = date.getDayOfYear() - 1;
+            bits[index >>> 6] |= 1L << index;
+        }
+    }
+}
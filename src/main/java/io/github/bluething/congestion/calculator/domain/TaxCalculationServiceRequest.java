@@ -11,6 +11,8 @@ import java.util.List;
 public class TaxCalculationServiceRequest {
     private String vehicleType;
     private List<LocalDateTime> passageTimes;
+    private String city;
+    private ResponseDetail detail = ResponseDetail.VERBOSE;
 
     public TaxCalculationServiceRequest() {}
 
@@ -18,4 +20,9 @@ public class TaxCalculationServiceRequest {
         this.vehicleType = vehicleType;
         this.passageTimes = passageTimes;
     }
+
+    public TaxCalculationServiceRequest(String vehicleType, List<LocalDateTime> passageTimes, String city) {
+        this(vehicleType, passageTimes);
+        this.city = city;
+    }
 }
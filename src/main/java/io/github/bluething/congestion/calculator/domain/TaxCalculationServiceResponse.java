@@ -13,16 +13,32 @@ public class TaxCalculationServiceResponse {
     private boolean tollFreeVehicle;
     private List<DailyTaxSummary> dailySummaries;
     private List<PassageCalculation> passageCalculations;
+    private long ruleVersion;
+    private String city;
+    private ResponseDetail detail = ResponseDetail.VERBOSE;
+    private int dayCount; // Also known when the daily summaries were not requested
+    // Per-day outcomes for the metrics, kept so a response served from the cache counts too
+    private int tollFreeVehicleDays;
+    private int tollFreeCalendarDays;
+    private int dailyCapHits;
 
     public TaxCalculationServiceResponse() {}
 
     public TaxCalculationServiceResponse(String vehicleType, int totalTax, boolean tollFreeVehicle,
                                          List<DailyTaxSummary> dailySummaries,
                                          List<PassageCalculation> passageCalculations) {
+        this(vehicleType, totalTax, tollFreeVehicle, dailySummaries, passageCalculations, 0);
+    }
+
+    public TaxCalculationServiceResponse(String vehicleType, int totalTax, boolean tollFreeVehicle,
+                                         List<DailyTaxSummary> dailySummaries,
+                                         List<PassageCalculation> passageCalculations,
+                                         long ruleVersion) {
         this.vehicleType = vehicleType;
         this.totalTax = totalTax;
         this.tollFreeVehicle = tollFreeVehicle;
         this.dailySummaries = dailySummaries;
         this.passageCalculations = passageCalculations;
+        this.ruleVersion = ruleVersion;
     }
 }
@@ -4,6 +4,9 @@ import java.time.LocalDateTime;
 
 public interface TaxCalculator {
     int getTax(Vehicle vehicle, LocalDateTime[] dates);
+    int getTax(Vehicle vehicle, long[] epochMinutes, int from, int to);
+    DayCalculation calculateDay(TaxRuleSet rules, Vehicle vehicle, long[] epochMinutes, int from, int to);
+    DailyTaxAccumulator startDay(Vehicle vehicle, long epochDay);
     int getTollFee(LocalDateTime date, Vehicle vehicle);
     boolean isTollFreeDate(LocalDateTime date);
 }
@@ -0,0 +1,191 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import io.github.bluething.congestion.calculator.exception.InvalidDateFormatException;
+import io.github.bluething.congestion.calculator.exception.InvalidVehicleTypeException;
+import io.github.bluething.congestion.calculator.exception.NoTaxRulesException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for the calculation path. Tags stay low-cardinality: the vehicle class
+ * ({@code unknown} for types that did not resolve), a fixed outcome, or a fixed reason.
+ * Meters are registered up front and looked up by index, so recording never touches the registry.
+ */
+@Component
+class TaxMetrics {
+    static final String CALCULATION = "congestion.tax.calculation";
+    static final String VALIDATION = "congestion.tax.validation";
+    static final String VALIDATION_REJECTIONS = "congestion.tax.validation.rejections";
+    static final String REQUEST_PASSAGES = "congestion.tax.request.passages";
+    static final String REQUEST_DAYS = "congestion.tax.request.days";
+    static final String TOLL_FREE_DAYS = "congestion.tax.toll.free.days";
+    static final String DAILY_CAP_HITS = "congestion.tax.daily.cap.hits";
+    static final String COALESCED = "congestion.tax.coalesced";
+    static final String STREAM_LATE_PASSAGES = "congestion.tax.stream.late.passages";
+    static final String STREAM_BUFFER_OVERFLOWS = "congestion.tax.stream.buffer.overflows";
+
+    static final String UNKNOWN_VEHICLE = "unknown";
+
+    enum Outcome { SUCCESS, REJECTED, ERROR }
+
+    enum Rejection { VEHICLE_TYPE, PASSAGE_TIMES, RULES }
+
+    private static final VehicleClass[] CLASSES = VehicleClass.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    // Indexed by vehicle class ordinal, with the last slot for unknown
+    private final Timer[][] calculationTimers = new Timer[CLASSES.length + 1][OUTCOMES.length];
+    private final DistributionSummary[] passagesPerRequest = new DistributionSummary[CLASSES.length];
+    private final DistributionSummary[] daysPerRequest = new DistributionSummary[CLASSES.length];
+    private final Counter[] dailyCapHits = new Counter[CLASSES.length];
+    private final Counter[] rejections = new Counter[Rejection.values().length];
+    private final Timer validationPassed;
+    private final Timer validationRejected;
+    private final Counter tollFreeVehicleDays;
+    private final Counter tollFreeCalendarDays;
+    private final Counter coalesced;
+    private final Counter streamLatePassages;
+    private final Counter streamBufferOverflows;
+
+    TaxMetrics(MeterRegistry registry) {
+        for (int v = 0; v <= CLASSES.length; v++) {
+            String vehicle = v < CLASSES.length ? tag(CLASSES[v]) : UNKNOWN_VEHICLE;
+            for (Outcome outcome : OUTCOMES) {
+                calculationTimers[v][outcome.ordinal()] = Timer.builder(CALCULATION)
+                        .description("Time to calculate the tax of one request, validation included")
+                        .tag("vehicle.class", vehicle)
+                        .tag("outcome", tag(outcome))
+                        .publishPercentileHistogram()
+                        .register(registry);
+            }
+        }
+        for (VehicleClass vehicleClass : CLASSES) {
+            int i = vehicleClass.ordinal();
+            passagesPerRequest[i] = DistributionSummary.builder(REQUEST_PASSAGES)
+                    .description("Passages per calculated request")
+                    .tag("vehicle.class", tag(vehicleClass))
+                    .publishPercentileHistogram()
+                    .register(registry);
+            daysPerRequest[i] = DistributionSummary.builder(REQUEST_DAYS)
+                    .description("Distinct days per calculated request")
+                    .tag("vehicle.class", tag(vehicleClass))
+                    .publishPercentileHistogram()
+                    .register(registry);
+            dailyCapHits[i] = Counter.builder(DAILY_CAP_HITS)
+                    .description("Days whose tax reached the daily maximum")
+                    .tag("vehicle.class", tag(vehicleClass))
+                    .register(registry);
+        }
+        for (Rejection rejection : Rejection.values()) {
+            rejections[rejection.ordinal()] = Counter.builder(VALIDATION_REJECTIONS)
+                    .description("Requests rejected by validation")
+                    .tag("reason", tag(rejection))
+                    .register(registry);
+        }
+        validationPassed = validationTimer(registry, "passed");
+        validationRejected = validationTimer(registry, "rejected");
+        tollFreeVehicleDays = tollFreeCounter(registry, "vehicle");
+        tollFreeCalendarDays = tollFreeCounter(registry, "calendar");
+        coalesced = Counter.builder(COALESCED)
+                .description("Requests that shared the calculation of an identical request in flight")
+                .register(registry);
+        streamLatePassages = Counter.builder(STREAM_LATE_PASSAGES)
+                .description("Streamed passages behind the watermark, left out of the daily totals and sent to corrections")
+                .register(registry);
+        streamBufferOverflows = Counter.builder(STREAM_BUFFER_OVERFLOWS)
+                .description("Streamed passages applied ahead of the watermark because the vehicle's buffer was full")
+                .register(registry);
+    }
+
+    long startTime() {
+        return System.nanoTime();
+    }
+
+    void recordCalculation(VehicleClass vehicleClass, Outcome outcome, long startTime) {
+        int v = vehicleClass == null ? CLASSES.length : vehicleClass.ordinal();
+        calculationTimers[v][outcome.ordinal()].record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+
+    void recordValidation(boolean passed, long startTime) {
+        (passed ? validationPassed : validationRejected)
+                .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count a validation failure under its reason; returns whether the exception is a rejection
+     * of the request rather than an unexpected error.
+     */
+    boolean recordRejection(RuntimeException e) {
+        Rejection rejection = rejectionOf(e);
+        if (rejection == null) {
+            return false;
+        }
+        rejections[rejection.ordinal()].increment();
+        return true;
+    }
+
+    void recordRequest(VehicleClass vehicleClass, int passages, int days) {
+        passagesPerRequest[vehicleClass.ordinal()].record(passages);
+        daysPerRequest[vehicleClass.ordinal()].record(days);
+    }
+
+    /**
+     * Count the toll-free days and daily cap hits of one request. Taken from the response, not the
+     * sweep, so requests answered from the result cache are counted like calculated ones.
+     */
+    void recordDays(VehicleClass vehicleClass, TaxCalculationServiceResponse response) {
+        tollFreeVehicleDays.increment(response.getTollFreeVehicleDays());
+        tollFreeCalendarDays.increment(response.getTollFreeCalendarDays());
+        dailyCapHits[vehicleClass.ordinal()].increment(response.getDailyCapHits());
+    }
+
+    void recordCoalesced() {
+        coalesced.increment();
+    }
+
+    void recordStreamLatePassage() {
+        streamLatePassages.increment();
+    }
+
+    void recordStreamBufferOverflow() {
+        streamBufferOverflows.increment();
+    }
+
+    static Rejection rejectionOf(RuntimeException e) {
+        if (e instanceof InvalidVehicleTypeException) {
+            return Rejection.VEHICLE_TYPE;
+        }
+        if (e instanceof InvalidDateFormatException) {
+            return Rejection.PASSAGE_TIMES;
+        }
+        if (e instanceof NoTaxRulesException) {
+            return Rejection.RULES;
+        }
+        return null;
+    }
+
+    private static Timer validationTimer(MeterRegistry registry, String result) {
+        return Timer.builder(VALIDATION)
+                .description("Time to validate one request")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static Counter tollFreeCounter(MeterRegistry registry, String reason) {
+        return Counter.builder(TOLL_FREE_DAYS)
+                .description("Days short-circuited to zero tax without a fee sweep")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
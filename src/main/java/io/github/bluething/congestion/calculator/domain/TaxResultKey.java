@@ -0,0 +1,64 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Canonical key of a calculation result: the resolved vehicle class and city, the passages in
+ * sorted order and the version of the rules they were calculated under. Requests that differ only
+ * in passage order map to the same key; a rules reload changes the version, so older entries are
+ * never served for the new rules. Each response detail level is a separate entry, as the responses
+ * differ in what was built. The hash is computed once, as the key is hashed on every lookup.
+ */
+public final class TaxResultKey {
+    private final VehicleClass vehicleClass;
+    private final String city;
+    private final long ruleVersion;
+    private final ResponseDetail detail;
+    private final LocalDateTime[] sortedPassages;
+    private final int hash;
+
+    TaxResultKey(VehicleClass vehicleClass, String city, long ruleVersion, ResponseDetail detail,
+                 LocalDateTime[] sortedPassages) {
+        this.vehicleClass = vehicleClass;
+        this.city = city;
+        this.ruleVersion = ruleVersion;
+        this.detail = detail;
+        this.sortedPassages = sortedPassages;
+        this.hash = 31 * (31 * (31 * (31 * vehicleClass.ordinal() + Objects.hashCode(city)) + Long.hashCode(ruleVersion))
+                + detail.ordinal()) + Arrays.hashCode(sortedPassages);
+    }
+
+    /**
+     * Cache weight of a result entry: one unit per passage held by the key, plus one. The key
+     * holds every passage at any detail level, so the weight does not shrink with the response.
+     */
+    public static int weigh(Object key, Object value) {
+        return key instanceof TaxResultKey resultKey ? resultKey.sortedPassages.length + 1 : 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof TaxResultKey other
+                && hash == other.hash
+                && ruleVersion == other.ruleVersion
+                && vehicleClass == other.vehicleClass
+                && detail == other.detail
+                && Objects.equals(city, other.city)
+                && Arrays.equals(sortedPassages, other.sortedPassages);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return vehicleClass + "@" + city + " v" + ruleVersion + " " + detail + " " + sortedPassages.length + " passages";
+    }
+}
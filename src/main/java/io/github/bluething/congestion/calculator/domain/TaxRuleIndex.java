@@ -0,0 +1,175 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import io.github.bluething.congestion.calculator.exception.NoTaxRulesException;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable index of compiled {@link TaxRuleSet}s keyed by city and effective-from date.
+ * Each city keeps its rule sets in a sorted array of effective-from epoch days, so finding the
+ * rules that apply to a passage is a binary search. Cities are matched case-insensitively.
+ */
+public final class TaxRuleIndex {
+    @Getter
+    private final long version;
+    @Getter
+    private final String defaultCity;
+    private final Map<String, CityRules> cities;
+
+    private TaxRuleIndex(long version, String defaultCity, Map<String, CityRules> cities) {
+        this.version = version;
+        this.defaultCity = defaultCity;
+        this.cities = cities;
+    }
+
+    /**
+     * Compile the top-level rules (the default city, with no start date) and every entry of
+     * {@code rule-sets}. Fails with {@link IllegalStateException} on invalid rules.
+     */
+    static TaxRuleIndex compile(TaxRulesConfig config, long version) {
+        String defaultCity = config.getCity();
+        if (defaultCity == null || defaultCity.isBlank()) {
+            throw new IllegalStateException("Default city must be configured");
+        }
+
+        Map<String, List<RuleSetDefinition>> definitionsByCity = new LinkedHashMap<>();
+        definitionsByCity.put(key(defaultCity), new ArrayList<>());
+        for (RuleSetDefinition definition : config.getRuleSets()) {
+            String city = definition.getCity() != null ? definition.getCity() : defaultCity;
+            if (city.isBlank()) {
+                throw new IllegalStateException("Rule set city cannot be blank");
+            }
+            definitionsByCity.computeIfAbsent(key(city), k -> new ArrayList<>()).add(definition);
+        }
+
+        Map<String, CityRules> cities = new HashMap<>();
+        for (Map.Entry<String, List<RuleSetDefinition>> entry : definitionsByCity.entrySet()) {
+            boolean isDefaultCity = entry.getKey().equals(key(defaultCity));
+            cities.put(entry.getKey(), compileCity(config, isDefaultCity, entry.getValue(), version));
+        }
+        return new TaxRuleIndex(version, defaultCity, Map.copyOf(cities));
+    }
+
+    /**
+     * Rules of the default city that apply on the given epoch day.
+     */
+    public TaxRuleSet rulesFor(long epochDay) {
+        return rulesFor(defaultCity, epochDay);
+    }
+
+    /**
+     * Rules of the given city that apply on the given epoch day.
+     *
+     * @throws NoTaxRulesException if the city is unknown or has no rules yet on that day
+     */
+    public TaxRuleSet rulesFor(String city, long epochDay) {
+        CityRules cityRules = cityRules(city);
+        int index = Arrays.binarySearch(cityRules.effectiveFromDays(), epochDay);
+        if (index < 0) {
+            index = -index - 2; // Last rule set starting before the day
+        }
+        if (index < 0) {
+            TaxRuleSet first = cityRules.ruleSets()[0];
+            throw new NoTaxRulesException(String.format("No tax rules for %s before %s",
+                    first.getCity(), first.getEffectiveFrom()));
+        }
+        return cityRules.ruleSets()[index];
+    }
+
+    /**
+     * Canonical name of a configured city; {@code null} or blank means the default city.
+     *
+     * @throws NoTaxRulesException if the city is unknown
+     */
+    public String resolveCity(String city) {
+        if (city == null || city.isBlank()) {
+            return defaultCity;
+        }
+        return cityRules(city).ruleSets()[0].getCity();
+    }
+
+    /**
+     * Vehicle classes supported by at least one of the city's rule sets; {@code null} means the
+     * default city. Support on a given day is up to the rule set of that day.
+     */
+    public Set<VehicleClass> supportedVehicleClasses(String city) {
+        Set<VehicleClass> supported = EnumSet.noneOf(VehicleClass.class);
+        for (TaxRuleSet rules : cityRules(resolveCity(city)).ruleSets()) {
+            for (VehicleClass vehicleClass : VehicleClass.values()) {
+                if (rules.isSupportedVehicle(vehicleClass)) {
+                    supported.add(vehicleClass);
+                }
+            }
+        }
+        return supported;
+    }
+
+    public List<String> getCities() {
+        return cities.values().stream()
+                .map(cityRules -> cityRules.ruleSets()[0].getCity())
+                .sorted()
+                .toList();
+    }
+
+    private CityRules cityRules(String city) {
+        CityRules cityRules = city == null ? null : cities.get(key(city));
+        if (cityRules == null) {
+            throw new NoTaxRulesException(String.format("No tax rules configured for city '%s'. Supported cities: %s",
+                    city, getCities()));
+        }
+        return cityRules;
+    }
+
+    private static CityRules compileCity(TaxRulesConfig config, boolean isDefaultCity,
+                                         List<RuleSetDefinition> definitions, long version) {
+        definitions.sort(Comparator.comparing(RuleSetDefinition::getEffectiveFrom,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        List<TaxRulesConfig> configs = new ArrayList<>();
+        List<LocalDate> effectiveFrom = new ArrayList<>();
+        if (isDefaultCity) {
+            configs.add(config);
+            effectiveFrom.add(null);
+        }
+        TaxRulesConfig parent = config;
+        for (RuleSetDefinition definition : definitions) {
+            LocalDate from = definition.getEffectiveFrom();
+            if (!effectiveFrom.isEmpty() && (from == null || from.equals(effectiveFrom.getLast()))) {
+                throw new IllegalStateException(String.format("Duplicate rule set for %s effective from %s",
+                        definition.getCity() != null ? definition.getCity() : config.getCity(),
+                        from != null ? from : "the start"));
+            }
+            parent = definition.inherit(parent);
+            configs.add(parent);
+            effectiveFrom.add(from);
+        }
+
+        TaxRuleSet[] ruleSets = new TaxRuleSet[configs.size()];
+        long[] effectiveFromDays = new long[configs.size()];
+        for (int i = 0; i < ruleSets.length; i++) {
+            LocalDate from = effectiveFrom.get(i);
+            LocalDate until = i + 1 < ruleSets.length ? effectiveFrom.get(i + 1) : null;
+            ruleSets[i] = TaxRuleSet.compile(configs.get(i), from, until, version);
+            effectiveFromDays[i] = from == null ? Long.MIN_VALUE : from.toEpochDay();
+        }
+        return new CityRules(effectiveFromDays, ruleSets);
+    }
+
+    private static String key(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record CityRules(long[] effectiveFromDays, TaxRuleSet[] ruleSets) {
+    }
+}
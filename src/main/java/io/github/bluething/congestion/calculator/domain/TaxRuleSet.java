@@ -0,0 +1,153 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, compiled snapshot of the tax rules: fee table, toll-free calendar, vehicle masks,
+ * daily cap and single charge interval. A calculation reads one snapshot and uses it throughout,
+ * so a rules reload never mixes old and new rules within one request.
+ * <p>
+ * A rule set belongs to one city and applies from {@code effectiveFrom} (inclusive) until
+ * {@code effectiveUntil} (exclusive); a {@code null} bound is open-ended.
+ */
+public final class TaxRuleSet {
+    @Getter
+    private final long version;
+    @Getter
+    private final String city;
+    @Getter
+    private final LocalDate effectiveFrom;
+    @Getter
+    private final LocalDate effectiveUntil;
+    @Getter
+    private final int maxDailyTax;
+    @Getter
+    private final int singleChargeIntervalMinutes;
+    @Getter
+    private final Map<String, Integer> timeSlots;
+    @Getter
+    private final List<Integer> tollFreeMonths;
+    @Getter
+    private final List<String> supportedVehicleTypes;
+    @Getter
+    private final List<String> tollFreeVehicleTypes;
+
+    private final FeeSchedule feeSchedule;
+    private final TollFreeCalendar calendar;
+    private final long supportedVehicleMask;
+    private final long tollFreeVehicleMask;
+    private final long fromEpochDay;
+    private final long untilEpochDay;
+
+    private TaxRuleSet(long version, LocalDate effectiveFrom, LocalDate effectiveUntil,
+                       TaxRulesConfig config, Map<String, Integer> timeSlots) {
+        this.version = version;
+        this.city = config.getCity();
+        this.effectiveFrom = effectiveFrom;
+        this.effectiveUntil = effectiveUntil;
+        this.fromEpochDay = effectiveFrom == null ? Long.MIN_VALUE : effectiveFrom.toEpochDay();
+        this.untilEpochDay = effectiveUntil == null ? Long.MAX_VALUE : effectiveUntil.toEpochDay();
+        this.maxDailyTax = config.getMaxDailyTax();
+        this.singleChargeIntervalMinutes = config.getSingleChargeIntervalMinutes();
+        this.timeSlots = Collections.unmodifiableMap(new LinkedHashMap<>(timeSlots));
+        this.tollFreeMonths = List.copyOf(config.getTollFreeMonths());
+        this.supportedVehicleTypes = List.copyOf(config.getAllVehicleTypes());
+
+        this.feeSchedule = FeeSchedule.compile(timeSlots);
+        this.calendar = new TollFreeCalendar(config.getTollFreeMonths(), config.getHolidayCalendar(),
+                config.getHolidays(), config.getDaysBeforeHolidays());
+        this.supportedVehicleMask = vehicleMask(config.getAllVehicleTypes(), "all-vehicle-types");
+        this.tollFreeVehicleMask = vehicleMask(config.getTollFreeVehicles(), "toll-free-vehicles");
+
+        List<String> tollFree = new ArrayList<>();
+        for (String vehicleType : supportedVehicleTypes) {
+            if (isTollFreeVehicle(vehicleType)) {
+                tollFree.add(vehicleType);
+            }
+        }
+        this.tollFreeVehicleTypes = List.copyOf(tollFree);
+    }
+
+    /**
+     * Compile the given configuration as an open-ended rule set.
+     */
+    static TaxRuleSet compile(TaxRulesConfig config, long version) {
+        return compile(config, null, null, version);
+    }
+
+    /**
+     * Compile the given configuration. Fails with {@link IllegalStateException} on invalid rules.
+     */
+    static TaxRuleSet compile(TaxRulesConfig config, LocalDate effectiveFrom, LocalDate effectiveUntil, long version) {
+        if (config.getMaxDailyTax() < 0 || config.getSingleChargeIntervalMinutes() < 0) {
+            throw new IllegalStateException("Daily maximum and single charge interval cannot be negative");
+        }
+        Map<String, Integer> timeSlots = config.getTimeSlots().isEmpty()
+                ? TaxRulesConfig.DEFAULT_TIME_SLOTS
+                : config.getTimeSlots();
+        return new TaxRuleSet(version, effectiveFrom, effectiveUntil, config, timeSlots);
+    }
+
+    public boolean appliesTo(long epochDay) {
+        return epochDay >= fromEpochDay && epochDay < untilEpochDay;
+    }
+
+    /**
+     * Whether holidays are known for the given year, generated or configured; without them
+     * only weekends and toll-free months are recognised.
+     */
+    public boolean hasHolidaysFor(int year) {
+        return calendar.hasHolidays(year);
+    }
+
+    public boolean isTollFreeVehicle(VehicleClass vehicleClass) {
+        return (tollFreeVehicleMask & vehicleClass.mask()) != 0;
+    }
+
+    public boolean isTollFreeVehicle(String vehicleType) {
+        VehicleClass vehicleClass = VehicleClass.fromType(vehicleType);
+        return vehicleClass != null && isTollFreeVehicle(vehicleClass);
+    }
+
+    public boolean isSupportedVehicle(VehicleClass vehicleClass) {
+        return (supportedVehicleMask & vehicleClass.mask()) != 0;
+    }
+
+    public boolean isSupportedVehicleType(String vehicleType) {
+        VehicleClass vehicleClass = VehicleClass.fromType(vehicleType);
+        return vehicleClass != null && isSupportedVehicle(vehicleClass);
+    }
+
+    int feeAt(int minuteOfDay) {
+        return feeSchedule.feeAt(minuteOfDay);
+    }
+
+    boolean isTollFreeEpochDay(long epochDay) {
+        return calendar.isTollFreeEpochDay(epochDay);
+    }
+
+    boolean isTollFreeDate(LocalDateTime date) {
+        return calendar.isTollFree(date);
+    }
+
+    private static long vehicleMask(Collection<String> vehicleTypes, String property) {
+        long mask = 0;
+        for (String vehicleType : vehicleTypes) {
+            VehicleClass vehicleClass = VehicleClass.fromType(vehicleType);
+            if (vehicleClass == null) {
+                throw new IllegalStateException("Unknown vehicle type in " + property + ": " + vehicleType);
+            }
+            mask |= vehicleClass.mask();
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,7 @@
+package io.github.bluething.congestion.calculator.domain;
+
+/**
+ * Published after a new {@link TaxRuleIndex} has been swapped in.
+ */
+public record TaxRulesChangedEvent(TaxRuleIndex previous, TaxRuleIndex current) {
+}
@@ -7,11 +7,18 @@ import org.springframework.stereotype.Component;
 
 import java.util.*;
 
+/**
+ * Tax rules as bound from configuration. This bean is only the source: rules are compiled
+ * into an immutable {@link TaxRuleIndex} and read through {@link TaxRulesRegistry}.
+ * The top-level settings are the rules of the default city; {@code rule-sets} adds later
+ * rule changes and other cities.
+ */
 @Component
 @ConfigurationProperties(prefix = "congestion.tax")
 @Getter
 @Setter
 class TaxRulesConfig {
+    private String city = "Gothenburg";
     private int maxDailyTax = 60;
     private int singleChargeIntervalMinutes = 60;
     private List<Integer> tollFreeMonths = List.of(7); // July
@@ -24,8 +31,9 @@ class TaxRulesConfig {
             "Car", "Motorcycle", "Tractor", "Emergency", "Diplomat", "Foreign", "Military"
     );
 
-    // Time slots with their corresponding fees
-    private Map<String, Integer> timeSlots = new LinkedHashMap<>() {{
+    // Default time slots, used only when none are configured. Kept out of the bound map
+    // because the binder merges configured entries into an existing map instead of replacing it.
+    static final Map<String, Integer> DEFAULT_TIME_SLOTS = new LinkedHashMap<>() {{
         put("06:00-06:29", 8);
         put("06:30-06:59", 13);
         put("07:00-07:59", 18);
@@ -38,45 +46,21 @@ class TaxRulesConfig {
         put("18:30-05:59", 0);
     }};
 
-    // 2013 Swedish holidays (can be moved to external configuration later)
-    private Map<String, List<String>> holidays = Map.of(
-            "2013", Arrays.asList(
-                    "01-01", // New Year's Day
-                    "03-29", // Good Friday
-                    "04-01", // Easter Monday
-                    "05-01", // Labour Day
-                    "05-09", // Ascension Day
-                    "06-06", // National Day
-                    "06-21", // Midsummer Eve
-                    "11-01", // All Saints' Day
-                    "12-24", // Christmas Eve
-                    "12-25", // Christmas Day
-                    "12-26", // Boxing Day
-                    "12-31"  // New Year's Eve
-            )
-    );
+    // Time slots with their corresponding fees
+    private Map<String, Integer> timeSlots = new LinkedHashMap<>();
 
-    private Map<String, List<String>> daysBeforeHolidays = Map.of(
-            "2013", Arrays.asList(
-                    "03-28", // Day before Good Friday
-                    "04-30", // Day before Labour Day
-                    "05-08", // Day before Ascension Day
-                    "06-05"  // Day before National Day
-            )
-    );
+    // Holidays are generated for any year; the lists below add extra toll-free days by year
+    private HolidayCalendar holidayCalendar = HolidayCalendar.SWEDEN;
+    private Map<String, List<String>> holidays = Map.of();
+    private Map<String, List<String>> daysBeforeHolidays = Map.of();
+
+    // Effective-dated rule changes and additional cities
+    private List<RuleSetDefinition> ruleSets = new ArrayList<>();
 
     public boolean isTollFreeMonth(int month) {
         return tollFreeMonths.contains(month);
     }
 
-    public boolean isTollFreeVehicle(String vehicleType) {
-        return tollFreeVehicles.contains(vehicleType);
-    }
-
-    public boolean isValidVehicleType(String vehicleType) {
-        return allVehicleTypes.contains(vehicleType);
-    }
-
     public List<String> getHolidaysForYear(int year) {
         return holidays.getOrDefault(String.valueOf(year), Collections.emptyList());
     }
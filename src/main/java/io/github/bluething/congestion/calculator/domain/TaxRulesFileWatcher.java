@@ -0,0 +1,117 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+
+/**
+ * Reloads tax rules from {@code congestion.tax.rules-file} whenever the file changes.
+ * The file uses the same {@code congestion.tax} layout as application.yaml. Parsing and
+ * compilation happen on the watcher thread; a file that fails to load is logged and the
+ * current rules stay active.
+ */
+@Component
+@ConditionalOnProperty(prefix = "congestion.tax", name = "rules-file")
+@Slf4j
+class TaxRulesFileWatcher implements SmartLifecycle {
+    private final TaxRulesRegistry registry;
+    private final Path rulesFile;
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean running;
+
+    TaxRulesFileWatcher(TaxRulesRegistry registry,
+                        @Value("${congestion.tax.rules-file}") String rulesFile) {
+        this.registry = registry;
+        this.rulesFile = Path.of(rulesFile).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void start() {
+        // The initial load fails fast: starting on rules the operator did not ask for is worse
+        registry.publish(load(rulesFile));
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            rulesFile.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot watch tax rules file " + rulesFile, e);
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("tax-rules-watcher").daemon().start(this::watch);
+        log.info("Watching tax rules file {}", rulesFile);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.debug("Error closing tax rules watch service", e);
+        }
+        thread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void watch() {
+        while (running) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            boolean changed = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.context() instanceof Path name && rulesFile.getFileName().equals(name)) {
+                    changed = true;
+                }
+            }
+            key.reset();
+            if (changed) {
+                reload();
+            }
+        }
+    }
+
+    private void reload() {
+        try {
+            registry.publish(load(rulesFile));
+        } catch (RuntimeException e) {
+            log.error("Ignoring invalid tax rules file {}: {}", rulesFile, e.getMessage());
+        }
+    }
+
+    static TaxRulesConfig load(Path file) {
+        try {
+            List<PropertySource<?>> sources = new YamlPropertySourceLoader()
+                    .load("tax-rules", new FileSystemResource(file));
+            return new Binder(ConfigurationPropertySources.from(sources))
+                    .bindOrCreate("congestion.tax", TaxRulesConfig.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read tax rules file " + file, e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Holds the active {@link TaxRuleIndex} behind a single volatile reference. Readers never lock;
+ * a reload compiles the new index first and then swaps the reference, so every calculation
+ * sees either the old rules or the new ones, never a mix.
+ */
+@Component
+@Slf4j
+class TaxRulesRegistry {
+    private final ApplicationEventPublisher eventPublisher;
+    private volatile TaxRuleIndex index;
+
+    TaxRulesRegistry(TaxRulesConfig taxRulesConfig, ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+        this.index = TaxRuleIndex.compile(taxRulesConfig, 1);
+    }
+
+    public TaxRuleIndex index() {
+        return index;
+    }
+
+    /**
+     * Rules of the default city in effect today.
+     */
+    public TaxRuleSet current() {
+        return index.rulesFor(LocalDate.now().toEpochDay());
+    }
+
+    /**
+     * Compile and activate new rules. Invalid rules fail with {@link IllegalStateException}
+     * and leave the current index in place.
+     */
+    public synchronized TaxRuleIndex publish(TaxRulesConfig taxRulesConfig) {
+        TaxRuleIndex previous = index;
+        TaxRuleIndex next = TaxRuleIndex.compile(taxRulesConfig, previous.getVersion() + 1);
+        index = next;
+
+        log.info("Activated tax rules version {} for cities {} (was {})",
+                next.getVersion(), next.getCities(), previous.getVersion());
+        eventPublisher.publishEvent(new TaxRulesChangedEvent(previous, next));
+        return next;
+    }
+}
@@ -2,9 +2,13 @@ package io.github.bluething.congestion.calculator.domain;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public interface TaxService {
     TaxCalculationServiceResponse calculateTax(TaxCalculationServiceRequest request);
     Map<String, Object> getTollSchedule();
     List<String> getSupportedVehicleTypes();
+    Set<VehicleClass> getSupportedVehicleClasses();
+    long getRuleVersion();
+    TaxRuleSet getActiveRules();
 }
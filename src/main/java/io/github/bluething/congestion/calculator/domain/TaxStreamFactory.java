@@ -0,0 +1,33 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+@Component
+@RequiredArgsConstructor
+public class TaxStreamFactory {
+    private final TaxCalculator taxCalculator;
+    private final StreamingConfig streamingConfig;
+    private final VehicleFactory vehicleFactory;
+    private final TaxMetrics taxMetrics;
+
+    /**
+     * Open a stream with the configured lateness and buffer size.
+     */
+    public ReorderingTaxStream open(Consumer<FinalizedDay> results, Consumer<LatePassage> corrections) {
+        return new ReorderingTaxStream(taxCalculator, streamingConfig.getAllowedLateness(),
+                streamingConfig.getReorderBufferCapacity(), results, corrections, taxMetrics);
+    }
+
+    /**
+     * Resolve a streamed record's vehicle type, failing with
+     * {@link io.github.bluething.congestion.calculator.exception.InvalidVehicleTypeException}
+     * for unknown types or types the rules of the passage's day do not support.
+     */
+    public VehicleClass vehicleClass(String vehicleType, LocalDateTime passageTime) {
+        return vehicleFactory.createVehicle(vehicleType, passageTime.toLocalDate().toEpochDay());
+    }
+}
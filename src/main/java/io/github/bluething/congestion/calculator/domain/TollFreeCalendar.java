@@ -0,0 +1,156 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Toll-free day index: one bit per day of the year, set for weekends, toll-free months,
+ * holidays and days before holidays. Holidays come from the {@link HolidayCalendar} plus the
+ * configured lists, which are parsed up front so bad entries fail when the rule set is
+ * compiled. Each year's bitmap is built lazily on first use, after which a lookup is a single
+ * bit test.
+ */
+final class TollFreeCalendar {
+    static final int MIN_CACHED_YEAR = 1900;
+    static final int MAX_CACHED_YEAR = 2199;
+
+    private final int tollFreeMonthMask;
+    private final HolidayCalendar holidayCalendar;
+    private final Map<Integer, int[]> holidayDaysByYear;
+    private final AtomicReferenceArray<long[]> years =
+            new AtomicReferenceArray<>(MAX_CACHED_YEAR - MIN_CACHED_YEAR + 1);
+
+    TollFreeCalendar(List<Integer> tollFreeMonths,
+                     HolidayCalendar holidayCalendar,
+                     Map<String, List<String>> holidays,
+                     Map<String, List<String>> daysBeforeHolidays) {
+        int monthMask = 0;
+        for (Integer month : tollFreeMonths) {
+            if (month == null || month < 1 || month > 12) {
+                throw new IllegalStateException("Invalid toll-free month: " + month);
+            }
+            monthMask |= 1 << month;
+        }
+        this.tollFreeMonthMask = monthMask;
+        this.holidayCalendar = holidayCalendar != null ? holidayCalendar : HolidayCalendar.NONE;
+
+        Map<Integer, int[]> days = new HashMap<>();
+        addDays(days, holidays);
+        addDays(days, daysBeforeHolidays);
+        this.holidayDaysByYear = Map.copyOf(days);
+    }
+
+    boolean isTollFree(LocalDateTime date) {
+        return isTollFree(date.getYear(), date.getDayOfYear());
+    }
+
+    boolean isTollFree(LocalDate date) {
+        return isTollFree(date.getYear(), date.getDayOfYear());
+    }
+
+    boolean isTollFreeEpochDay(long epochDay) {
+        int year = EpochMinutes.yearOfEpochDay(epochDay);
+        return isTollFree(year, (int) (epochDay - EpochMinutes.firstEpochDayOfYear(year)) + 1);
+    }
+
+    boolean isTollFree(int year, int dayOfYear) {
+        long[] bits = bitsForYear(year);
+        int index = dayOfYear - 1;
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    boolean hasHolidays(int year) {
+        return holidayCalendar == HolidayCalendar.SWEDEN || holidayDaysByYear.containsKey(year);
+    }
+
+    boolean isTollFreeMonth(int month) {
+        return (tollFreeMonthMask & (1 << month)) != 0;
+    }
+
+    private long[] bitsForYear(int year) {
+        if (year < MIN_CACHED_YEAR || year > MAX_CACHED_YEAR) {
+            return buildYear(year);
+        }
+        int slot = year - MIN_CACHED_YEAR;
+        long[] bits = years.get(slot);
+        if (bits == null) {
+            // Concurrent builders produce identical bitmaps, so whichever lands first wins
+            bits = buildYear(year);
+            if (!years.compareAndSet(slot, null, bits)) {
+                bits = years.get(slot);
+            }
+        }
+        return bits;
+    }
+
+    private long[] buildYear(int year) {
+        long[] bits = new long[6]; // 384 bits covers 366 days
+        int daysInYear = Year.of(year).length();
+
+        for (int dayOfYear = 1; dayOfYear <= daysInYear; dayOfYear++) {
+            LocalDate date = LocalDate.ofYearDay(year, dayOfYear);
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY
+                    || isTollFreeMonth(date.getMonthValue())) {
+                set(bits, dayOfYear);
+            }
+        }
+
+        if (holidayCalendar == HolidayCalendar.SWEDEN) {
+            long[] generated = SwedishHolidays.tollFreeDays(year);
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] |= generated[i];
+            }
+        }
+
+        for (int dayOfYear : holidayDaysByYear.getOrDefault(year, new int[0])) {
+            set(bits, dayOfYear);
+        }
+        return bits;
+    }
+
+    private static void addDays(Map<Integer, int[]> target, Map<String, List<String>> monthDaysByYear) {
+        for (Map.Entry<String, List<String>> entry : monthDaysByYear.entrySet()) {
+            int year = parseYear(entry.getKey());
+            List<String> monthDays = entry.getValue();
+            int[] existing = target.getOrDefault(year, new int[0]);
+            int[] merged = new int[existing.length + monthDays.size()];
+            System.arraycopy(existing, 0, merged, 0, existing.length);
+            for (int i = 0; i < monthDays.size(); i++) {
+                merged[existing.length + i] = parseMonthDay(year, monthDays.get(i)).getDayOfYear();
+            }
+            target.put(year, merged);
+        }
+    }
+
+    private static int parseYear(String year) {
+        try {
+            return Integer.parseInt(year.trim());
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Holiday year must be numeric: " + year);
+        }
+    }
+
+    private static LocalDate parseMonthDay(int year, String monthDay) {
+        String[] parts = monthDay == null ? new String[0] : monthDay.trim().split("-");
+        try {
+            if (parts.length == 2) {
+                return LocalDate.of(year, Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+            }
+        } catch (RuntimeException ignored) {
+            // fall through to the error below
+        }
+        throw new IllegalStateException("Holiday for " + year + " must be in MM-dd format: " + monthDay);
+    }
+
+    private static void set(long[] bits, int dayOfYear) {
+        int index = dayOfYear - 1;
+        bits[index >>> 6] |= 1L << index;
+    }
+}
@@ -2,29 +2,30 @@ package io.github.bluething.congestion.calculator.domain;
 
 import io.github.bluething.congestion.calculator.exception.InvalidDateFormatException;
 import io.github.bluething.congestion.calculator.exception.InvalidVehicleTypeException;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 class ValidationService {
     private static final int MAX_PASSAGES_PER_REQUEST = 100;
     private static final int MAX_DAYS_SPAN = 7;
 
-    private final TaxRulesConfig taxRulesConfig;
-
     /**
-     * Validate service layer request DTO
+     * Validate service layer request DTO against the rules it will be calculated with: vehicle
+     * support is checked in the rule set of the request's city for each day it covers.
      */
-    public void validateServiceRequest(TaxCalculationServiceRequest request) {
+    public void validateServiceRequest(TaxCalculationServiceRequest request, TaxRuleIndex index) {
         log.debug("Validating service tax calculation request");
 
         if (request == null) {
@@ -33,7 +34,7 @@ class ValidationService {
 
         validateVehicleType(request.getVehicleType());
         validatePassageTimes(request.getPassageTimes());
-        validateBusinessRules(request);
+        validateBusinessRules(request, index);
 
         log.debug("Service tax calculation request validation passed");
     }
@@ -42,13 +43,6 @@ class ValidationService {
         if (!StringUtils.hasText(vehicleType)) {
             throw new InvalidVehicleTypeException("Vehicle type cannot be null or empty");
         }
-
-        if (!taxRulesConfig.isValidVehicleType(vehicleType)) {
-            throw new InvalidVehicleTypeException(
-                    String.format("Invalid vehicle type '%s'. Supported types: %s",
-                            vehicleType, taxRulesConfig.getAllVehicleTypes())
-            );
-        }
     }
 
     private void validatePassageTimes(List<LocalDateTime> passageTimes) {
@@ -104,16 +98,46 @@ class ValidationService {
         }
     }
 
-    private void validateBusinessRules(TaxCalculationServiceRequest request) {
-        // Check for year compatibility (currently limited to 2013)
-        List<LocalDateTime> passageTimes = request.getPassageTimes();
+    private void validateBusinessRules(TaxCalculationServiceRequest request, TaxRuleIndex index) {
+        // Rejects unknown cities and dates before a city's first rule set
+        String city = index.resolveCity(request.getCity());
+        String vehicleType = request.getVehicleType().trim();
 
-        boolean hasNon2013Dates = passageTimes.stream()
-                .anyMatch(time -> time.getYear() != 2013);
+        long[] epochDays = new long[request.getPassageTimes().size()];
+        for (int i = 0; i < epochDays.length; i++) {
+            epochDays[i] = request.getPassageTimes().get(i).toLocalDate().toEpochDay();
+        }
+        Arrays.sort(epochDays);
+
+        // Days in order, so the index is searched once per rule set and each rule set checked once
+        Set<Integer> yearsWithoutHolidays = new TreeSet<>();
+        TaxRuleSet rules = null;
+        long previousDay = Long.MIN_VALUE;
+        for (long epochDay : epochDays) {
+            if (epochDay == previousDay) {
+                continue;
+            }
+            previousDay = epochDay;
+            if (rules == null || !rules.appliesTo(epochDay)) {
+                rules = index.rulesFor(city, epochDay);
+                if (!rules.isSupportedVehicleType(vehicleType)) {
+                    throw new InvalidVehicleTypeException(
+                            String.format("Invalid vehicle type '%s' for %s on %s. Supported types: %s",
+                                    request.getVehicleType(), city, LocalDate.ofEpochDay(epochDay),
+                                    rules.getSupportedVehicleTypes())
+                    );
+                }
+            }
+            int year = LocalDate.ofEpochDay(epochDay).getYear();
+            if (!rules.hasHolidaysFor(year)) {
+                yearsWithoutHolidays.add(year);
+            }
+        }
 
-        if (hasNon2013Dates) {
-            log.warn("Request contains dates outside of 2013. Holiday rules may not apply correctly.");
-            // Note: Warning only, as the assignment scope is limited to 2013
+        if (!yearsWithoutHolidays.isEmpty()) {
+            log.warn("No holidays configured for {} in {}. Holiday rules may not apply correctly.",
+                    city, yearsWithoutHolidays);
+            // Note: Warning only; weekends and toll-free months still apply
         }
     }
 
@@ -0,0 +1,49 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Every vehicle class the calculator knows about. The constants are shared, immutable
+ * {@link Vehicle} instances; which of them are supported or toll-free is decided by
+ * {@link TaxRuleSet} as bitmasks over {@link #mask()}.
+ */
+public enum VehicleClass implements Vehicle {
+    CAR("Car"),
+    MOTORCYCLE("Motorcycle"),
+    TRACTOR("Tractor"),
+    EMERGENCY("Emergency"),
+    DIPLOMAT("Diplomat"),
+    FOREIGN("Foreign"),
+    MILITARY("Military");
+
+    private static final Map<String, VehicleClass> BY_TYPE = new HashMap<>();
+
+    static {
+        for (VehicleClass vehicleClass : values()) {
+            BY_TYPE.put(vehicleClass.type, vehicleClass);
+        }
+    }
+
+    private final String type;
+
+    VehicleClass(String type) {
+        this.type = type;
+    }
+
+    @Override
+    public String getVehicleType() {
+        return type;
+    }
+
+    public long mask() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * Look up a vehicle class by its type name, e.g. "Car". Returns null for unknown names.
+     */
+    public static VehicleClass fromType(String type) {
+        return type == null ? null : BY_TYPE.get(type);
+    }
+}
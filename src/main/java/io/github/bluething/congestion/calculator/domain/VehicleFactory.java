@@ -1,35 +1,42 @@
 package io.github.bluething.congestion.calculator.domain;
 
 import io.github.bluething.congestion.calculator.exception.InvalidVehicleTypeException;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 @Component
+@RequiredArgsConstructor
 class VehicleFactory {
-    public Vehicle createVehicle(String vehicleType) {
+    private final TaxRulesRegistry taxRulesRegistry;
+
+    /**
+     * Resolve a vehicle type name to its shared {@link VehicleClass} instance. Whether the class
+     * is supported depends on the rule set of each day and is checked against that rule set.
+     */
+    public VehicleClass createVehicle(String vehicleType) {
         if (vehicleType == null || vehicleType.trim().isEmpty()) {
             throw new InvalidVehicleTypeException("Vehicle type cannot be null or empty");
         }
 
-        return switch (vehicleType.trim()) {
-            case "Car" -> new Car();
-            case "Motorcycle" -> new Motorbike();
-            case "Tractor" -> new TollFreeVehicle("Tractor");
-            case "Emergency" -> new TollFreeVehicle("Emergency");
-            case "Diplomat" -> new TollFreeVehicle("Diplomat");
-            case "Foreign" -> new TollFreeVehicle("Foreign");
-            case "Military" -> new TollFreeVehicle("Military");
-            default -> throw new InvalidVehicleTypeException(
-                    "Unsupported vehicle type: " + vehicleType +
-                            ". Supported types: Car, Motorcycle, Tractor, Emergency, Diplomat, Foreign, Military"
-            );
-        };
+        VehicleClass vehicleClass = VehicleClass.fromType(vehicleType.trim());
+        if (vehicleClass == null) {
+            throw new InvalidVehicleTypeException("Unknown vehicle type: " + vehicleType);
+        }
+        return vehicleClass;
     }
 
-    // Inner class for toll-free vehicles
-    private record TollFreeVehicle(String type) implements Vehicle {
-        @Override
-            public String getVehicleType() {
-                return type;
-            }
+    /**
+     * Resolve a vehicle type name, requiring support by the default city's rules for the given day.
+     */
+    public VehicleClass createVehicle(String vehicleType, long epochDay) {
+        VehicleClass vehicleClass = createVehicle(vehicleType);
+        TaxRuleSet rules = taxRulesRegistry.index().rulesFor(epochDay);
+        if (!rules.isSupportedVehicle(vehicleClass)) {
+            throw new InvalidVehicleTypeException(
+                    "Unsupported vehicle type: " + vehicleType +
+                            ". Supported types: " + String.join(", ", rules.getSupportedVehicleTypes())
+            );
+        }
+        return vehicleClass;
     }
 }
@@ -1,5 +1,7 @@
 package io.github.bluething.congestion.calculator.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,6 +21,16 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 @Slf4j
 class GlobalExceptionHandler {
+    private final Counter requestBodyRejections;
+
+    GlobalExceptionHandler(MeterRegistry registry) {
+        // Same meter as the service-level rejections, for requests that never reach the service
+        this.requestBodyRejections = Counter.builder("congestion.tax.validation.rejections")
+                .description("Requests rejected by validation")
+                .tag("reason", "request-body")
+                .register(registry);
+    }
+
     @ExceptionHandler(InvalidVehicleTypeException.class)
     public ResponseEntity<ErrorResponse> handleInvalidVehicleType(InvalidVehicleTypeException e) {
         log.warn("Invalid vehicle type: {}", e.getMessage());
@@ -44,6 +56,19 @@ class GlobalExceptionHandler {
 
         return ResponseEntity.badRequest().body(error);
     }
+    @ExceptionHandler(NoTaxRulesException.class)
+    public ResponseEntity<ErrorResponse> handleNoTaxRules(NoTaxRulesException e) {
+        log.warn("No tax rules: {}", e.getMessage());
+
+        ErrorResponse error = ErrorResponse.of(
+                "NO_TAX_RULES",
+                e.getMessage(),
+                HttpStatus.BAD_REQUEST.value()
+        );
+
+        return ResponseEntity.badRequest().body(error);
+    }
+
     @ExceptionHandler(java.time.format.DateTimeParseException.class)
     public ResponseEntity<ErrorResponse> handleDateTimeParseException(java.time.format.DateTimeParseException e) {
         log.warn("Date time parse error: {}", e.getMessage());
@@ -62,6 +87,7 @@ class GlobalExceptionHandler {
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationExceptions(MethodArgumentNotValidException e) {
         log.warn("Validation error: {}", e.getMessage());
+        requestBodyRejections.increment();
 
         Map<String, String> fieldErrors = e.getBindingResult()
                 .getFieldErrors()
@@ -0,0 +1,7 @@
+package io.github.bluething.congestion.calculator.exception;
+
+public class NoTaxRulesException extends RuntimeException {
+    public NoTaxRulesException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.bluething.congestion.calculator.rest;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Items are validated one by one during calculation, so an invalid item fails alone.
+ */
+record BatchTaxCalculationRequest(@NotEmpty(message = "At least one request is required")
+                                  @Size(max = BatchTaxCalculationRequest.MAX_ITEMS,
+                                          message = "Too many requests. Maximum allowed: " + BatchTaxCalculationRequest.MAX_ITEMS)
+                                  List<@NotNull(message = "Request cannot be null") TaxCalculationRequest> requests) {
+    static final int MAX_ITEMS = 1000;
+}
@@ -0,0 +1,18 @@
+package io.github.bluething.congestion.calculator.rest;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+record BatchTaxCalculationResponse(List<BatchItem> results,
+                                   int succeeded,
+                                   int failed) {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record BatchItem(int index,
+                     TaxCalculationResponse result,
+                     BatchItemError error) {}
+
+    record BatchItemError(String errorCode,
+                          String message) {}
+}
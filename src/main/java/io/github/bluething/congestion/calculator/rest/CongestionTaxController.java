@@ -1,5 +1,8 @@
 package io.github.bluething.congestion.calculator.rest;
 
+import io.github.bluething.congestion.calculator.domain.BatchItemResult;
+import io.github.bluething.congestion.calculator.domain.BatchTaxService;
+import io.github.bluething.congestion.calculator.domain.ResponseDetail;
 import io.github.bluething.congestion.calculator.domain.TaxCalculationServiceRequest;
 import io.github.bluething.congestion.calculator.domain.TaxCalculationServiceResponse;
 import io.github.bluething.congestion.calculator.domain.TaxService;
@@ -7,13 +10,19 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -25,15 +34,25 @@ import java.util.stream.Collectors;
 @Slf4j
 class CongestionTaxController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String DETAIL_DESCRIPTION = "How much to return: none, daily, full (reason codes) " +
+            "or verbose (reason text, the default)";
+
     private final TaxService taxService;
+    private final BatchTaxService batchTaxService;
     private final DTOMapper dtoMapper;
+    private final NdjsonTaxStreamProcessor ndjsonTaxStreamProcessor;
+    private final PreRenderedResponses preRenderedResponses;
+    private final TaxCalculationResponseWriter responseWriter;
 
     @PostMapping("/calculate")
     @Operation(
             summary = "Calculate congestion tax for a vehicle",
             description = "Calculate the total congestion tax for a vehicle based on passage times. " +
                     "Automatically groups passages by day and applies daily maximum (60 SEK per day). " +
-                    "Returns detailed breakdown including individual fees, daily summaries, and toll-free periods.",
+                    "Returns detailed breakdown including individual fees, daily summaries, and toll-free periods. " +
+                    "Use the detail parameter to ask for less: 'none' for totals, 'daily' for daily summaries, " +
+                    "'full' for passages with reason codes instead of reason text (see /reason-codes).",
             requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     content = @Content(
                             examples = @ExampleObject(
@@ -54,38 +73,123 @@ class CongestionTaxController {
                     )
             )
     )
-    @ApiResponse(responseCode = "200", description = "Tax calculation successful")
+    @ApiResponse(responseCode = "200", description = "Tax calculation successful",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = TaxCalculationResponse.class)))
     @ApiResponse(responseCode = "400", description = "Invalid request data")
-    public ResponseEntity<TaxCalculationResponse> calculateTax(
-            @Valid @RequestBody TaxCalculationRequest webRequest) {
+    public void calculateTax(
+            @Valid @RequestBody TaxCalculationRequest webRequest,
+
+            @Parameter(description = DETAIL_DESCRIPTION, schema = @Schema(allowableValues = {"none", "daily", "full", "verbose"}))
+            @RequestParam(required = false) ResponseDetail detail,
+            HttpServletResponse response) throws IOException {
 
         log.info("Received tax calculation request for vehicle: {}", webRequest.vehicleType());
 
         TaxCalculationServiceRequest serviceRequest = dtoMapper.toServiceRequest(webRequest);
+        setDetail(serviceRequest, detail);
 
         TaxCalculationServiceResponse serviceResponse = taxService.calculateTax(serviceRequest);
 
-        TaxCalculationResponse webResponse = dtoMapper.toWebResponse(serviceResponse);
-
         log.info("Tax calculation completed for vehicle: {}, Total: {} SEK",
-                webRequest.vehicleType(), webResponse.totalTax());
+                webRequest.vehicleType(), serviceResponse.getTotalTax());
+
+        writeResponse(serviceResponse, response);
+    }
+
+    @PostMapping("/calculate/batch")
+    @Operation(
+            summary = "Calculate congestion tax for many vehicles",
+            description = "Calculates up to 1000 requests concurrently in one call. Results keep the request order; " +
+                    "each item carries either its result or its own error, so one invalid item does not fail the batch.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    content = @Content(
+                            examples = @ExampleObject(
+                                    name = "Two vehicles",
+                                    value = """
+                                            {
+                                                "requests": [
+                                                    {"vehicleType": "Car", "passageTimes": ["2013-02-07T06:23:27"]},
+                                                    {"vehicleType": "Motorcycle", "passageTimes": ["2013-02-07T15:27:00"]}
+                                                ]
+                                            }
+                                            """
+                            )
+                    )
+            )
+    )
+    @ApiResponse(responseCode = "200", description = "Batch processed; see each item for its result or error")
+    @ApiResponse(responseCode = "400", description = "Invalid batch")
+    public ResponseEntity<BatchTaxCalculationResponse> calculateTaxBatch(
+            @Valid @RequestBody BatchTaxCalculationRequest batchRequest) {
+
+        log.info("Received batch tax calculation request with {} items", batchRequest.requests().size());
+
+        List<TaxCalculationServiceRequest> serviceRequests = batchRequest.requests()
+                .stream()
+                .map(dtoMapper::toServiceRequest)
+                .collect(Collectors.toList());
+
+        List<BatchItemResult> itemResults = batchTaxService.calculateTaxBatch(serviceRequests);
+
+        BatchTaxCalculationResponse webResponse = dtoMapper.toBatchResponse(itemResults);
+
+        log.info("Batch tax calculation completed: {} succeeded, {} failed",
+                webResponse.succeeded(), webResponse.failed());
 
         return ResponseEntity.ok(webResponse);
     }
 
+    @PostMapping(path = "/calculate/stream", consumes = NDJSON, produces = NDJSON)
+    @Operation(
+            summary = "Calculate congestion tax over a stream of passages",
+            description = "Accepts newline-delimited JSON records {vehicleId, vehicleType, passageTime}, in any " +
+                    "size and roughly in time order. Each vehicle-day is written back as soon as it is final, " +
+                    "while the input is still being read. Passages later than the allowed lateness are reported " +
+                    "as 'late', invalid records as 'error'; a final 'summary' line closes the response.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    content = @Content(
+                            mediaType = NDJSON,
+                            examples = @ExampleObject(
+                                    name = "Two vehicles",
+                                    value = """
+                                            {"vehicleId": "ABC123", "vehicleType": "Car", "passageTime": "2013-02-07T06:23:27"}
+                                            {"vehicleId": "XYZ789", "vehicleType": "Car", "passageTime": "2013-02-07T07:05:00"}
+                                            {"vehicleId": "ABC123", "vehicleType": "Car", "passageTime": "2013-02-07T15:27:00"}
+                                            """
+                            )
+                    )
+            )
+    )
+    @ApiResponse(responseCode = "200", description = "Stream of day, late, error and summary lines")
+    public void calculateTaxStream(InputStream body, HttpServletResponse response) throws IOException {
+        log.info("Received streaming tax calculation request");
+
+        response.setContentType(NDJSON);
+        ndjsonTaxStreamProcessor.process(body, response.getOutputStream());
+    }
+
     @GetMapping("/calculate")
     @Operation(
             summary = "Calculate congestion tax via GET request",
             description = "Simple GET endpoint for quick tax calculations. " +
                     "Automatically groups passages by day for proper daily maximum calculation."
     )
-    public ResponseEntity<TaxCalculationResponse> calculateTaxSimple(
+    public void calculateTaxSimple(
             @Parameter(description = "Vehicle type", example = "Car")
             @RequestParam String vehicleType,
 
             @Parameter(description = "Comma-separated list of passage times in format yyyy-MM-dd HH:mm:ss",
                     example = "2013-02-07 06:23:27,2013-02-08 15:29:00")
-            @RequestParam String passageTimes) {
+            @RequestParam String passageTimes,
+
+            @Parameter(description = "City whose rules apply; defaults to the configured default city",
+                    example = "Gothenburg")
+            @RequestParam(required = false) String city,
+
+            @Parameter(description = DETAIL_DESCRIPTION, schema = @Schema(allowableValues = {"none", "daily", "full", "verbose"}))
+            @RequestParam(required = false) ResponseDetail detail,
+            HttpServletResponse response) throws IOException {
 
         log.info("Received simple tax calculation request for vehicle: {}", vehicleType);
 
@@ -94,37 +198,67 @@ class CongestionTaxController {
                 .map(LocalDateTime::parse)
                 .collect(Collectors.toList());
 
-        TaxCalculationRequest webRequest = new TaxCalculationRequest(vehicleType, parsedTimes);
+        TaxCalculationRequest webRequest = new TaxCalculationRequest(vehicleType, parsedTimes, city);
 
         TaxCalculationServiceRequest serviceRequest = dtoMapper.toServiceRequest(webRequest);
+        setDetail(serviceRequest, detail);
 
         TaxCalculationServiceResponse serviceResponse = taxService.calculateTax(serviceRequest);
 
-        TaxCalculationResponse webResponse = dtoMapper.toWebResponse(serviceResponse);
-
         log.info("Simple tax calculation completed for vehicle: {}, Total: {} SEK",
-                vehicleType, webResponse.totalTax());
+                vehicleType, serviceResponse.getTotalTax());
 
-        return ResponseEntity.ok(webResponse);
+        writeResponse(serviceResponse, response);
     }
 
     @GetMapping("/vehicle-types")
     @Operation(
             summary = "Get supported vehicle types",
-            description = "Returns list of all supported vehicle types and their toll-free status"
+            description = "Returns list of all supported vehicle types and their toll-free status. " +
+                    "Supports If-None-Match (304) and gzip."
     )
-    public ResponseEntity<List<String>> getSupportedVehicleTypes() {
-        List<String> vehicleTypes = taxService.getSupportedVehicleTypes();
-        return ResponseEntity.ok(vehicleTypes);
+    public ResponseEntity<byte[]> getSupportedVehicleTypes(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return preRenderedResponses.vehicleTypes(ifNoneMatch, acceptEncoding);
     }
 
     @GetMapping("/toll-schedule")
     @Operation(
             summary = "Get toll schedule information",
-            description = "Returns the current toll schedule with time slots, fees, and toll-free information"
+            description = "Returns the current toll schedule with time slots, fees, and toll-free information. " +
+                    "Supports If-None-Match (304) and gzip."
+    )
+    public ResponseEntity<byte[]> getTollSchedule(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return preRenderedResponses.tollSchedule(ifNoneMatch, acceptEncoding);
+    }
+
+    @GetMapping("/reason-codes")
+    @Operation(
+            summary = "Get reason codes",
+            description = "Returns the description of every reason code used in calculation responses " +
+                    "below verbose detail. Supports If-None-Match (304) and gzip."
     )
-    public ResponseEntity<Object> getTollSchedule() {
-        Object schedule = taxService.getTollSchedule();
-        return ResponseEntity.ok(schedule);
+    public ResponseEntity<byte[]> getReasonCodes(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return preRenderedResponses.reasonCodes(ifNoneMatch, acceptEncoding);
+    }
+
+    private static void setDetail(TaxCalculationServiceRequest serviceRequest, ResponseDetail detail) {
+        if (detail != null) {
+            serviceRequest.setDetail(detail);
+        }
+    }
+
+    /**
+     * Write the result directly in the {@link TaxCalculationResponse} wire format.
+     */
+    private void writeResponse(TaxCalculationServiceResponse serviceResponse, HttpServletResponse response)
+            throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        responseWriter.write(serviceResponse, LocalDateTime.now(), response.getOutputStream());
     }
 }
@@ -1,16 +1,35 @@
 package io.github.bluething.congestion.calculator.rest;
 
+import io.github.bluething.congestion.calculator.domain.BatchItemResult;
 import io.github.bluething.congestion.calculator.domain.DailyTaxSummary;
 import io.github.bluething.congestion.calculator.domain.PassageCalculation;
 import io.github.bluething.congestion.calculator.domain.TaxCalculationServiceRequest;
 import io.github.bluething.congestion.calculator.domain.TaxCalculationServiceResponse;
+import io.github.bluething.congestion.calculator.exception.InvalidDateFormatException;
+import io.github.bluething.congestion.calculator.exception.InvalidVehicleTypeException;
+import io.github.bluething.congestion.calculator.exception.NoTaxRulesException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
+@Slf4j
 class DTOMapper {
+    static final String MAPPING = "congestion.tax.mapping";
+
+    private final Timer requestMapping;
+    private final Timer responseMapping;
+
+    DTOMapper(MeterRegistry registry) {
+        this.requestMapping = mappingTimer(registry, "request");
+        this.responseMapping = mappingTimer(registry, "response");
+    }
+
     /**
      * Convert web request DTO to service request DTO
      */
@@ -18,10 +37,14 @@ class DTOMapper {
         if (webRequest == null) {
             return null;
         }
+        return requestMapping.record(() -> mapServiceRequest(webRequest));
+    }
 
+    private TaxCalculationServiceRequest mapServiceRequest(TaxCalculationRequest webRequest) {
         return new TaxCalculationServiceRequest(
                 webRequest.vehicleType(),
-                webRequest.passageTimes()
+                webRequest.passageTimes(),
+                webRequest.city()
         );
     }
 
@@ -32,6 +55,10 @@ class DTOMapper {
         if (serviceResponse == null) {
             return null;
         }
+        return responseMapping.record(() -> mapWebResponse(serviceResponse));
+    }
+
+    private TaxCalculationResponse mapWebResponse(TaxCalculationServiceResponse serviceResponse) {
 
         // Convert passage calculations to web format
         List<TaxCalculationResponse.PassageDetail> passageDetails = serviceResponse.getPassageCalculations()
@@ -44,10 +71,51 @@ class DTOMapper {
                 serviceResponse.getTotalTax(),
                 serviceResponse.isTollFreeVehicle(),
                 passageDetails,
-                convertDailySummaries(serviceResponse.getDailySummaries())
+                convertDailySummaries(serviceResponse.getDailySummaries()),
+                serviceResponse.getCity(),
+                serviceResponse.getRuleVersion()
         );
     }
 
+    /**
+     * Convert batch outcomes to web format, keeping request order
+     */
+    public BatchTaxCalculationResponse toBatchResponse(List<BatchItemResult> itemResults) {
+        List<BatchTaxCalculationResponse.BatchItem> items = new ArrayList<>(itemResults.size());
+        int failed = 0;
+        for (int i = 0; i < itemResults.size(); i++) {
+            BatchItemResult itemResult = itemResults.get(i);
+            if (itemResult.isSuccess()) {
+                items.add(new BatchTaxCalculationResponse.BatchItem(i, toWebResponse(itemResult.response()), null));
+            } else {
+                failed++;
+                items.add(new BatchTaxCalculationResponse.BatchItem(i, null, toBatchItemError(itemResult.error())));
+            }
+        }
+        return new BatchTaxCalculationResponse(items, itemResults.size() - failed, failed);
+    }
+
+    /**
+     * Same error codes as the single-request error responses
+     */
+    private BatchTaxCalculationResponse.BatchItemError toBatchItemError(RuntimeException e) {
+        String errorCode;
+        if (e instanceof InvalidVehicleTypeException) {
+            errorCode = "INVALID_VEHICLE_TYPE";
+        } else if (e instanceof InvalidDateFormatException) {
+            errorCode = "INVALID_DATE_FORMAT";
+        } else if (e instanceof NoTaxRulesException) {
+            errorCode = "NO_TAX_RULES";
+        } else if (e instanceof IllegalArgumentException) {
+            errorCode = "ILLEGAL_ARGUMENT";
+        } else {
+            log.error("Unexpected error in batch item", e);
+            return new BatchTaxCalculationResponse.BatchItemError(
+                    "INTERNAL_SERVER_ERROR", "An unexpected error occurred. Please try again later.");
+        }
+        return new BatchTaxCalculationResponse.BatchItemError(errorCode, e.getMessage());
+    }
+
     /**
      * Convert service passage calculation to web passage detail
      */
@@ -57,6 +125,7 @@ class DTOMapper {
         return new TaxCalculationResponse.PassageDetail(
                 serviceCalculation.getPassageTime(),
                 serviceCalculation.getIndividualFee(),
+                serviceCalculation.getEffectiveFee(),
                 serviceCalculation.isTollFreeDay(),
                 serviceCalculation.getReason()
         );
@@ -78,4 +147,12 @@ class DTOMapper {
                 ))
                 .collect(Collectors.toList());
     }
+
+    private static Timer mappingTimer(MeterRegistry registry, String direction) {
+        return Timer.builder(MAPPING)
+                .description("Time to map between web and service DTOs")
+                .tag("direction", direction)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
 }
@@ -0,0 +1,201 @@
+package io.github.bluething.congestion.calculator.rest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bluething.congestion.calculator.domain.FinalizedDay;
+import io.github.bluething.congestion.calculator.domain.LatePassage;
+import io.github.bluething.congestion.calculator.domain.ReorderingTaxStream;
+import io.github.bluething.congestion.calculator.domain.TaxStreamFactory;
+import io.github.bluething.congestion.calculator.domain.VehicleClass;
+import io.github.bluething.congestion.calculator.exception.InvalidVehicleTypeException;
+import io.github.bluething.congestion.calculator.exception.NoTaxRulesException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Calculates daily tax over a newline-delimited JSON stream of
+ * {@code {"vehicleId", "vehicleType", "passageTime"}} records.
+ * <p>
+ * Records are pulled one at a time with Jackson's streaming parser and fed to a
+ * {@link ReorderingTaxStream}; each finalized vehicle-day is written back with the streaming
+ * generator as soon as it is known, while the input is still being read. A vehicle's day is
+ * known when its own next passage falls on a later day, or when event time from any vehicle
+ * moves the watermark into the next day; a vehicle that goes silent is finalized and dropped
+ * then. Output is flushed after every record that produced a line, so a sparse stream is not
+ * held back by buffering. Nothing is collected per passage, so heap use depends on the number
+ * of vehicles with open days, not on the size of the payload.
+ * <p>
+ * Output lines carry a {@code type}: {@code day} for a finalized day, {@code late} for a passage
+ * that arrived behind the watermark, {@code error} for a record that was skipped, and one final
+ * {@code summary}.
+ */
+@Component
+@Slf4j
+class NdjsonTaxStreamProcessor {
+    private final JsonFactory jsonFactory;
+    private final TaxStreamFactory taxStreamFactory;
+
+    NdjsonTaxStreamProcessor(ObjectMapper objectMapper, TaxStreamFactory taxStreamFactory) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.taxStreamFactory = taxStreamFactory;
+    }
+
+    void process(InputStream input, OutputStream output) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(input);
+             JsonGenerator generator = jsonFactory.createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            long records = 0;
+            long errors = 0;
+            ReorderingTaxStream stream = taxStreamFactory.open(
+                    day -> writeDay(generator, day),
+                    passage -> writeLate(generator, passage));
+            try {
+                JsonToken token;
+                while ((token = nextRecord(parser, generator, records + 1)) != null) {
+                    records++;
+                    String error = token == JsonToken.START_OBJECT
+                            ? acceptRecord(parser, stream)
+                            : skipValue(parser);
+                    if (error != null) {
+                        errors++;
+                        writeError(generator, records, error);
+                    }
+                    // Days released by this record go out now, together, not when a buffer fills up
+                    if (generator.getOutputBuffered() != 0) {
+                        generator.flush();
+                    }
+                }
+            } finally {
+                stream.close();
+            }
+
+            ReorderingTaxStream.Stats stats = stream.stats();
+            generator.writeStartObject();
+            generator.writeStringField("type", "summary");
+            generator.writeNumberField("records", records);
+            generator.writeNumberField("accepted", stats.accepted());
+            generator.writeNumberField("late", stats.late());
+            generator.writeNumberField("errors", errors);
+            generator.writeNumberField("finalizedDays", stats.finalizedDays());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+
+            log.info("Streamed {} records: {} accepted, {} late, {} rejected, {} days",
+                    records, stats.accepted(), stats.late(), errors, stats.finalizedDays());
+        }
+    }
+
+    /**
+     * Advance to the next record. A syntax error cannot be resynchronised, so it is reported
+     * and ends the input; the days collected so far are still written.
+     */
+    private JsonToken nextRecord(JsonParser parser, JsonGenerator generator, long record) throws IOException {
+        try {
+            return parser.nextToken();
+        } catch (JsonProcessingException e) {
+            writeError(generator, record, "MALFORMED_REQUEST", "Invalid JSON format; input ends here");
+            return null;
+        }
+    }
+
+    /**
+     * Read one record object and feed it to the stream. Returns an error code, or null.
+     */
+    private String acceptRecord(JsonParser parser, ReorderingTaxStream stream) throws IOException {
+        String vehicleId = null;
+        String vehicleType = null;
+        String passageTime = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "vehicleId" -> vehicleId = parser.getValueAsString();
+                case "vehicleType" -> vehicleType = parser.getValueAsString();
+                case "passageTime" -> passageTime = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (vehicleId == null || vehicleId.isBlank()) {
+            return "MISSING_VEHICLE_ID";
+        }
+        try {
+            if (passageTime == null) {
+                return "INVALID_DATE_FORMAT";
+            }
+            LocalDateTime time = LocalDateTime.parse(passageTime);
+            stream.accept(vehicleId, taxStreamFactory.vehicleClass(vehicleType, time), time);
+            return null;
+        } catch (InvalidVehicleTypeException e) {
+            return "INVALID_VEHICLE_TYPE";
+        } catch (DateTimeParseException e) {
+            return "INVALID_DATE_FORMAT";
+        } catch (NoTaxRulesException e) {
+            return "NO_TAX_RULES";
+        }
+    }
+
+    private String skipValue(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        return "MALFORMED_REQUEST";
+    }
+
+    private void writeDay(JsonGenerator generator, FinalizedDay day) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("type", "day");
+            generator.writeStringField("vehicleId", day.vehicleId());
+            generator.writeStringField("vehicleType", day.vehicleClass().getVehicleType());
+            generator.writeStringField("date", day.date().toString());
+            generator.writeNumberField("dailyTax", day.dailyTax());
+            generator.writeNumberField("passageCount", day.passageCount());
+            generator.writeNumberField("ruleVersion", day.ruleVersion());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeLate(JsonGenerator generator, LatePassage passage) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("type", "late");
+            generator.writeStringField("vehicleId", passage.vehicleId());
+            generator.writeStringField("passageTime", passage.passageTime().toString());
+            generator.writeStringField("watermark", passage.watermark().toString());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeError(JsonGenerator generator, long record, String errorCode) throws IOException {
+        writeError(generator, record, errorCode, null);
+    }
+
+    private void writeError(JsonGenerator generator, long record, String errorCode, String message) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "error");
+        generator.writeNumberField("record", record);
+        generator.writeStringField("errorCode", errorCode);
+        if (message != null) {
+            generator.writeStringField("message", message);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
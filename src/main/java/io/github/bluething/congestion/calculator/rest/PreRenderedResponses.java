@@ -0,0 +1,184 @@
+package io.github.bluething.congestion.calculator.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bluething.congestion.calculator.domain.ReasonCode;
+import io.github.bluething.congestion.calculator.domain.TaxRuleSet;
+import io.github.bluething.congestion.calculator.domain.TaxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Rule-derived GET responses, and the reason code lookup, rendered once per active rule set into
+ * immutable JSON bytes, plus a gzip copy, each with a strong ETag. A request then costs an
+ * identity check and a header comparison: {@code If-None-Match} is answered with 304 and no
+ * body, anything else with the prepared bytes. Rendering happens again when the rule set in
+ * effect changes, on a reload or when a configured effective-from date passes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class PreRenderedResponses {
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+    private static final String GZIP = "gzip";
+
+    private final TaxService taxService;
+    private final ObjectMapper objectMapper;
+
+    // Replaced as a whole; concurrent renders of one rule set produce the same bytes
+    private volatile Rendered rendered;
+
+    ResponseEntity<byte[]> tollSchedule(String ifNoneMatch, String acceptEncoding) {
+        return respond(current().tollSchedule(), ifNoneMatch, acceptEncoding);
+    }
+
+    ResponseEntity<byte[]> vehicleTypes(String ifNoneMatch, String acceptEncoding) {
+        return respond(current().vehicleTypes(), ifNoneMatch, acceptEncoding);
+    }
+
+    ResponseEntity<byte[]> reasonCodes(String ifNoneMatch, String acceptEncoding) {
+        return respond(current().reasonCodes(), ifNoneMatch, acceptEncoding);
+    }
+
+    private Rendered current() {
+        TaxRuleSet active = taxService.getActiveRules();
+        Rendered current = rendered;
+        if (current == null || current.rules() != active) {
+            current = new Rendered(active,
+                    render(active, taxService.getTollSchedule()),
+                    render(active, taxService.getSupportedVehicleTypes()),
+                    render(active, reasonCodeDescriptions()));
+            rendered = current;
+            log.debug("Rendered static responses for {} rules version {} effective from {}",
+                    active.getCity(), active.getVersion(), active.getEffectiveFrom());
+        }
+        return current;
+    }
+
+    private static ResponseEntity<byte[]> respond(Body body, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? body.gzipEtag() : body.etag();
+
+        if (ifNoneMatch != null && (matches(ifNoneMatch, body.etag()) || matches(ifNoneMatch, body.gzipEtag()))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CACHE_CONTROL)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(body.gzip());
+        }
+        return response.body(body.json());
+    }
+
+    /**
+     * Whether any entity tag in an {@code If-None-Match} header matches, using the weak
+     * comparison that header calls for.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase(GZIP) || name.equals("*")) {
+                return parts.length < 2 || !isZeroQuality(parts[1]);
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZeroQuality(String parameter) {
+        String value = parameter.trim();
+        if (!value.startsWith("q=")) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(value.substring(2)) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Render one response; the ETag names the rule set (version and effective-from day) and the content.
+     */
+    private Body render(TaxRuleSet rules, Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            CRC32C crc = new CRC32C();
+            crc.update(json);
+            String from = rules.getEffectiveFrom() == null ? "0" : Long.toString(rules.getEffectiveFrom().toEpochDay());
+            String tag = rules.getVersion() + "-" + from + "-" + Long.toHexString(crc.getValue());
+            return new Body(json, gzip(json), "\"" + tag + "\"", "\"" + tag + "-" + GZIP + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not render response for rule version " + rules.getVersion(), e);
+        }
+    }
+
+    private static Map<String, String> reasonCodeDescriptions() {
+        Map<String, String> descriptions = new LinkedHashMap<>();
+        for (ReasonCode code : ReasonCode.values()) {
+            descriptions.put(code.name(), code.getDescription());
+        }
+        return descriptions;
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private record Rendered(TaxRuleSet rules, Body tollSchedule, Body vehicleTypes, Body reasonCodes) {
+    }
+
+    /**
+     * One response in both encodings. The strong ETags differ per encoding, as the bytes do.
+     */
+    private record Body(byte[] json, byte[] gzip, String etag, String gzipEtag) {
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.bluething.congestion.calculator.rest;
+
+import io.github.bluething.congestion.calculator.domain.ResponseDetail;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds {@code ?detail=none|daily|full|verbose} in any case; unknown values become a type mismatch.
+ */
+@Component
+class ResponseDetailConverter implements Converter<String, ResponseDetail> {
+    @Override
+    public ResponseDetail convert(String source) {
+        return ResponseDetail.fromParam(source);
+    }
+}
@@ -11,16 +11,20 @@ record TaxCalculationResponse(String vehicleType,
                               boolean tollFreeVehicle,
                               List<PassageDetail> passageDetails,
                               List<DailyTaxSummaryInfo> dailyTaxSummaries,
+                              String city,
+                              long ruleVersion,
                               LocalDateTime calculatedAt) {
     // Factory method to create response with current timestamp
     public static TaxCalculationResponse of(String vehicleType, int totalTax,
-                                            boolean tollFreeVehicle, List<PassageDetail> passageDetails, List<DailyTaxSummaryInfo> dailyTaxSummaries) {
-        return new TaxCalculationResponse(vehicleType, totalTax, tollFreeVehicle, passageDetails, dailyTaxSummaries, LocalDateTime.now());
+                                            boolean tollFreeVehicle, List<PassageDetail> passageDetails, List<DailyTaxSummaryInfo> dailyTaxSummaries,
+                                            String city, long ruleVersion) {
+        return new TaxCalculationResponse(vehicleType, totalTax, tollFreeVehicle, passageDetails, dailyTaxSummaries, city, ruleVersion, LocalDateTime.now());
     }
 
     record PassageDetail(
             LocalDateTime passageTime,
             int individualFee,
+            int effectiveFee,
             boolean tollFreeDay,
             String reason
     ) {}
@@ -0,0 +1,210 @@
+package io.github.bluething.congestion.calculator.rest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bluething.congestion.calculator.domain.DailyTaxSummary;
+import io.github.bluething.congestion.calculator.domain.PassageCalculation;
+import io.github.bluething.congestion.calculator.domain.ReasonCode;
+import io.github.bluething.congestion.calculator.domain.ResponseDetail;
+import io.github.bluething.congestion.calculator.domain.TaxCalculationServiceResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a calculation result straight to the response stream in the wire format of
+ * {@link TaxCalculationResponse}, without the web DTO copy and without reflection: field names
+ * are pre-encoded and the domain lists are walked in place. Dates use the ISO format Jackson
+ * writes, formatted into a reusable buffer in the common whole-second case.
+ * <p>
+ * Below {@link ResponseDetail#VERBOSE} the sections the client did not ask for are left out and
+ * reasons are written as {@code reasonCode}, whose descriptions are served by the reason code lookup.
+ */
+@Component
+class TaxCalculationResponseWriter {
+    static final String RESPONSE_WRITE = "congestion.tax.response.write";
+
+    private static final SerializableString VEHICLE_TYPE = new SerializedString("vehicleType");
+    private static final SerializableString TOTAL_TAX = new SerializedString("totalTax");
+    private static final SerializableString TOLL_FREE_VEHICLE = new SerializedString("tollFreeVehicle");
+    private static final SerializableString PASSAGE_DETAILS = new SerializedString("passageDetails");
+    private static final SerializableString DAILY_TAX_SUMMARIES = new SerializedString("dailyTaxSummaries");
+    private static final SerializableString CITY = new SerializedString("city");
+    private static final SerializableString RULE_VERSION = new SerializedString("ruleVersion");
+    private static final SerializableString CALCULATED_AT = new SerializedString("calculatedAt");
+    private static final SerializableString PASSAGE_TIME = new SerializedString("passageTime");
+    private static final SerializableString INDIVIDUAL_FEE = new SerializedString("individualFee");
+    private static final SerializableString EFFECTIVE_FEE = new SerializedString("effectiveFee");
+    private static final SerializableString TOLL_FREE_DAY = new SerializedString("tollFreeDay");
+    private static final SerializableString REASON = new SerializedString("reason");
+    private static final SerializableString DATE = new SerializedString("date");
+    private static final SerializableString DAILY_TAX = new SerializedString("dailyTax");
+    private static final SerializableString PASSAGE_COUNT = new SerializedString("passageCount");
+    private static final SerializableString REASON_CODE = new SerializedString("reasonCode");
+    private static final SerializableString[] REASON_CODES = encodedReasonCodes();
+
+    private final JsonFactory jsonFactory;
+    private final Timer writeTimer;
+
+    TaxCalculationResponseWriter(ObjectMapper objectMapper, MeterRegistry registry) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.writeTimer = Timer.builder(RESPONSE_WRITE)
+                .description("Time to write a calculation response to the client")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    void write(TaxCalculationServiceResponse response, LocalDateTime calculatedAt, OutputStream output)
+            throws IOException {
+        long start = System.nanoTime();
+        try (JsonGenerator generator = jsonFactory.createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            char[] buffer = new char[19]; // yyyy-MM-ddTHH:mm:ss
+
+            generator.writeStartObject();
+            generator.writeFieldName(VEHICLE_TYPE);
+            generator.writeString(response.getVehicleType());
+            generator.writeFieldName(TOTAL_TAX);
+            generator.writeNumber(response.getTotalTax());
+            generator.writeFieldName(TOLL_FREE_VEHICLE);
+            generator.writeBoolean(response.isTollFreeVehicle());
+
+            ResponseDetail detail = response.getDetail() == null ? ResponseDetail.VERBOSE : response.getDetail();
+            boolean verbose = detail == ResponseDetail.VERBOSE;
+            if (detail.includesPassages()) {
+                generator.writeFieldName(PASSAGE_DETAILS);
+                generator.writeStartArray();
+                List<PassageCalculation> passages = response.getPassageCalculations();
+                for (int i = 0; i < passages.size(); i++) {
+                    PassageCalculation passage = passages.get(i);
+                    generator.writeStartObject();
+                    generator.writeFieldName(PASSAGE_TIME);
+                    writeDateTime(generator, passage.getPassageTime(), buffer);
+                    generator.writeFieldName(INDIVIDUAL_FEE);
+                    generator.writeNumber(passage.getIndividualFee());
+                    generator.writeFieldName(EFFECTIVE_FEE);
+                    generator.writeNumber(passage.getEffectiveFee());
+                    generator.writeFieldName(TOLL_FREE_DAY);
+                    generator.writeBoolean(passage.isTollFreeDay());
+                    writeReason(generator, verbose, passage.getReason(), passage.getReasonCode());
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+            }
+
+            if (detail.includesDays()) {
+                generator.writeFieldName(DAILY_TAX_SUMMARIES);
+                generator.writeStartArray();
+                List<DailyTaxSummary> days = response.getDailySummaries();
+                for (int i = 0; i < days.size(); i++) {
+                    DailyTaxSummary day = days.get(i);
+                    generator.writeStartObject();
+                    generator.writeFieldName(DATE);
+                    writeDate(generator, day.getDate(), buffer);
+                    generator.writeFieldName(DAILY_TAX);
+                    generator.writeNumber(day.getDailyTax());
+                    generator.writeFieldName(PASSAGE_COUNT);
+                    generator.writeNumber(day.getPassageCount());
+                    generator.writeFieldName(TOLL_FREE_DAY);
+                    generator.writeBoolean(day.isTollFreeDay());
+                    writeReason(generator, verbose, day.getReason(), day.getReasonCode());
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+            }
+
+            generator.writeFieldName(CITY);
+            generator.writeString(response.getCity());
+            generator.writeFieldName(RULE_VERSION);
+            generator.writeNumber(response.getRuleVersion());
+            generator.writeFieldName(CALCULATED_AT);
+            // calculatedAt keeps its fraction of a second, so it takes the formatter path
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(calculatedAt));
+            generator.writeEndObject();
+        } finally {
+            writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void writeReason(JsonGenerator generator, boolean verbose, String reason, ReasonCode reasonCode)
+            throws IOException {
+        if (verbose) {
+            generator.writeFieldName(REASON);
+            generator.writeString(reason);
+        } else {
+            generator.writeFieldName(REASON_CODE);
+            if (reasonCode == null) {
+                generator.writeNull();
+            } else {
+                generator.writeString(REASON_CODES[reasonCode.ordinal()]);
+            }
+        }
+    }
+
+    private static SerializableString[] encodedReasonCodes() {
+        ReasonCode[] codes = ReasonCode.values();
+        SerializableString[] encoded = new SerializableString[codes.length];
+        for (ReasonCode code : codes) {
+            encoded[code.ordinal()] = new SerializedString(code.name());
+        }
+        return encoded;
+    }
+
+    private static void writeDateTime(JsonGenerator generator, LocalDateTime time, char[] buffer) throws IOException {
+        if (time == null) {
+            generator.writeNull();
+        } else if (time.getNano() != 0 || !formatDate(time.getYear(), time.getMonthValue(), time.getDayOfMonth(), buffer)) {
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time));
+        } else {
+            buffer[10] = 'T';
+            twoDigits(time.getHour(), buffer, 11);
+            buffer[13] = ':';
+            twoDigits(time.getMinute(), buffer, 14);
+            buffer[16] = ':';
+            twoDigits(time.getSecond(), buffer, 17);
+            generator.writeString(buffer, 0, 19);
+        }
+    }
+
+    private static void writeDate(JsonGenerator generator, LocalDate date, char[] buffer) throws IOException {
+        if (date == null) {
+            generator.writeNull();
+        } else if (!formatDate(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), buffer)) {
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE.format(date));
+        } else {
+            generator.writeString(buffer, 0, 10);
+        }
+    }
+
+    /**
+     * Format {@code yyyy-MM-dd} into the buffer; false for years ISO writes with a sign or more digits.
+     */
+    private static boolean formatDate(int year, int month, int day, char[] buffer) {
+        if (year < 0 || year > 9999) {
+            return false;
+        }
+        twoDigits(year / 100, buffer, 0);
+        twoDigits(year % 100, buffer, 2);
+        buffer[4] = '-';
+        twoDigits(month, buffer, 5);
+        buffer[7] = '-';
+        twoDigits(day, buffer, 8);
+        return true;
+    }
+
+    private static void twoDigits(int value, char[] buffer, int offset) {
+        buffer[offset] = (char) ('0' + value / 10);
+        buffer[offset + 1] = (char) ('0' + value % 10);
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+import io.github.bluething.congestion.calculator.domain.EpochMinutes;
+import io.github.bluething.congestion.calculator.domain.VehicleClass;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BinaryPassageReader Tests")
+class BinaryPassageReaderTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<String> passages = new ArrayList<>();
+
+    private final PassageSink sink = (vehicleId, vehicleClass, epochMinute) ->
+            passages.add(VehicleIds.unpack(vehicleId) + " " + vehicleClass + " " + EpochMinutes.toLocalDateTime(epochMinute));
+
+    private BinaryPassageReader reader(long windowBytes) {
+        return new BinaryPassageReader(EnumSet.allOf(VehicleClass.class), 1, Duration.ofMinutes(1), windowBytes);
+    }
+
+    private static long minute(int day, int hour, int minute) {
+        return EpochMinutes.of(LocalDateTime.of(2013, 2, day, hour, minute));
+    }
+
+    @Test
+    @DisplayName("Should read back what the writer appended, across mapping windows")
+    void shouldRoundTrip() throws IOException {
+        Path file = directory.resolve("passages.ctxp");
+        List<String> expected = new ArrayList<>();
+        try (BinaryPassageWriter writer = new BinaryPassageWriter(file, 1)) {
+            for (int i = 0; i < 1_000; i++) {
+                VehicleClass vehicleClass = VehicleClass.values()[i % VehicleClass.values().length];
+                long epochMinute = minute(7, 6, 0) + i;
+                writer.accept(VehicleIds.pack("V" + i), vehicleClass, epochMinute);
+                expected.add("V" + i + " " + vehicleClass + " " + EpochMinutes.toLocalDateTime(epochMinute));
+            }
+        }
+
+        ReadStats stats = reader(100 * BinaryPassageFormat.RECORD_BYTES + 5).read(file, sink);
+
+        assertThat(passages).containsExactlyElementsOf(expected);
+        assertThat(stats.passages()).isEqualTo(1_000);
+        assertThat(Files.size(file)).isEqualTo(BinaryPassageFormat.HEADER_BYTES + 1_000L * BinaryPassageFormat.RECORD_BYTES);
+    }
+
+    @Test
+    @DisplayName("Should append to an existing file in its own time unit and keep its rule-set id")
+    void shouldAppendToExistingFile() throws IOException {
+        Path file = directory.resolve("passages.ctxp");
+        try (BinaryPassageWriter writer = new BinaryPassageWriter(file, BinaryPassageFormat.TimeUnit.EPOCH_SECONDS, 9)) {
+            writer.accept(VehicleIds.pack("ABC123"), VehicleClass.CAR, minute(7, 6, 23));
+        }
+        // A writer that died mid-record leaves a partial record behind
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[5]));
+        }
+        try (BinaryPassageWriter writer = new BinaryPassageWriter(file, 9)) {
+            writer.accept(VehicleIds.pack("ABC123"), VehicleClass.CAR, minute(7, 15, 27));
+            assertThat(writer.recordCount()).isEqualTo(2);
+        }
+
+        reader(BinaryPassageReader.DEFAULT_WINDOW_BYTES).read(file, sink);
+
+        assertThat(passages).containsExactly("ABC123 CAR 2013-02-07T06:23", "ABC123 CAR 2013-02-07T15:27");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            BinaryPassageFormat.Header header = BinaryPassageFormat.readHeader(channel);
+            assertThat(header.timeUnit()).isEqualTo(BinaryPassageFormat.TimeUnit.EPOCH_SECONDS);
+            assertThat(header.ruleSetId()).isEqualTo(9);
+            assertThat(header.recordCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to append under another rule-set id")
+    void shouldRefuseAppendUnderOtherRuleSet() throws IOException {
+        Path file = directory.resolve("passages.ctxp");
+        try (BinaryPassageWriter writer = new BinaryPassageWriter(file, 9)) {
+            writer.accept(VehicleIds.pack("ABC123"), VehicleClass.CAR, minute(7, 6, 23));
+        }
+        long size = Files.size(file);
+
+        assertThatThrownBy(() -> new BinaryPassageWriter(file, 10))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("rule set 9, not 10");
+        assertThat(Files.size(file)).isEqualTo(size);
+    }
+
+    @Test
+    @DisplayName("Should skip records of unsupported vehicle classes")
+    void shouldSkipUnsupportedClasses() throws IOException {
+        Path file = directory.resolve("passages.ctxp");
+        try (BinaryPassageWriter writer = new BinaryPassageWriter(file, 1)) {
+            writer.accept(VehicleIds.pack("A"), VehicleClass.CAR, minute(7, 6, 0));
+            writer.accept(VehicleIds.pack("B"), VehicleClass.MILITARY, minute(7, 6, 0));
+        }
+
+        ReadStats stats = new BinaryPassageReader(EnumSet.of(VehicleClass.CAR), 1, Duration.ofMinutes(1)).read(file, sink);
+
+        assertThat(passages).containsExactly("A CAR 2013-02-07T06:00");
+        assertThat(stats.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reject files that are not binary passage files")
+    void shouldRejectForeignFiles() throws IOException {
+        Path file = directory.resolve("passages.ctxp");
+        Files.writeString(file, "vehicleId,vehicleType,passageTime\nABC123,Car,2013-02-07T06:23:27\n");
+
+        assertThatThrownBy(() -> reader(BinaryPassageReader.DEFAULT_WINDOW_BYTES).read(file, sink))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Not a binary passage file");
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+import io.github.bluething.congestion.calculator.domain.DailyTaxSummary;
+import io.github.bluething.congestion.calculator.domain.EpochMinutes;
+import io.github.bluething.congestion.calculator.domain.TaxCalculationServiceRequest;
+import io.github.bluething.congestion.calculator.domain.TaxService;
+import io.github.bluething.congestion.calculator.domain.VehicleClass;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DisplayName("BulkTaxEngine Tests")
+class BulkTaxEngineTest {
+
+    @Autowired
+    private BulkTaxEngine bulkTaxEngine;
+
+    @Autowired
+    private TaxService taxService;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should produce the same daily totals as the tax service")
+    void shouldMatchTaxService() throws IOException {
+        Random random = new Random(11);
+        VehicleClass[] classes = {VehicleClass.CAR, VehicleClass.CAR, VehicleClass.MOTORCYCLE};
+        List<String> vehicleTypes = new ArrayList<>();
+        List<List<LocalDateTime>> passagesByVehicle = new ArrayList<>();
+        StringBuilder csv = new StringBuilder("vehicleId,vehicleType,passageTime\n");
+        for (int vehicle = 0; vehicle < 20; vehicle++) {
+            String vehicleType = classes[vehicle % classes.length].getVehicleType();
+            List<LocalDateTime> passages = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                passages.add(LocalDateTime.of(2013, 3, 25, 0, 0).plusMinutes(random.nextInt(6 * 24 * 60)));
+            }
+            vehicleTypes.add(vehicleType);
+            passagesByVehicle.add(passages);
+            for (LocalDateTime passage : passages) {
+                csv.append("V").append(vehicle).append(',').append(vehicleType).append(',').append(passage).append('\n');
+            }
+        }
+        Path input = directory.resolve("passages.csv");
+        Files.writeString(input, csv, StandardCharsets.US_ASCII);
+
+        PassageTable table = new PassageTable();
+        new CsvPassageReader(EnumSet.allOf(VehicleClass.class), Duration.ofMinutes(1)).read(input, table);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (DayTotalWriter writer = new DayTotalWriter(output)) {
+            bulkTaxEngine.calculate(table, writer);
+        }
+
+        StringBuilder expected = new StringBuilder(DayTotalWriter.HEADER);
+        for (int vehicle = 0; vehicle < passagesByVehicle.size(); vehicle++) {
+            List<DailyTaxSummary> days = taxService.calculateTax(new TaxCalculationServiceRequest(
+                    vehicleTypes.get(vehicle), passagesByVehicle.get(vehicle))).getDailySummaries();
+            for (DailyTaxSummary day : days) {
+                expected.append("V").append(vehicle).append(',').append(vehicleTypes.get(vehicle)).append(',')
+                        .append(day.getDate()).append(',').append(day.getDailyTax()).append(',')
+                        .append(day.getPassageCount()).append('\n');
+            }
+        }
+        assertThat(output.toString(StandardCharsets.US_ASCII)).isEqualTo(expected.toString());
+    }
+
+    @Test
+    @DisplayName("Should group passages by vehicle in first-seen order, then by day")
+    void shouldGroupByVehicleThenDay() throws IOException {
+        PassageTable table = new PassageTable(4);
+        long b = VehicleIds.pack("B");
+        long a = VehicleIds.pack("A");
+        table.accept(b, VehicleClass.CAR, EpochMinutes.of(LocalDateTime.of(2013, 2, 8, 7, 0)));
+        table.accept(a, VehicleClass.CAR, EpochMinutes.of(LocalDateTime.of(2013, 2, 7, 6, 0)));
+        table.accept(b, VehicleClass.CAR, EpochMinutes.of(LocalDateTime.of(2013, 2, 7, 15, 0)));
+        table.accept(b, VehicleClass.CAR, EpochMinutes.of(LocalDateTime.of(2013, 2, 8, 6, 30)));
+        table.accept(a, VehicleClass.CAR, EpochMinutes.of(LocalDateTime.of(2013, 2, 7, 6, 40)));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (DayTotalWriter writer = new DayTotalWriter(output)) {
+            bulkTaxEngine.calculate(table, writer);
+        }
+
+        assertThat(output.toString(StandardCharsets.US_ASCII)).isEqualTo(DayTotalWriter.HEADER
+                + "B,Car,2013-02-07,13,1\n"
+                + "B,Car,2013-02-08,18,2\n"
+                + "A,Car,2013-02-07,13,2\n");
+    }
+
+    @Test
+    @DisplayName("Should write byte-identical totals for any parallelism")
+    void shouldMatchSequentialForAnyParallelism() throws IOException {
+        Random random = new Random(5);
+        long start = EpochMinutes.of(LocalDateTime.of(2013, 1, 1, 0, 0));
+        long[] vehicleIds = new long[5_000];
+        for (int i = 0; i < vehicleIds.length; i++) {
+            vehicleIds[i] = VehicleIds.pack("V" + i);
+        }
+        VehicleClass[] classes = VehicleClass.values();
+        long[] passages = new long[200_000];
+        for (int i = 0; i < passages.length; i++) {
+            // Skewed: a few vehicles pass far more often than the rest
+            int vehicle = random.nextBoolean() ? random.nextInt(20) : random.nextInt(vehicleIds.length);
+            passages[i] = (long) vehicle << 32 | (start + random.nextInt(90 * 24 * 60));
+        }
+
+        String sequential = calculate(passages, vehicleIds, classes, 1);
+        for (int parallelism : new int[]{2, 3, 8}) {
+            assertThat(calculate(passages, vehicleIds, classes, parallelism))
+                    .as("parallelism %d", parallelism)
+                    .isEqualTo(sequential);
+        }
+    }
+
+    private String calculate(long[] passages, long[] vehicleIds, VehicleClass[] classes, int parallelism)
+            throws IOException {
+        PassageTable table = new PassageTable(passages.length);
+        for (long passage : passages) {
+            int vehicle = (int) (passage >>> 32);
+            table.accept(vehicleIds[vehicle], classes[vehicle % classes.length], passage & 0xFFFF_FFFFL);
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (DayTotalWriter writer = new DayTotalWriter(output)) {
+            bulkTaxEngine.calculate(table, writer, parallelism);
+        }
+        return output.toString(StandardCharsets.US_ASCII);
+    }
+}
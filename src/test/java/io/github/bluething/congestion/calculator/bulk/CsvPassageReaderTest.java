@@ -0,0 +1,116 @@
+package io.github.bluething.congestion.calculator.bulk;
+
+import io.github.bluething.congestion.calculator.domain.EpochMinutes;
+import io.github.bluething.congestion.calculator.domain.VehicleClass;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CsvPassageReader Tests")
+class CsvPassageReaderTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<String> passages = new ArrayList<>();
+
+    private final PassageSink sink = (vehicleId, vehicleClass, epochMinute) ->
+            passages.add(VehicleIds.unpack(vehicleId) + " " + vehicleClass + " " + EpochMinutes.toLocalDateTime(epochMinute));
+
+    private Path write(String content) throws IOException {
+        Path file = directory.resolve("passages.csv");
+        Files.writeString(file, content, StandardCharsets.US_ASCII);
+        return file;
+    }
+
+    private CsvPassageReader reader(long windowBytes) {
+        return new CsvPassageReader(EnumSet.allOf(VehicleClass.class), Duration.ofMinutes(1), windowBytes);
+    }
+
+    @Test
+    @DisplayName("Should parse lines with header, CRLF, optional seconds and a space separator")
+    void shouldParseSupportedLineFormats() throws IOException {
+        Path file = write("""
+                vehicleId,vehicleType,passageTime
+                ABC123,Car,2013-02-07T06:23:27\r
+                XYZ789,Motorcycle,2013-02-07 07:05
+                ABCDEFGH,Emergency,2013-12-31T23:59:59.999
+                """);
+
+        ReadStats stats = reader(CsvPassageReader.DEFAULT_WINDOW_BYTES).read(file, sink);
+
+        assertThat(passages).containsExactly(
+                "ABC123 CAR 2013-02-07T06:23",
+                "XYZ789 MOTORCYCLE 2013-02-07T07:05",
+                "ABCDEFGH EMERGENCY 2013-12-31T23:59");
+        assertThat(stats.lines()).isEqualTo(3);
+        assertThat(stats.rejected()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should skip malformed lines and unsupported vehicle types")
+    void shouldRejectInvalidLines() throws IOException {
+        Path file = write("""
+                ABC123,Car,2013-02-30T06:23:27
+                ABC123,Boat,2013-02-07T06:23:27
+                TOOLONGID,Car,2013-02-07T06:23:27
+                ABC123,Car,2013-02-07T24:00:00
+                ABC123,Car
+                ABC123,Tractor,2013-02-07T06:23:27
+                ABC123,Car,2013-02-07T06:23:27
+                """);
+        CsvPassageReader reader = new CsvPassageReader(EnumSet.of(VehicleClass.CAR), Duration.ofMinutes(1));
+
+        ReadStats stats = reader.read(file, sink);
+
+        assertThat(passages).containsExactly("ABC123 CAR 2013-02-07T06:23");
+        assertThat(stats.passages()).isEqualTo(1);
+        assertThat(stats.rejected()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Should read lines split across mapping windows exactly once")
+    void shouldReadAcrossWindows() throws IOException {
+        StringBuilder content = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        LocalDateTime time = LocalDateTime.of(2013, 2, 7, 6, 0);
+        for (int i = 0; i < 500; i++) {
+            String id = "V" + i;
+            content.append(id).append(",Car,").append(time.plusMinutes(i)).append('\n');
+            expected.add(id + " CAR " + time.plusMinutes(i));
+        }
+        // No trailing newline on the last line
+        content.setLength(content.length() - 1);
+
+        ReadStats stats = reader(57).read(write(content.toString()), sink);
+
+        assertThat(passages).containsExactlyElementsOf(expected);
+        assertThat(stats.rejected()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should decode timestamps to the same epoch minute as LocalDateTime")
+    void shouldDecodeEpochMinute() {
+        for (String text : List.of("1970-01-01T00:00", "2000-02-29T12:30:00", "2013-03-01T00:00", "2100-03-01T23:59")) {
+            ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+            assertThat(CsvPassageReader.epochMinute(buffer, 0, text.length()))
+                    .as(text)
+                    .isEqualTo(EpochMinutes.of(LocalDateTime.parse(text)));
+        }
+        ByteBuffer leapless = ByteBuffer.wrap("2100-02-29T00:00".getBytes(StandardCharsets.US_ASCII));
+        assertThat(CsvPassageReader.epochMinute(leapless, 0, 16)).isEqualTo(-1);
+    }
+}
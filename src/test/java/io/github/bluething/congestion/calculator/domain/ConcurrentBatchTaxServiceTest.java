@@ -0,0 +1,83 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import io.github.bluething.congestion.calculator.exception.InvalidVehicleTypeException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ConcurrentBatchTaxService Tests")
+class ConcurrentBatchTaxServiceTest {
+
+    private final TaxService taxService = mock(TaxService.class);
+
+    private ConcurrentBatchTaxService service(int maxConcurrency) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+        executor.setVirtualThreads(true);
+        BatchConfig batchConfig = new BatchConfig();
+        batchConfig.setMaxConcurrency(maxConcurrency);
+        return new ConcurrentBatchTaxService(taxService, executor, batchConfig);
+    }
+
+    private static TaxCalculationServiceRequest request(String vehicleType) {
+        return new TaxCalculationServiceRequest(vehicleType, List.of(LocalDateTime.of(2013, 2, 7, 8, 0)));
+    }
+
+    @Test
+    @DisplayName("Should keep request order and isolate failing items")
+    void shouldKeepOrderAndIsolateFailures() {
+        when(taxService.calculateTax(any())).thenAnswer(invocation -> {
+            TaxCalculationServiceRequest request = invocation.getArgument(0);
+            if (request.getVehicleType().equals("Boat")) {
+                throw new InvalidVehicleTypeException("Unsupported vehicle type: Boat");
+            }
+            return new TaxCalculationServiceResponse(request.getVehicleType(), 13, false, List.of(), List.of());
+        });
+        List<TaxCalculationServiceRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            requests.add(request(i % 50 == 7 ? "Boat" : "Car" + i));
+        }
+
+        List<BatchItemResult> results = service(8).calculateTaxBatch(requests);
+
+        assertThat(results).hasSize(200);
+        for (int i = 0; i < results.size(); i++) {
+            if (i % 50 == 7) {
+                assertThat(results.get(i).isSuccess()).isFalse();
+                assertThat(results.get(i).error()).isInstanceOf(InvalidVehicleTypeException.class);
+            } else {
+                assertThat(results.get(i).response().getVehicleType()).isEqualTo("Car" + i);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should never run more items at once than the configured concurrency")
+    void shouldBoundConcurrency() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(taxService.calculateTax(any())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(2);
+            running.decrementAndGet();
+            return new TaxCalculationServiceResponse("Car", 0, false, List.of(), List.of());
+        });
+        List<TaxCalculationServiceRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            requests.add(request("Car"));
+        }
+
+        service(4).calculateTaxBatch(requests);
+
+        assertThat(maxRunning.get()).isBetween(1, 4);
+    }
+}
@@ -15,6 +15,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,7 +28,7 @@ import static org.mockito.Mockito.*;
 class CongestionTaxCalculatorTest {
 
     @Mock
-    private TaxRulesConfig taxRulesConfig;
+    private TaxRulesRegistry taxRulesRegistry;
 
     @Mock
     private Vehicle vehicle;
@@ -33,20 +36,32 @@ class CongestionTaxCalculatorTest {
     @InjectMocks
     private CongestionTaxCalculator calculator;
 
+    private TaxRuleSet rules;
+
     @BeforeEach
     void setUp() {
-        // Use lenient() to avoid unnecessary stubbing exceptions
-        // Default mock behavior for standard tax rules
-        lenient().when(taxRulesConfig.getSingleChargeIntervalMinutes()).thenReturn(60);
-        lenient().when(taxRulesConfig.getMaxDailyTax()).thenReturn(60);
-        lenient().when(taxRulesConfig.isTollFreeMonth(anyInt())).thenReturn(false);
-        lenient().when(taxRulesConfig.isTollFreeMonth(7)).thenReturn(true);
-        lenient().when(taxRulesConfig.isTollFreeVehicle("Motorcycle")).thenReturn(true);
-        lenient().when(taxRulesConfig.isTollFreeVehicle("Emergency")).thenReturn(true);
-        lenient().when(taxRulesConfig.isTollFreeVehicle("Car")).thenReturn(false);
+        TaxRulesConfig config = new TaxRulesConfig();
+        config.setSingleChargeIntervalMinutes(60);
+        config.setMaxDailyTax(60);
+        config.setTollFreeMonths(List.of(7));
+        config.setTollFreeVehicles(Set.of("Motorcycle", "Emergency"));
+
+        // Official Gothenburg time slots
+        config.setTimeSlots(Map.of(
+                "06:00-06:29", 8,
+                "06:30-06:59", 13,
+                "07:00-07:59", 18,
+                "08:00-08:29", 13,
+                "08:30-14:59", 8,
+                "15:00-15:29", 13,
+                "15:30-16:59", 18,
+                "17:00-17:59", 13,
+                "18:00-18:29", 8,
+                "18:30-05:59", 0
+        ));
 
         // Default holidays for 2013
-        lenient().when(taxRulesConfig.getHolidaysForYear(2013)).thenReturn(Arrays.asList(
+        config.setHolidays(Map.of("2013", Arrays.asList(
                 "01-01", // New Year's Day
                 "03-29", // Good Friday
                 "04-01", // Easter Monday
@@ -57,9 +72,9 @@ class CongestionTaxCalculatorTest {
                 "11-02", // All Saints' Day
                 "12-25", // Christmas Day
                 "12-26"  // Boxing Day
-        ));
+        )));
 
-        lenient().when(taxRulesConfig.getDaysBeforeHolidaysForYear(2013)).thenReturn(Arrays.asList(
+        config.setDaysBeforeHolidays(Map.of("2013", Arrays.asList(
                 "12-31", // New Year's Eve
                 "03-28", // Day before Good Friday
                 "04-30", // Day before Labour Day
@@ -68,7 +83,11 @@ class CongestionTaxCalculatorTest {
                 "06-20", // Day before Midsummer
                 "11-01", // Day before All Saints
                 "12-24"  // Christmas Eve
-        ));
+        )));
+
+        TaxRuleIndex index = TaxRuleIndex.compile(config, 1);
+        rules = index.rulesFor(0);
+        lenient().when(taxRulesRegistry.index()).thenReturn(index);
 
         lenient().when(vehicle.getVehicleType()).thenReturn("Car");
     }
@@ -132,6 +151,15 @@ class CongestionTaxCalculatorTest {
             assertEquals(0, result);
         }
 
+        @Test
+        @DisplayName("Should decide toll-free status of registry vehicles by bitmask")
+        void shouldUseBitmaskForRegistryVehicles() {
+            LocalDateTime[] dates = {LocalDateTime.of(2013, 2, 7, 8, 0)};
+
+            assertEquals(0, calculator.getTax(VehicleClass.MOTORCYCLE, dates));
+            assertEquals(13, calculator.getTax(VehicleClass.CAR, dates));
+        }
+
         @Test
         @DisplayName("Should calculate tax for regular car")
         void shouldCalculateTaxForCar() {
@@ -393,6 +421,149 @@ class CongestionTaxCalculatorTest {
         }
     }
 
+    @Nested
+    @DisplayName("Epoch-Minute API Tests")
+    class EpochMinuteApiTest {
+
+        @Test
+        @DisplayName("Should match the LocalDateTime API for the same passages")
+        void shouldMatchLocalDateTimeApi() {
+            LocalDateTime[] dates = {
+                    LocalDateTime.of(2013, 2, 8, 6, 20),
+                    LocalDateTime.of(2013, 2, 8, 6, 27),
+                    LocalDateTime.of(2013, 2, 8, 14, 35),
+                    LocalDateTime.of(2013, 2, 8, 15, 29),
+                    LocalDateTime.of(2013, 2, 8, 15, 47),
+                    LocalDateTime.of(2013, 2, 8, 16, 1)
+            };
+            long[] epochMinutes = Arrays.stream(dates).mapToLong(EpochMinutes::of).toArray();
+
+            assertEquals(calculator.getTax(vehicle, dates),
+                    calculator.getTax(vehicle, epochMinutes, 0, epochMinutes.length));
+        }
+
+        @Test
+        @DisplayName("Should only evaluate the requested range")
+        void shouldOnlyEvaluateRequestedRange() {
+            long[] epochMinutes = {
+                    EpochMinutes.of(LocalDateTime.of(2013, 2, 7, 7, 0)),  // 18 SEK, outside range
+                    EpochMinutes.of(LocalDateTime.of(2013, 2, 8, 6, 0)),  // 8 SEK
+                    EpochMinutes.of(LocalDateTime.of(2013, 2, 8, 8, 0)),  // 13 SEK
+                    EpochMinutes.of(LocalDateTime.of(2013, 2, 11, 7, 0))  // 18 SEK, outside range
+            };
+
+            assertEquals(21, calculator.getTax(vehicle, epochMinutes, 1, 3));
+            assertEquals(0, calculator.getTax(vehicle, epochMinutes, 2, 2));
+        }
+
+        @Test
+        @DisplayName("Should treat toll-free days as zero in the primitive path")
+        void shouldApplyTollFreeDaysInPrimitivePath() {
+            long[] epochMinutes = {
+                    EpochMinutes.of(LocalDateTime.of(2013, 3, 28, 7, 0)), // Day before holiday
+                    EpochMinutes.of(LocalDateTime.of(2013, 12, 31, 7, 0)) // Day before holiday
+            };
+
+            assertEquals(0, calculator.getTax(vehicle, epochMinutes, 0, epochMinutes.length));
+        }
+    }
+
+    @Nested
+    @DisplayName("Day Calculation Tests")
+    class DayCalculationTest {
+
+        private long[] epochMinutes(LocalDateTime... dates) {
+            return Arrays.stream(dates).mapToLong(EpochMinutes::of).toArray();
+        }
+
+        @Test
+        @DisplayName("Should charge each window to its highest-fee passage")
+        void shouldAttributeWindowToHighestFeePassage() {
+            long[] minutes = epochMinutes(
+                    LocalDateTime.of(2013, 2, 7, 6, 0),   // 8 SEK
+                    LocalDateTime.of(2013, 2, 7, 6, 30),  // 13 SEK
+                    LocalDateTime.of(2013, 2, 7, 7, 0),   // 18 SEK - highest within 60 min
+                    LocalDateTime.of(2013, 2, 7, 8, 15)   // 13 SEK - new window
+            );
+
+            DayCalculation day = calculator.calculateDay(rules, vehicle, minutes, 0, minutes.length);
+
+            assertEquals(31, day.dailyTax());
+            assertFalse(day.tollFreeDay());
+            assertArrayEquals(new int[]{8, 13, 18, 13}, day.individualFees());
+            assertArrayEquals(new int[]{0, 0, 18, 13}, day.effectiveFees());
+        }
+
+        @Test
+        @DisplayName("Should make effective fees add up to the capped daily tax")
+        void shouldMakeEffectiveFeesAddUpToDailyTax() {
+            LocalDateTime[] dates = {
+                    LocalDateTime.of(2013, 2, 8, 6, 20),
+                    LocalDateTime.of(2013, 2, 8, 6, 27),
+                    LocalDateTime.of(2013, 2, 8, 14, 35),
+                    LocalDateTime.of(2013, 2, 8, 15, 29),
+                    LocalDateTime.of(2013, 2, 8, 15, 47),
+                    LocalDateTime.of(2013, 2, 8, 16, 1),
+                    LocalDateTime.of(2013, 2, 8, 16, 48),
+                    LocalDateTime.of(2013, 2, 8, 17, 49),
+                    LocalDateTime.of(2013, 2, 8, 18, 29),
+                    LocalDateTime.of(2013, 2, 8, 18, 35)
+            };
+            long[] minutes = epochMinutes(dates);
+
+            DayCalculation day = calculator.calculateDay(rules, vehicle, minutes, 0, minutes.length);
+
+            assertEquals(calculator.getTax(vehicle, dates), day.dailyTax());
+            // Last window (17:49, 13 SEK) only has 3 SEK left under the 60 SEK cap
+            assertArrayEquals(new int[]{8, 0, 0, 13, 18, 0, 18, 3, 0, 0}, day.effectiveFees());
+        }
+
+        @Test
+        @DisplayName("Should stop applying the single charge rule once the daily maximum is reached")
+        void shouldStopEvaluatingOnceCapped() {
+            long[] minutes = epochMinutes(
+                    LocalDateTime.of(2013, 2, 8, 6, 30),  // 13 SEK
+                    LocalDateTime.of(2013, 2, 8, 7, 31),  // 18 SEK
+                    LocalDateTime.of(2013, 2, 8, 8, 32),  // 8 SEK
+                    LocalDateTime.of(2013, 2, 8, 15, 30), // 18 SEK
+                    LocalDateTime.of(2013, 2, 8, 16, 31), // 18 SEK, clipped to 3 SEK
+                    LocalDateTime.of(2013, 2, 8, 17, 32)  // 13 SEK, cap already reached
+            );
+
+            DayCalculation day = calculator.calculateDay(rules, vehicle, minutes, 0, minutes.length);
+
+            assertEquals(60, day.dailyTax());
+            assertArrayEquals(new int[]{13, 18, 8, 18, 3, 0}, day.effectiveFees());
+            assertArrayEquals(new int[]{13, 18, 8, 18, 18, 13}, day.individualFees());
+            assertFalse(day.isCapped(4));
+            assertTrue(day.isCapped(5));
+        }
+
+        @Test
+        @DisplayName("Should classify toll-free days without charging")
+        void shouldClassifyTollFreeDay() {
+            long[] minutes = epochMinutes(LocalDateTime.of(2013, 2, 9, 7, 30)); // Saturday
+
+            DayCalculation day = calculator.calculateDay(rules, vehicle, minutes, 0, minutes.length);
+
+            assertTrue(day.tollFreeDay());
+            assertEquals(0, day.dailyTax());
+            assertArrayEquals(new int[]{0}, day.effectiveFees());
+        }
+
+        @Test
+        @DisplayName("Should reject ranges spanning more than one day")
+        void shouldRejectMultiDayRange() {
+            long[] minutes = epochMinutes(
+                    LocalDateTime.of(2013, 2, 7, 7, 0),
+                    LocalDateTime.of(2013, 2, 8, 7, 0)
+            );
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> calculator.calculateDay(rules, vehicle, minutes, 0, minutes.length));
+        }
+    }
+
     @Nested
     @DisplayName("Integration Tests")
     class IntegrationTest {
@@ -411,9 +582,7 @@ class CongestionTaxCalculatorTest {
             LocalDateTime[] dates = {LocalDateTime.of(2013, 2, 7, 8, 0)};
             calculator.getTax(vehicle, dates);
 
-            verify(taxRulesConfig, atLeastOnce()).isTollFreeVehicle("Car");
-            verify(taxRulesConfig, atLeastOnce()).getSingleChargeIntervalMinutes();
-            verify(taxRulesConfig, atLeastOnce()).getMaxDailyTax();
+            verify(taxRulesRegistry, atLeastOnce()).index();
             verify(vehicle, atLeastOnce()).getVehicleType();
         }
     }
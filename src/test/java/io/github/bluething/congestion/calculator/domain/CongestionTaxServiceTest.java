@@ -1,5 +1,8 @@
 package io.github.bluething.congestion.calculator.domain;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -9,13 +12,18 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -31,7 +39,7 @@ class CongestionTaxServiceTest {
     private TaxCalculator taxCalculator;
 
     @Mock
-    private TaxRulesConfig taxRulesConfig;
+    private TaxRulesRegistry taxRulesRegistry;
 
     @Mock
     private ValidationService validationService;
@@ -39,16 +47,27 @@ class CongestionTaxServiceTest {
     @Mock
     private VehicleFactory vehicleFactory;
 
+    @Spy
+    private TaxMetrics taxMetrics = new TaxMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private CacheManager cacheManager = new NoOpCacheManager();
+
     @InjectMocks
     private CongestionTaxService congestionTaxService;
 
-    private Vehicle mockCar;
-    private Vehicle mockMotorcycle;
+    private final VehicleClass car = VehicleClass.CAR;
+    private final VehicleClass motorcycle = VehicleClass.MOTORCYCLE;
+    private final TaxRuleIndex index = TaxRuleIndex.compile(new TaxRulesConfig(), 7);
+    private final TaxRuleSet rules = index.rulesFor(0);
 
     @BeforeEach
     void setUp() {
-        mockCar = mock(Vehicle.class);
-        mockMotorcycle = mock(Vehicle.class);
+        lenient().when(taxRulesRegistry.index()).thenReturn(index);
+    }
+
+    private static DayCalculation day(int dailyTax, boolean tollFreeDay, int[] individualFees, int[] effectiveFees) {
+        return new DayCalculation(dailyTax, tollFreeDay, individualFees, effectiveFees, individualFees.length);
     }
 
     @Nested
@@ -64,12 +83,9 @@ class CongestionTaxServiceTest {
 
             TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car", Arrays.asList(passage1, passage2));
 
-            when(vehicleFactory.createVehicle("Car")).thenReturn(mockCar);
-            when(taxRulesConfig.isTollFreeVehicle("Car")).thenReturn(false);
-            when(taxCalculator.getTax(eq(mockCar), any(LocalDateTime[].class))).thenReturn(31);
-            when(taxCalculator.getTollFee(passage1, mockCar)).thenReturn(8);
-            when(taxCalculator.getTollFee(passage2, mockCar)).thenReturn(13);
-            when(taxCalculator.isTollFreeDate(any(LocalDateTime.class))).thenReturn(false);
+            when(vehicleFactory.createVehicle("Car")).thenReturn(car);
+            when(taxCalculator.calculateDay(eq(rules), eq(car), any(long[].class), eq(0), eq(2)))
+                    .thenReturn(day(31, false, new int[]{8, 13}, new int[]{8, 13}));
 
             // When
             TaxCalculationServiceResponse response = congestionTaxService.calculateTax(request);
@@ -81,10 +97,11 @@ class CongestionTaxServiceTest {
             assertThat(response.isTollFreeVehicle()).isFalse();
             assertThat(response.getDailySummaries()).hasSize(1);
             assertThat(response.getPassageCalculations()).hasSize(2);
+            assertThat(response.getRuleVersion()).isEqualTo(7);
 
-            verify(validationService).validateServiceRequest(request);
+            verify(validationService).validateServiceRequest(request, index);
             verify(vehicleFactory).createVehicle("Car");
-            verify(taxCalculator).getTax(eq(mockCar), any(LocalDateTime[].class));
+            verify(taxCalculator).calculateDay(eq(rules), eq(car), any(long[].class), eq(0), eq(2));
         }
 
         @Test
@@ -97,18 +114,13 @@ class CongestionTaxServiceTest {
 
             TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car", Arrays.asList(day1Passage, day2Passage1, day2Passage2));
 
-            when(vehicleFactory.createVehicle("Car")).thenReturn(mockCar);
-            when(taxRulesConfig.isTollFreeVehicle("Car")).thenReturn(false);
+            when(vehicleFactory.createVehicle("Car")).thenReturn(car);
 
             // Mock daily calculations
-            when(taxCalculator.getTax(eq(mockCar), argThat(dates -> dates.length == 1)))
-                    .thenReturn(8); // Day 1
-            when(taxCalculator.getTax(eq(mockCar), argThat(dates -> dates.length == 2)))
-                    .thenReturn(31); // Day 2
-
-            when(taxCalculator.getTollFee(any(LocalDateTime.class), eq(mockCar)))
-                    .thenReturn(8, 8, 13); // Individual fees
-            when(taxCalculator.isTollFreeDate(any(LocalDateTime.class))).thenReturn(false);
+            when(taxCalculator.calculateDay(eq(rules), eq(car), any(long[].class), eq(0), eq(1)))
+                    .thenReturn(day(8, false, new int[]{8}, new int[]{8})); // Day 1
+            when(taxCalculator.calculateDay(eq(rules), eq(car), any(long[].class), eq(1), eq(3)))
+                    .thenReturn(day(31, false, new int[]{8, 13}, new int[]{8, 13})); // Day 2
 
             // When
             TaxCalculationServiceResponse response = congestionTaxService.calculateTax(request);
@@ -125,6 +137,78 @@ class CongestionTaxServiceTest {
             assertThat(day1Summary.getDailyTax()).isEqualTo(8);
             assertThat(day1Summary.getPassageCount()).isEqualTo(1);
         }
+
+        @Test
+        @DisplayName("Should emit daily summaries in chronological order for unordered input")
+        void shouldEmitDailySummariesChronologically() {
+            // Given
+            LocalDateTime day3 = LocalDateTime.of(2013, 2, 12, 7, 0);
+            LocalDateTime day1 = LocalDateTime.of(2013, 2, 5, 7, 0);
+            LocalDateTime day2a = LocalDateTime.of(2013, 2, 7, 16, 0);
+            LocalDateTime day2b = LocalDateTime.of(2013, 2, 7, 6, 0);
+
+            TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car",
+                    Arrays.asList(day3, day2a, day1, day2b));
+
+            when(vehicleFactory.createVehicle("Car")).thenReturn(car);
+            when(taxCalculator.calculateDay(eq(rules), eq(car), any(long[].class), anyInt(), anyInt()))
+                    .thenAnswer(invocation -> {
+                        int count = invocation.<Integer>getArgument(4) - invocation.<Integer>getArgument(3);
+                        return day(18 * count, false, new int[count], new int[count]);
+                    });
+
+            // When
+            TaxCalculationServiceResponse response = congestionTaxService.calculateTax(request);
+
+            // Then
+            assertThat(response.getDailySummaries()).extracting(DailyTaxSummary::getDate)
+                    .containsExactly(LocalDate.of(2013, 2, 5), LocalDate.of(2013, 2, 7), LocalDate.of(2013, 2, 12));
+            assertThat(response.getDailySummaries()).extracting(DailyTaxSummary::getPassageCount)
+                    .containsExactly(1, 2, 1);
+            assertThat(response.getPassageCalculations()).extracting(PassageCalculation::getPassageTime)
+                    .containsExactly(day1, day2b, day2a, day3);
+            assertThat(response.getTotalTax()).isEqualTo(72);
+
+            verify(taxCalculator).calculateDay(eq(rules), eq(car), any(long[].class), eq(0), eq(1));
+            verify(taxCalculator).calculateDay(eq(rules), eq(car), any(long[].class), eq(1), eq(3));
+            verify(taxCalculator).calculateDay(eq(rules), eq(car), any(long[].class), eq(3), eq(4));
+        }
+
+        @Test
+        @DisplayName("Should apply each day's rule set when a request crosses a rule change")
+        void shouldSplitRequestAcrossRuleChange() {
+            // Given
+            RuleSetDefinition change = new RuleSetDefinition();
+            change.setEffectiveFrom(LocalDate.of(2013, 2, 8));
+            change.setMaxDailyTax(80);
+            TaxRulesConfig config = new TaxRulesConfig();
+            config.setRuleSets(List.of(change));
+            TaxRuleIndex changingIndex = TaxRuleIndex.compile(config, 2);
+            when(taxRulesRegistry.index()).thenReturn(changingIndex);
+
+            LocalDateTime before = LocalDateTime.of(2013, 2, 7, 7, 0);
+            LocalDateTime after1 = LocalDateTime.of(2013, 2, 8, 7, 0);
+            LocalDateTime after2 = LocalDateTime.of(2013, 2, 11, 7, 0);
+            TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car",
+                    Arrays.asList(after2, before, after1));
+
+            when(vehicleFactory.createVehicle("Car")).thenReturn(car);
+            when(taxCalculator.calculateDay(any(), eq(car), any(long[].class), anyInt(), anyInt()))
+                    .thenReturn(day(18, false, new int[]{18}, new int[]{18}));
+
+            // When
+            TaxCalculationServiceResponse response = congestionTaxService.calculateTax(request);
+
+            // Then
+            TaxRuleSet oldRules = changingIndex.rulesFor(LocalDate.of(2013, 2, 7).toEpochDay());
+            TaxRuleSet newRules = changingIndex.rulesFor(LocalDate.of(2013, 2, 8).toEpochDay());
+            verify(taxCalculator).calculateDay(eq(oldRules), eq(car), any(long[].class), eq(0), eq(1));
+            verify(taxCalculator).calculateDay(eq(newRules), eq(car), any(long[].class), eq(1), eq(2));
+            verify(taxCalculator).calculateDay(eq(newRules), eq(car), any(long[].class), eq(2), eq(3));
+            assertThat(newRules.getMaxDailyTax()).isEqualTo(80);
+            assertThat(response.getRuleVersion()).isEqualTo(2);
+            assertThat(response.getCity()).isEqualTo("Gothenburg");
+        }
     }
 
     @Nested
@@ -139,12 +223,10 @@ class CongestionTaxServiceTest {
             LocalDateTime passage = LocalDateTime.of(2013, 2, 8, 7, 30);
             TaxCalculationServiceRequest request = new TaxCalculationServiceRequest(vehicleType, Collections.singletonList(passage));
 
-            Vehicle mockVehicle = mock(Vehicle.class);
-            when(mockVehicle.getVehicleType()).thenReturn(vehicleType);
-            when(vehicleFactory.createVehicle(vehicleType)).thenReturn(mockVehicle);
-            when(taxRulesConfig.isTollFreeVehicle(vehicleType)).thenReturn(true);
-            when(taxCalculator.getTax(eq(mockVehicle), any(LocalDateTime[].class))).thenReturn(0);
-            when(taxCalculator.getTollFee(passage, mockVehicle)).thenReturn(0);
+            VehicleClass vehicleClass = VehicleClass.fromType(vehicleType);
+            when(vehicleFactory.createVehicle(vehicleType)).thenReturn(vehicleClass);
+            when(taxCalculator.calculateDay(eq(rules), eq(vehicleClass), any(long[].class), eq(0), eq(1)))
+                    .thenReturn(day(0, false, new int[]{0}, new int[]{0}));
 
             // When
             TaxCalculationServiceResponse response = congestionTaxService.calculateTax(request);
@@ -164,11 +246,9 @@ class CongestionTaxServiceTest {
             LocalDateTime passage2 = LocalDateTime.of(2013, 2, 8, 15, 30);
             TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Motorcycle", Arrays.asList(passage1, passage2));
 
-            when(mockMotorcycle.getVehicleType()).thenReturn("Motorcycle");
-            when(vehicleFactory.createVehicle("Motorcycle")).thenReturn(mockMotorcycle);
-            when(taxRulesConfig.isTollFreeVehicle("Motorcycle")).thenReturn(true);
-            when(taxCalculator.getTax(eq(mockMotorcycle), any(LocalDateTime[].class))).thenReturn(0);
-            when(taxCalculator.getTollFee(any(LocalDateTime.class), eq(mockMotorcycle))).thenReturn(0);
+            when(vehicleFactory.createVehicle("Motorcycle")).thenReturn(motorcycle);
+            when(taxCalculator.calculateDay(eq(rules), eq(motorcycle), any(long[].class), eq(0), eq(2)))
+                    .thenReturn(day(0, false, new int[]{0, 0}, new int[]{0, 0}));
 
             // When
             TaxCalculationServiceResponse response = congestionTaxService.calculateTax(request);
@@ -191,11 +271,9 @@ class CongestionTaxServiceTest {
             LocalDateTime weekendPassage = LocalDateTime.of(2013, 2, 9, 7, 30); // Saturday
             TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car", Collections.singletonList(weekendPassage));
 
-            when(vehicleFactory.createVehicle("Car")).thenReturn(mockCar);
-            when(taxRulesConfig.isTollFreeVehicle("Car")).thenReturn(false);
-            when(taxCalculator.getTax(eq(mockCar), any(LocalDateTime[].class))).thenReturn(0);
-            when(taxCalculator.getTollFee(weekendPassage, mockCar)).thenReturn(0);
-            when(taxCalculator.isTollFreeDate(weekendPassage)).thenReturn(true);
+            when(vehicleFactory.createVehicle("Car")).thenReturn(car);
+            when(taxCalculator.calculateDay(eq(rules), eq(car), any(long[].class), eq(0), eq(1)))
+                    .thenReturn(day(0, true, new int[]{0}, new int[]{0}));
 
             // When
             TaxCalculationServiceResponse response = congestionTaxService.calculateTax(request);
@@ -215,11 +293,9 @@ class CongestionTaxServiceTest {
             LocalDateTime julyPassage = LocalDateTime.of(2013, 7, 15, 7, 30);
             TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car", Collections.singletonList(julyPassage));
 
-            when(vehicleFactory.createVehicle("Car")).thenReturn(mockCar);
-            when(taxRulesConfig.isTollFreeVehicle("Car")).thenReturn(false);
-            when(taxCalculator.getTax(eq(mockCar), any(LocalDateTime[].class))).thenReturn(0);
-            when(taxCalculator.getTollFee(julyPassage, mockCar)).thenReturn(0);
-            when(taxCalculator.isTollFreeDate(julyPassage)).thenReturn(true);
+            when(vehicleFactory.createVehicle("Car")).thenReturn(car);
+            when(taxCalculator.calculateDay(eq(rules), eq(car), any(long[].class), eq(0), eq(1)))
+                    .thenReturn(day(0, true, new int[]{0}, new int[]{0}));
 
             // When
             TaxCalculationServiceResponse response = congestionTaxService.calculateTax(request);
@@ -240,8 +316,7 @@ class CongestionTaxServiceTest {
             // Given
             TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car", Collections.emptyList());
 
-            when(vehicleFactory.createVehicle("Car")).thenReturn(mockCar);
-            when(taxRulesConfig.isTollFreeVehicle("Car")).thenReturn(false);
+            when(vehicleFactory.createVehicle("Car")).thenReturn(car);
 
             // When
             TaxCalculationServiceResponse response = congestionTaxService.calculateTax(request);
@@ -259,11 +334,9 @@ class CongestionTaxServiceTest {
             LocalDateTime nightPassage = LocalDateTime.of(2013, 2, 8, 23, 30);
             TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car", Collections.singletonList(nightPassage));
 
-            when(vehicleFactory.createVehicle("Car")).thenReturn(mockCar);
-            when(taxRulesConfig.isTollFreeVehicle("Car")).thenReturn(false);
-            when(taxCalculator.getTax(eq(mockCar), any(LocalDateTime[].class))).thenReturn(0);
-            when(taxCalculator.getTollFee(nightPassage, mockCar)).thenReturn(0);
-            when(taxCalculator.isTollFreeDate(nightPassage)).thenReturn(false);
+            when(vehicleFactory.createVehicle("Car")).thenReturn(car);
+            when(taxCalculator.calculateDay(eq(rules), eq(car), any(long[].class), eq(0), eq(1)))
+                    .thenReturn(day(0, false, new int[]{0}, new int[]{0}));
 
             // When
             TaxCalculationServiceResponse response = congestionTaxService.calculateTax(request);
@@ -289,12 +362,10 @@ class CongestionTaxServiceTest {
 
             TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car", passages);
 
-            when(vehicleFactory.createVehicle("Car")).thenReturn(mockCar);
-            when(taxRulesConfig.isTollFreeVehicle("Car")).thenReturn(false);
-            when(taxCalculator.getTax(eq(mockCar), any(LocalDateTime[].class))).thenReturn(60); // Max cap
-            when(taxCalculator.getTollFee(any(LocalDateTime.class), eq(mockCar)))
-                    .thenReturn(13, 18, 8, 18, 13); // Individual fees
-            when(taxCalculator.isTollFreeDate(any(LocalDateTime.class))).thenReturn(false);
+            when(vehicleFactory.createVehicle("Car")).thenReturn(car);
+            when(taxCalculator.calculateDay(eq(rules), eq(car), any(long[].class), eq(0), eq(5)))
+                    .thenReturn(new DayCalculation(60, false, // Max cap
+                            new int[]{13, 18, 8, 18, 13}, new int[]{0, 18, 8, 18, 16}, 5));
 
             // When
             TaxCalculationServiceResponse response = congestionTaxService.calculateTax(request);
@@ -317,16 +388,15 @@ class CongestionTaxServiceTest {
             // Given
             TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car", Collections.singletonList(LocalDateTime.of(2013, 2, 8, 7, 30)));
 
-            when(vehicleFactory.createVehicle("Car")).thenReturn(mockCar);
-            when(taxRulesConfig.isTollFreeVehicle("Car")).thenReturn(false);
-            when(taxCalculator.getTax(any(), any())).thenReturn(18);
-            when(taxCalculator.getTollFee(any(), any())).thenReturn(18);
+            when(vehicleFactory.createVehicle("Car")).thenReturn(car);
+            when(taxCalculator.calculateDay(any(), any(), any(), anyInt(), anyInt()))
+                    .thenReturn(day(18, false, new int[]{18}, new int[]{18}));
 
             // When
             congestionTaxService.calculateTax(request);
 
             // Then
-            verify(validationService).validateServiceRequest(request);
+            verify(validationService).validateServiceRequest(request, index);
         }
 
         @Test
@@ -336,7 +406,7 @@ class CongestionTaxServiceTest {
             TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car", Collections.singletonList(LocalDateTime.of(2013, 2, 8, 7, 30)));
 
             RuntimeException validationException = new IllegalArgumentException("Invalid request");
-            doThrow(validationException).when(validationService).validateServiceRequest(request);
+            doThrow(validationException).when(validationService).validateServiceRequest(request, index);
 
             // When & Then
             assertThatThrownBy(() -> congestionTaxService.calculateTax(request))
@@ -355,11 +425,9 @@ class CongestionTaxServiceTest {
             LocalDateTime highTollPassage = LocalDateTime.of(2013, 2, 8, 7, 30); // 18 SEK time
             TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car", Collections.singletonList(highTollPassage));
 
-            when(vehicleFactory.createVehicle("Car")).thenReturn(mockCar);
-            when(taxRulesConfig.isTollFreeVehicle("Car")).thenReturn(false);
-            when(taxCalculator.getTax(eq(mockCar), any(LocalDateTime[].class))).thenReturn(18);
-            when(taxCalculator.getTollFee(highTollPassage, mockCar)).thenReturn(18);
-            when(taxCalculator.isTollFreeDate(highTollPassage)).thenReturn(false);
+            when(vehicleFactory.createVehicle("Car")).thenReturn(car);
+            when(taxCalculator.calculateDay(eq(rules), eq(car), any(long[].class), eq(0), eq(1)))
+                    .thenReturn(day(18, false, new int[]{18}, new int[]{18}));
 
             // When
             TaxCalculationServiceResponse response = congestionTaxService.calculateTax(request);
@@ -374,6 +442,101 @@ class CongestionTaxServiceTest {
             assertThat(calc.isIncludedInTotal()).isTrue();
             assertThat(calc.getReason()).isEqualTo("Regular toll period - 18 SEK");
         }
+
+        @Test
+        @DisplayName("Should report effective fees after the single charge rule and daily maximum")
+        void shouldReportEffectiveFees() {
+            // Given - passages deliberately out of order
+            LocalDateTime covered = LocalDateTime.of(2013, 2, 8, 6, 0);
+            LocalDateTime charged = LocalDateTime.of(2013, 2, 8, 6, 45);
+            LocalDateTime clipped = LocalDateTime.of(2013, 2, 8, 16, 0);
+            LocalDateTime afterCap = LocalDateTime.of(2013, 2, 8, 17, 30);
+            TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car",
+                    Arrays.asList(afterCap, charged, clipped, covered));
+
+            when(vehicleFactory.createVehicle("Car")).thenReturn(car);
+            when(taxCalculator.calculateDay(eq(rules), eq(car), any(long[].class), eq(0), eq(4)))
+                    .thenReturn(new DayCalculation(20, false,
+                            new int[]{8, 13, 18, 13}, new int[]{0, 13, 7, 0}, 3));
+
+            // When
+            TaxCalculationServiceResponse response = congestionTaxService.calculateTax(request);
+
+            // Then - breakdown is chronological and effective fees add up to the daily tax
+            List<PassageCalculation> calcs = response.getPassageCalculations();
+            assertThat(calcs).extracting(PassageCalculation::getPassageTime)
+                    .containsExactly(covered, charged, clipped, afterCap);
+            assertThat(calcs).extracting(PassageCalculation::getEffectiveFee).containsExactly(0, 13, 7, 0);
+            assertThat(calcs).extracting(PassageCalculation::isIncludedInTotal)
+                    .containsExactly(false, true, true, false);
+            assertThat(calcs.get(0).getReason()).isEqualTo("Covered by a higher fee within the single charge interval");
+            assertThat(calcs.get(2).getReason()).isEqualTo("Regular toll period - 18 SEK, reduced to 7 SEK by daily maximum");
+            assertThat(calcs.get(3).getReason()).isEqualTo("Daily maximum already reached");
+            assertThat(response.getTotalTax()).isEqualTo(20);
+        }
+    }
+
+    @Nested
+    @DisplayName("Response Detail Tests")
+    class ResponseDetailTests {
+        private final List<LocalDateTime> passages = Arrays.asList(
+                LocalDateTime.of(2013, 2, 8, 15, 30), LocalDateTime.of(2013, 2, 8, 6, 0));
+
+        @BeforeEach
+        void setUp() {
+            when(vehicleFactory.createVehicle("Car")).thenReturn(car);
+            when(taxCalculator.calculateDay(eq(rules), eq(car), any(long[].class), eq(0), eq(2)))
+                    .thenReturn(day(18, false, new int[]{8, 18}, new int[]{0, 18}));
+        }
+
+        @Test
+        @DisplayName("Should build neither passages nor summaries at detail none")
+        void shouldSkipDetailsAtNone() {
+            TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car", passages);
+            request.setDetail(ResponseDetail.NONE);
+
+            TaxCalculationServiceResponse response = congestionTaxService.calculateTax(request);
+
+            assertThat(response.getTotalTax()).isEqualTo(18);
+            assertThat(response.getDayCount()).isEqualTo(1);
+            assertThat(response.getDetail()).isEqualTo(ResponseDetail.NONE);
+            assertThat(response.getPassageCalculations()).isEmpty();
+            assertThat(response.getDailySummaries()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should give reason codes without text at detail full")
+        void shouldUseReasonCodesAtFull() {
+            TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car", passages);
+            request.setDetail(ResponseDetail.FULL);
+
+            TaxCalculationServiceResponse response = congestionTaxService.calculateTax(request);
+
+            assertThat(response.getPassageCalculations()).extracting(PassageCalculation::getReasonCode)
+                    .containsExactly(ReasonCode.SINGLE_CHARGE_COVERED, ReasonCode.REGULAR_TOLL);
+            assertThat(response.getPassageCalculations()).extracting(PassageCalculation::getReason)
+                    .containsOnlyNulls();
+            assertThat(response.getDailySummaries()).extracting(DailyTaxSummary::getReasonCode)
+                    .containsExactly(ReasonCode.REGULAR_DAY);
+        }
+
+        @Test
+        @DisplayName("Should cache each detail level separately")
+        void shouldCacheDetailLevelsSeparately() {
+            CongestionTaxService cachingService = new CongestionTaxService(taxCalculator, taxRulesRegistry,
+                    validationService, vehicleFactory, taxMetrics,
+                    new CaffeineCacheManager(CongestionTaxService.RESULT_CACHE));
+            TaxCalculationServiceRequest summary = new TaxCalculationServiceRequest("Car", passages);
+            summary.setDetail(ResponseDetail.DAILY);
+
+            TaxCalculationServiceResponse daily = cachingService.calculateTax(summary);
+            TaxCalculationServiceResponse verbose = cachingService.calculateTax(
+                    new TaxCalculationServiceRequest("Car", passages));
+
+            assertThat(daily.getPassageCalculations()).isEmpty();
+            assertThat(verbose.getPassageCalculations()).hasSize(2);
+            assertThat(verbose.getPassageCalculations().get(1).getReason()).isEqualTo("Regular toll period - 18 SEK");
+        }
     }
 
     @Nested
@@ -388,11 +551,9 @@ class CongestionTaxServiceTest {
             LocalDateTime passage2 = LocalDateTime.of(2013, 2, 8, 15, 30);
             TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car", Arrays.asList(passage1, passage2));
 
-            when(vehicleFactory.createVehicle("Car")).thenReturn(mockCar);
-            when(taxRulesConfig.isTollFreeVehicle("Car")).thenReturn(false);
-            when(taxCalculator.getTax(eq(mockCar), any(LocalDateTime[].class))).thenReturn(31);
-            when(taxCalculator.getTollFee(any(LocalDateTime.class), eq(mockCar))).thenReturn(13, 18);
-            when(taxCalculator.isTollFreeDate(any(LocalDateTime.class))).thenReturn(false);
+            when(vehicleFactory.createVehicle("Car")).thenReturn(car);
+            when(taxCalculator.calculateDay(eq(rules), eq(car), any(long[].class), eq(0), eq(2)))
+                    .thenReturn(day(31, false, new int[]{13, 18}, new int[]{13, 18}));
 
             // When
             TaxCalculationServiceResponse response = congestionTaxService.calculateTax(request);
@@ -407,4 +568,150 @@ class CongestionTaxServiceTest {
             assertThat(summary.getDate()).isEqualTo(LocalDate.of(2013, 2, 8));
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Result Cache Tests")
+    class ResultCacheTests {
+
+        private CongestionTaxService cachingService;
+
+        @BeforeEach
+        void setUp() {
+            cachingService = new CongestionTaxService(taxCalculator, taxRulesRegistry, validationService,
+                    vehicleFactory, taxMetrics, new CaffeineCacheManager(CongestionTaxService.RESULT_CACHE));
+            when(vehicleFactory.createVehicle("Car")).thenReturn(car);
+            when(taxCalculator.calculateDay(eq(rules), eq(car), any(long[].class), eq(0), eq(2)))
+                    .thenReturn(day(31, false, new int[]{13, 18}, new int[]{13, 18}));
+        }
+
+        @Test
+        @DisplayName("Should serve the same passages in any order from the cache")
+        void shouldServeReorderedPassagesFromCache() {
+            LocalDateTime morning = LocalDateTime.of(2013, 2, 8, 6, 30);
+            LocalDateTime afternoon = LocalDateTime.of(2013, 2, 8, 15, 30);
+
+            TaxCalculationServiceResponse first = cachingService.calculateTax(
+                    new TaxCalculationServiceRequest("Car", Arrays.asList(morning, afternoon)));
+            TaxCalculationServiceResponse second = cachingService.calculateTax(
+                    new TaxCalculationServiceRequest("Car", Arrays.asList(afternoon, morning)));
+
+            assertThat(second).isSameAs(first);
+            assertThat(second.getTotalTax()).isEqualTo(31);
+            verify(taxCalculator, times(1)).calculateDay(any(), any(), any(long[].class), anyInt(), anyInt());
+            // Validation still runs for every request
+            verify(validationService, times(2)).validateServiceRequest(any(), eq(index));
+        }
+
+        @Test
+        @DisplayName("Should recalculate once the rule version changes")
+        void shouldRecalculateForNewRuleVersion() {
+            TaxRuleIndex reloaded = TaxRuleIndex.compile(new TaxRulesConfig(), 8);
+            TaxRuleSet reloadedRules = reloaded.rulesFor(0);
+            when(taxCalculator.calculateDay(eq(reloadedRules), eq(car), any(long[].class), eq(0), eq(2)))
+                    .thenReturn(day(26, false, new int[]{13, 13}, new int[]{13, 13}));
+            List<LocalDateTime> passages = Arrays.asList(
+                    LocalDateTime.of(2013, 2, 8, 6, 30), LocalDateTime.of(2013, 2, 8, 15, 30));
+
+            TaxCalculationServiceResponse before = cachingService.calculateTax(
+                    new TaxCalculationServiceRequest("Car", passages));
+            when(taxRulesRegistry.index()).thenReturn(reloaded);
+            TaxCalculationServiceResponse after = cachingService.calculateTax(
+                    new TaxCalculationServiceRequest("Car", passages));
+
+            assertThat(before.getRuleVersion()).isEqualTo(7);
+            assertThat(after.getRuleVersion()).isEqualTo(8);
+            assertThat(after.getTotalTax()).isEqualTo(26);
+        }
+
+        @Test
+        @DisplayName("Should weigh results by passage count even when no passage details are built")
+        void shouldWeighByPassagesAtDetailNone() {
+            Cache<Object, Object> results = Caffeine.newBuilder()
+                    .maximumWeight(30)
+                    .weigher(TaxResultKey::weigh)
+                    .executor(Runnable::run)
+                    .build();
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+            cacheManager.registerCustomCache(CongestionTaxService.RESULT_CACHE, results);
+            CongestionTaxService weighingService = new CongestionTaxService(taxCalculator, taxRulesRegistry,
+                    validationService, vehicleFactory, taxMetrics, cacheManager);
+
+            for (int minute = 0; minute < 20; minute++) {
+                TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car", Arrays.asList(
+                        LocalDateTime.of(2013, 2, 8, 6, minute), LocalDateTime.of(2013, 2, 8, 15, 30)));
+                request.setDetail(ResponseDetail.NONE);
+                weighingService.calculateTax(request);
+            }
+            results.cleanUp();
+
+            // Two passages weigh 3, so at most 10 of the 20 results fit
+            assertThat(results.policy().eviction().orElseThrow().weightedSize().getAsLong()).isLessThanOrEqualTo(30);
+            assertThat(results.estimatedSize()).isLessThanOrEqualTo(10);
+        }
+    }
+
+    @Nested
+    @DisplayName("Active Rules Tests")
+    class ActiveRulesTests {
+
+        @Test
+        @DisplayName("Should serve the schedule of the rule set in effect, cached per rule set")
+        void shouldFollowActiveRuleSet() {
+            RuleSetDefinition raised = new RuleSetDefinition();
+            raised.setEffectiveFrom(LocalDate.of(2014, 1, 1));
+            raised.setMaxDailyTax(75);
+            TaxRulesConfig config = new TaxRulesConfig();
+            config.setRuleSets(List.of(raised));
+            TaxRuleIndex dated = TaxRuleIndex.compile(config, 7);
+            TaxRuleSet before = dated.rulesFor(LocalDate.of(2013, 12, 31).toEpochDay());
+            TaxRuleSet after = dated.rulesFor(LocalDate.of(2014, 1, 1).toEpochDay());
+            CongestionTaxService cachingService = new CongestionTaxService(taxCalculator, taxRulesRegistry,
+                    validationService, vehicleFactory, taxMetrics,
+                    new CaffeineCacheManager(CongestionTaxService.TOLL_SCHEDULE_CACHE));
+
+            when(taxRulesRegistry.current()).thenReturn(before);
+            Map<String, Object> first = cachingService.getTollSchedule();
+            assertThat(cachingService.getTollSchedule()).isSameAs(first);
+            // The effective-from date passes without a reload
+            when(taxRulesRegistry.current()).thenReturn(after);
+            Map<String, Object> second = cachingService.getTollSchedule();
+
+            assertThat(first.get("maxDailyAmount")).isEqualTo(60);
+            assertThat(second.get("maxDailyAmount")).isEqualTo(75);
+            assertThat(second.get("effectiveFrom")).isEqualTo(LocalDate.of(2014, 1, 1));
+        }
+    }
+
+    @Nested
+    @DisplayName("Day Pattern Cache Tests")
+    class DayPatternCacheTests {
+
+        @Test
+        @DisplayName("Should sweep a repeated weekday pattern only once")
+        void shouldSweepRepeatedPatternOnce() {
+            CongestionTaxService memoizingService = new CongestionTaxService(taxCalculator, taxRulesRegistry,
+                    validationService, vehicleFactory, taxMetrics,
+                    new CaffeineCacheManager(CongestionTaxService.DAY_PATTERN_CACHE));
+            when(vehicleFactory.createVehicle("Car")).thenReturn(car);
+            when(taxCalculator.calculateDay(eq(rules), eq(car), any(long[].class), anyInt(), anyInt()))
+                    .thenReturn(day(31, false, new int[]{13, 18}, new int[]{13, 18}));
+
+            // Thursday and Friday with the same commute, then a Saturday that is toll-free
+            TaxCalculationServiceRequest request = new TaxCalculationServiceRequest("Car", Arrays.asList(
+                    LocalDateTime.of(2013, 2, 7, 6, 30), LocalDateTime.of(2013, 2, 7, 15, 30),
+                    LocalDateTime.of(2013, 2, 8, 6, 30, 45), LocalDateTime.of(2013, 2, 8, 15, 30),
+                    LocalDateTime.of(2013, 2, 9, 6, 30)));
+            when(taxCalculator.calculateDay(eq(rules), eq(car), any(long[].class), eq(4), eq(5)))
+                    .thenReturn(day(0, true, new int[]{13}, new int[]{0}));
+
+            TaxCalculationServiceResponse response = memoizingService.calculateTax(request);
+
+            assertThat(response.getTotalTax()).isEqualTo(62);
+            assertThat(response.getDailySummaries()).extracting(DailyTaxSummary::getDailyTax)
+                    .containsExactly(31, 31, 0);
+            verify(taxCalculator).calculateDay(eq(rules), eq(car), any(long[].class), eq(0), eq(2));
+            verify(taxCalculator, never()).calculateDay(eq(rules), eq(car), any(long[].class), eq(2), eq(4));
+            verify(taxCalculator).calculateDay(eq(rules), eq(car), any(long[].class), eq(4), eq(5));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("DailyTaxAccumulator Tests")
+class DailyTaxAccumulatorTest {
+
+    private final CongestionTaxCalculator calculator = new CongestionTaxCalculator(
+            new TaxRulesRegistry(new TaxRulesConfig(), mock(ApplicationEventPublisher.class)));
+
+    private static final long THURSDAY = LocalDate.of(2013, 2, 7).toEpochDay();
+
+    @Test
+    @DisplayName("Should expose the running daily tax after every passage")
+    void shouldExposeRunningTax() {
+        DailyTaxAccumulator accumulator = calculator.startDay(VehicleClass.CAR, THURSDAY);
+
+        accumulator.add(LocalDateTime.of(2013, 2, 7, 6, 23)); // 8
+        assertThat(accumulator.dailyTax()).isEqualTo(8);
+        accumulator.add(LocalDateTime.of(2013, 2, 7, 6, 59)); // 13 replaces 8 in the same window
+        assertThat(accumulator.dailyTax()).isEqualTo(13);
+        accumulator.add(LocalDateTime.of(2013, 2, 7, 15, 29)); // new window, 13
+        assertThat(accumulator.dailyTax()).isEqualTo(26);
+        assertThat(accumulator.passageCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should match getTax on random days, prefix by prefix")
+    void shouldMatchGetTax() {
+        Random random = new Random(42);
+        for (int run = 0; run < 500; run++) {
+            long epochDay = THURSDAY + random.nextInt(400);
+            long[] minutes = new long[1 + random.nextInt(30)];
+            for (int i = 0; i < minutes.length; i++) {
+                minutes[i] = epochDay * EpochMinutes.MINUTES_PER_DAY + random.nextInt(EpochMinutes.MINUTES_PER_DAY);
+            }
+            Arrays.sort(minutes);
+            VehicleClass vehicle = random.nextInt(10) == 0 ? VehicleClass.MOTORCYCLE : VehicleClass.CAR;
+
+            DailyTaxAccumulator accumulator = calculator.startDay(vehicle, epochDay);
+            for (int i = 0; i < minutes.length; i++) {
+                accumulator.add(minutes[i]);
+                assertThat(accumulator.dailyTax())
+                        .as("run %d, prefix %d", run, i + 1)
+                        .isEqualTo(calculator.getTax(vehicle, minutes, 0, i + 1));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject passages out of order or from another day")
+    void shouldRejectInvalidPassages() {
+        DailyTaxAccumulator accumulator = calculator.startDay(VehicleClass.CAR, THURSDAY);
+        accumulator.add(LocalDateTime.of(2013, 2, 7, 8, 0));
+
+        assertThatThrownBy(() -> accumulator.add(LocalDateTime.of(2013, 2, 7, 7, 0)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> accumulator.add(LocalDateTime.of(2013, 2, 8, 9, 0)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(accumulator.passageCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("FeeSchedule Tests")
+class FeeScheduleTest {
+
+    @Test
+    @DisplayName("Should compile slots into per-minute fees, including slots wrapping midnight")
+    void shouldCompileSlotsIntoPerMinuteFees() {
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        slots.put("06:00-17:59", 10);
+        slots.put("18:00-05:59", 0);
+
+        FeeSchedule schedule = FeeSchedule.compile(slots);
+
+        assertThat(schedule.feeAt(6 * 60)).isEqualTo(10);
+        assertThat(schedule.feeAt(17 * 60 + 59)).isEqualTo(10);
+        assertThat(schedule.feeAt(18 * 60)).isZero();
+        assertThat(schedule.feeAt(0)).isZero();
+        assertThat(schedule.feeAt(5 * 60 + 59)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject overlapping slots")
+    void shouldRejectOverlappingSlots() {
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        slots.put("06:00-12:00", 8);
+        slots.put("12:00-05:59", 13);
+
+        assertThatThrownBy(() -> FeeSchedule.compile(slots))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("overlaps")
+                .hasMessageContaining("12:00");
+    }
+
+    @Test
+    @DisplayName("Should reject slots that leave minutes uncovered")
+    void shouldRejectGaps() {
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        slots.put("06:00-11:59", 8);
+        slots.put("12:30-05:59", 13);
+
+        assertThatThrownBy(() -> FeeSchedule.compile(slots))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("12:00-12:29");
+    }
+
+    @Test
+    @DisplayName("Should reject malformed slot ranges")
+    void shouldRejectMalformedRanges() {
+        assertThatThrownBy(() -> FeeSchedule.compile(Map.of("0600-0629", 8)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("HH:mm-HH:mm");
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("ReorderingTaxStream Tests")
+class ReorderingTaxStreamTest {
+
+    private final CongestionTaxCalculator calculator = new CongestionTaxCalculator(
+            new TaxRulesRegistry(new TaxRulesConfig(), mock(ApplicationEventPublisher.class)));
+
+    private final List<FinalizedDay> results = new ArrayList<>();
+    private final List<LatePassage> corrections = new ArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ReorderingTaxStream open(Duration lateness, int capacity) {
+        return new ReorderingTaxStream(calculator, lateness, capacity, results::add, corrections::add,
+                new TaxMetrics(registry));
+    }
+
+    @Test
+    @DisplayName("Should match getTax per day when passages arrive shuffled within the lateness")
+    void shouldMatchGetTaxForBoundedDisorder() {
+        Random random = new Random(7);
+        long start = EpochMinutes.of(LocalDateTime.of(2013, 2, 4, 0, 0));
+        long[] ordered = new long[2_000];
+        long minute = start;
+        for (int i = 0; i < ordered.length; i++) {
+            minute += random.nextInt(120);
+            ordered[i] = minute;
+        }
+
+        // Disorder: each passage is delayed by up to 5 minutes of event time
+        long[] delayed = new long[ordered.length];
+        for (int i = 0; i < ordered.length; i++) {
+            delayed[i] = (ordered[i] + random.nextInt(6)) * ordered.length + i;
+        }
+        Arrays.sort(delayed);
+        long[] arrival = new long[ordered.length];
+        for (int i = 0; i < delayed.length; i++) {
+            arrival[i] = ordered[(int) (delayed[i] % ordered.length)];
+        }
+
+        try (ReorderingTaxStream stream = open(Duration.ofMinutes(5), 64)) {
+            for (long passage : arrival) {
+                stream.accept("ABC123", VehicleClass.CAR, passage);
+            }
+        }
+
+        Map<Long, int[]> dayRanges = new HashMap<>();
+        for (int i = 0; i < ordered.length; i++) {
+            long day = EpochMinutes.epochDay(ordered[i]);
+            int index = i;
+            dayRanges.compute(day, (d, range) -> range == null ? new int[]{index, index + 1} : new int[]{range[0], index + 1});
+        }
+
+        assertThat(corrections).isEmpty();
+        assertThat(results).hasSize(dayRanges.size());
+        for (FinalizedDay day : results) {
+            int[] range = dayRanges.get(day.date().toEpochDay());
+            assertThat(day.dailyTax()).as(day.date().toString())
+                    .isEqualTo(calculator.getTax(VehicleClass.CAR, ordered, range[0], range[1]));
+            assertThat(day.passageCount()).isEqualTo(range[1] - range[0]);
+        }
+    }
+
+    @Test
+    @DisplayName("Should finalize a day once the watermark passes its end")
+    void shouldFinalizeDayAtWatermark() {
+        ReorderingTaxStream stream = open(Duration.ofMinutes(5), 64);
+
+        stream.accept("ABC123", VehicleClass.CAR, LocalDateTime.of(2013, 2, 7, 7, 0));
+        stream.accept("ABC123", VehicleClass.CAR, LocalDateTime.of(2013, 2, 7, 16, 0));
+        assertThat(results).isEmpty();
+
+        stream.advanceTo(LocalDateTime.of(2013, 2, 8, 0, 5));
+
+        assertThat(results).containsExactly(new FinalizedDay("ABC123", VehicleClass.CAR,
+                LocalDate.of(2013, 2, 7), 36, 2, 1));
+        assertThat(stream.stats().openVehicles()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should finalize an idle vehicle's day when another vehicle moves the watermark past it")
+    void shouldFinalizeIdleVehicleOnNewDay() {
+        ReorderingTaxStream stream = open(Duration.ofMinutes(5), 64);
+
+        stream.accept("IDLE01", VehicleClass.CAR, LocalDateTime.of(2013, 2, 7, 7, 0));
+        stream.accept("BUSY01", VehicleClass.CAR, LocalDateTime.of(2013, 2, 7, 16, 0));
+        stream.accept("BUSY01", VehicleClass.CAR, LocalDateTime.of(2013, 2, 8, 0, 2));
+        assertThat(results).isEmpty();
+
+        stream.accept("BUSY01", VehicleClass.CAR, LocalDateTime.of(2013, 2, 8, 6, 0));
+
+        assertThat(results).extracting(FinalizedDay::vehicleId).containsExactlyInAnyOrder("IDLE01", "BUSY01");
+        assertThat(results).extracting(FinalizedDay::date).containsOnly(LocalDate.of(2013, 2, 7));
+        assertThat(stream.stats().openVehicles()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should route passages behind the watermark to corrections")
+    void shouldRouteLatePassages() {
+        ReorderingTaxStream stream = open(Duration.ofMinutes(5), 64);
+
+        stream.accept("ABC123", VehicleClass.CAR, LocalDateTime.of(2013, 2, 7, 8, 0));
+        stream.accept("XYZ789", VehicleClass.CAR, LocalDateTime.of(2013, 2, 7, 7, 56));
+        stream.accept("XYZ789", VehicleClass.CAR, LocalDateTime.of(2013, 2, 7, 7, 50));
+
+        assertThat(corrections).containsExactly(new LatePassage("XYZ789", VehicleClass.CAR,
+                LocalDateTime.of(2013, 2, 7, 7, 50), LocalDateTime.of(2013, 2, 7, 7, 55)));
+        assertThat(stream.stats().late()).isEqualTo(1);
+        assertThat(registry.get(TaxMetrics.STREAM_LATE_PASSAGES).counter().count()).isEqualTo(1);
+        assertThat(stream.stats().accepted()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep each vehicle's buffer within its capacity")
+    void shouldBoundBuffer() {
+        ReorderingTaxStream stream = open(Duration.ofHours(2), 4);
+
+        for (int minute = 0; minute < 10; minute++) {
+            stream.accept("ABC123", VehicleClass.CAR, LocalDateTime.of(2013, 2, 7, 6, minute));
+        }
+
+        assertThat(stream.stats().pendingPassages()).isEqualTo(4);
+        assertThat(stream.stats().overflowed()).isEqualTo(6);
+        assertThat(registry.get(TaxMetrics.STREAM_BUFFER_OVERFLOWS).counter().count()).isEqualTo(6);
+        stream.close();
+        assertThat(results).extracting(FinalizedDay::dailyTax).containsExactly(8);
+    }
+}
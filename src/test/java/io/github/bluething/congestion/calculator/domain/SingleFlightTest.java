@@ -0,0 +1,98 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SingleFlight Tests")
+class SingleFlightTest {
+    private static final int WAITERS = 50;
+
+    @Test
+    @DisplayName("Should run one computation for concurrent callers with the same key")
+    void shouldShareOneComputation() throws Exception {
+        CountDownLatch joined = new CountDownLatch(WAITERS);
+        SingleFlight<String, Object> flight = new SingleFlight<>(joined::countDown);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+        Object result = new Object();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Object> leader = executor.submit(() -> flight.execute("key", () -> {
+                computations.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return result;
+            }));
+            assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            List<Future<Object>> waiters = new ArrayList<>();
+            for (int i = 0; i < WAITERS; i++) {
+                waiters.add(executor.submit(() -> flight.execute("key", () -> {
+                    computations.incrementAndGet();
+                    return new Object();
+                })));
+            }
+            assertThat(joined.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+
+            assertThat(leader.get()).isSameAs(result);
+            for (Future<Object> waiter : waiters) {
+                assertThat(waiter.get()).isSameAs(result);
+            }
+        }
+        assertThat(computations).hasValue(1);
+        assertThat(flight.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should share a failure with the waiters and keep nothing afterwards")
+    void shouldShareFailureAndForgetIt() throws Exception {
+        CountDownLatch joined = new CountDownLatch(1);
+        SingleFlight<String, String> flight = new SingleFlight<>(joined::countDown);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("boom");
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+                await(release);
+                throw failure;
+            }));
+            Future<String> waiter = executor.submit(() -> {
+                while (flight.inFlight() == 0) {
+                    Thread.onSpinWait();
+                }
+                return flight.execute("key", () -> "not run");
+            });
+            assertThat(joined.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+
+            assertThatThrownBy(leader::get).hasCause(failure);
+            assertThatThrownBy(waiter::get).hasCause(failure);
+        }
+
+        assertThat(flight.inFlight()).isZero();
+        assertThat(flight.execute("key", () -> "fresh")).isEqualTo("fresh");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
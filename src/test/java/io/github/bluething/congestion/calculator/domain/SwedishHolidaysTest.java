@@ -0,0 +1,61 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SwedishHolidays Tests")
+class SwedishHolidaysTest {
+
+    @ParameterizedTest
+    @CsvSource({"2000, 2000-04-23", "2013, 2013-03-31", "2019, 2019-04-21", "2024, 2024-03-31",
+            "2025, 2025-04-20", "2038, 2038-04-25"})
+    @DisplayName("Should compute Easter Sunday")
+    void shouldComputeEasterSunday(int year, LocalDate easter) {
+        assertThat(SwedishHolidays.easterSunday(year)).isEqualTo(easter);
+    }
+
+    @Test
+    @DisplayName("Should compute the 2024 public holidays")
+    void shouldComputePublicHolidays() {
+        assertThat(SwedishHolidays.publicHolidays(2024)).containsExactly(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 6), LocalDate.of(2024, 3, 29),
+                LocalDate.of(2024, 3, 31), LocalDate.of(2024, 4, 1), LocalDate.of(2024, 5, 1),
+                LocalDate.of(2024, 5, 9), LocalDate.of(2024, 5, 19), LocalDate.of(2024, 6, 6),
+                LocalDate.of(2024, 6, 22), LocalDate.of(2024, 11, 2), LocalDate.of(2024, 12, 25),
+                LocalDate.of(2024, 12, 26));
+    }
+
+    @Test
+    @DisplayName("Should reproduce the hand-maintained 2013 toll-free weekdays")
+    void shouldReproduce2013List() {
+        TollFreeCalendar generated = new TollFreeCalendar(List.of(), HolidayCalendar.SWEDEN, Map.of(), Map.of());
+
+        List<String> tollFreeWeekdays = new ArrayList<>();
+        for (LocalDate date = LocalDate.of(2013, 1, 1); date.getYear() == 2013; date = date.plusDays(1)) {
+            boolean weekend = date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+            if (!weekend && generated.isTollFree(date)) {
+                tollFreeWeekdays.add(date.toString().substring(5));
+            }
+        }
+
+        assertThat(tollFreeWeekdays).containsExactly(
+                "01-01", "03-28", "03-29", "04-01", "04-30", "05-01", "05-08", "05-09",
+                "06-05", "06-06", "06-21", "11-01", "12-24", "12-25", "12-26", "12-31");
+    }
+
+    @Test
+    @DisplayName("Should memoize each year's bitmap")
+    void shouldMemoizePerYear() {
+        assertThat(SwedishHolidays.tollFreeDays(2030)).isSameAs(SwedishHolidays.tollFreeDays(2030));
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import io.github.bluething.congestion.calculator.exception.NoTaxRulesException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TaxRuleIndex Tests")
+class TaxRuleIndexTest {
+
+    private TaxRulesConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new TaxRulesConfig();
+        config.setHolidayCalendar(HolidayCalendar.NONE);
+        config.setHolidays(Map.of("2013", List.of("01-01")));
+    }
+
+    private static RuleSetDefinition ruleSet(String city, LocalDate effectiveFrom, Integer maxDailyTax) {
+        RuleSetDefinition definition = new RuleSetDefinition();
+        definition.setCity(city);
+        definition.setEffectiveFrom(effectiveFrom);
+        definition.setMaxDailyTax(maxDailyTax);
+        return definition;
+    }
+
+    private static long day(int year, int month, int dayOfMonth) {
+        return LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+
+    @Test
+    @DisplayName("Should pick the rule set in effect on the day, with unset fields inherited")
+    void shouldPickRuleSetInEffect() {
+        RuleSetDefinition midYear = ruleSet(null, LocalDate.of(2014, 7, 1), 75);
+        midYear.setHolidays(Map.of("2014", List.of("01-01")));
+        config.setRuleSets(List.of(midYear, ruleSet(null, LocalDate.of(2015, 1, 1), null)));
+
+        TaxRuleIndex index = TaxRuleIndex.compile(config, 3);
+
+        assertThat(index.rulesFor(day(2013, 5, 1)).getMaxDailyTax()).isEqualTo(60);
+        assertThat(index.rulesFor(day(2014, 6, 30)).getMaxDailyTax()).isEqualTo(60);
+        TaxRuleSet july = index.rulesFor(day(2014, 7, 1));
+        assertThat(july.getMaxDailyTax()).isEqualTo(75);
+        assertThat(july.getEffectiveUntil()).isEqualTo(LocalDate.of(2015, 1, 1));
+        assertThat(july.hasHolidaysFor(2013)).isTrue();
+        assertThat(july.hasHolidaysFor(2014)).isTrue();
+        assertThat(july.appliesTo(day(2014, 12, 31))).isTrue();
+        assertThat(july.appliesTo(day(2015, 1, 1))).isFalse();
+        assertThat(index.rulesFor(day(2020, 1, 1)).getMaxDailyTax()).isEqualTo(75);
+        assertThat(index.rulesFor(day(2020, 1, 1)).getVersion()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should keep cities apart and match them case-insensitively")
+    void shouldKeepCitiesApart() {
+        config.setRuleSets(List.of(ruleSet("Stockholm", null, 105)));
+
+        TaxRuleIndex index = TaxRuleIndex.compile(config, 1);
+
+        assertThat(index.getCities()).containsExactly("Gothenburg", "Stockholm");
+        assertThat(index.resolveCity(null)).isEqualTo("Gothenburg");
+        assertThat(index.resolveCity("stockholm")).isEqualTo("Stockholm");
+        assertThat(index.rulesFor("STOCKHOLM", day(2013, 2, 7)).getMaxDailyTax()).isEqualTo(105);
+        assertThat(index.rulesFor("Gothenburg", day(2013, 2, 7)).getMaxDailyTax()).isEqualTo(60);
+    }
+
+    @Test
+    @DisplayName("Should reject unknown cities and days before a city's first rule set")
+    void shouldRejectMissingRules() {
+        config.setRuleSets(List.of(ruleSet("Stockholm", LocalDate.of(2016, 1, 1), 105)));
+
+        TaxRuleIndex index = TaxRuleIndex.compile(config, 1);
+
+        assertThatThrownBy(() -> index.resolveCity("Malmo"))
+                .isInstanceOf(NoTaxRulesException.class)
+                .hasMessageContaining("Malmo");
+        assertThatThrownBy(() -> index.rulesFor("Stockholm", day(2015, 12, 31)))
+                .isInstanceOf(NoTaxRulesException.class)
+                .hasMessageContaining("before 2016-01-01");
+    }
+
+    @Test
+    @DisplayName("Should reject two rule sets for the same city and date")
+    void shouldRejectDuplicateRuleSets() {
+        config.setRuleSets(List.of(
+                ruleSet(null, LocalDate.of(2014, 1, 1), 70),
+                ruleSet("gothenburg", LocalDate.of(2014, 1, 1), 80)));
+
+        assertThatThrownBy(() -> TaxRuleIndex.compile(config, 1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Duplicate rule set");
+    }
+}
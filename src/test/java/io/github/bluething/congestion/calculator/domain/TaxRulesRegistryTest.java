@@ -0,0 +1,85 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("TaxRulesRegistry Tests")
+class TaxRulesRegistryTest {
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final TaxRulesRegistry registry = new TaxRulesRegistry(new TaxRulesConfig(), eventPublisher);
+
+    @Test
+    @DisplayName("Should swap in a new snapshot and leave the previous one untouched")
+    void shouldSwapInNewSnapshot() {
+        TaxRuleIndex previous = registry.index();
+        TaxRulesConfig config = new TaxRulesConfig();
+        config.setMaxDailyTax(80);
+
+        TaxRuleIndex next = registry.publish(config);
+
+        assertThat(registry.index()).isSameAs(next);
+        assertThat(next.getVersion()).isEqualTo(previous.getVersion() + 1);
+        assertThat(registry.current().getMaxDailyTax()).isEqualTo(80);
+        assertThat(previous.rulesFor(0).getMaxDailyTax()).isEqualTo(60);
+        verify(eventPublisher).publishEvent(new TaxRulesChangedEvent(previous, next));
+    }
+
+    @Test
+    @DisplayName("Should keep the current snapshot when new rules are invalid")
+    void shouldKeepCurrentSnapshotOnInvalidRules() {
+        TaxRuleIndex previous = registry.index();
+        TaxRulesConfig config = new TaxRulesConfig();
+        config.setTimeSlots(Map.of("06:00-17:59", 10));
+
+        assertThatThrownBy(() -> registry.publish(config))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("uncovered");
+        assertThat(registry.index()).isSameAs(previous);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Should load a rules file in the application.yaml layout")
+    void shouldLoadRulesFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("rules.yaml");
+        Files.writeString(file, """
+                congestion:
+                  tax:
+                    max-daily-tax: 75
+                    toll-free-vehicles: [Motorcycle]
+                    time-slots:
+                      "[06:00-17:59]": 10
+                      "[18:00-05:59]": 0
+                    rule-sets:
+                      - effective-from: 2014-01-01
+                        max-daily-tax: 90
+                """);
+
+        TaxRuleIndex index = registry.publish(TaxRulesFileWatcher.load(file));
+        TaxRuleSet rules = index.rulesFor(LocalDate.of(2013, 6, 1).toEpochDay());
+
+        assertThat(index.rulesFor(LocalDate.of(2014, 6, 1).toEpochDay()).getMaxDailyTax()).isEqualTo(90);
+
+        assertThat(rules.getMaxDailyTax()).isEqualTo(75);
+        assertThat(rules.getTimeSlots()).containsOnlyKeys("06:00-17:59", "18:00-05:59");
+        assertThat(rules.getTollFreeVehicleTypes()).isEqualTo(List.of("Motorcycle"));
+        assertThat(rules.isTollFreeVehicle(VehicleClass.TRACTOR)).isFalse();
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.bluething.congestion.calculator.domain;
+
+import io.github.bluething.congestion.calculator.exception.InvalidVehicleTypeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ValidationService Tests")
+class ValidationServiceTest {
+
+    private final ValidationService validationService = new ValidationService();
+    private TaxRuleIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // Foreign vehicles are no longer supported from 2014; Stockholm only knows cars
+        RuleSetDefinition from2014 = new RuleSetDefinition();
+        from2014.setEffectiveFrom(LocalDate.of(2014, 1, 1));
+        from2014.setAllVehicleTypes(List.of("Car", "Motorcycle"));
+        RuleSetDefinition stockholm = new RuleSetDefinition();
+        stockholm.setCity("Stockholm");
+        stockholm.setAllVehicleTypes(List.of("Car"));
+
+        TaxRulesConfig config = new TaxRulesConfig();
+        config.setRuleSets(List.of(from2014, stockholm));
+        index = TaxRuleIndex.compile(config, 1);
+    }
+
+    private static TaxCalculationServiceRequest request(String vehicleType, String city, LocalDateTime... passages) {
+        return new TaxCalculationServiceRequest(vehicleType, List.of(passages), city);
+    }
+
+    @Test
+    @DisplayName("Should check vehicle support in the rule set of each day")
+    void shouldCheckSupportPerDay() {
+        assertThatCode(() -> validationService.validateServiceRequest(
+                request("Foreign", null, LocalDateTime.of(2013, 12, 31, 7, 0)), index))
+                .doesNotThrowAnyException();
+
+        assertThatThrownBy(() -> validationService.validateServiceRequest(
+                request("Foreign", null, LocalDateTime.of(2013, 12, 31, 7, 0), LocalDateTime.of(2014, 1, 2, 7, 0)), index))
+                .isInstanceOf(InvalidVehicleTypeException.class)
+                .hasMessageContaining("2014-01-02");
+    }
+
+    @Test
+    @DisplayName("Should check vehicle support in the rules of the requested city")
+    void shouldCheckSupportPerCity() {
+        LocalDateTime passage = LocalDateTime.of(2013, 2, 7, 7, 0);
+
+        assertThatCode(() -> validationService.validateServiceRequest(request("Motorcycle", null, passage), index))
+                .doesNotThrowAnyException();
+        assertThatThrownBy(() -> validationService.validateServiceRequest(
+                request("Motorcycle", "stockholm", passage), index))
+                .isInstanceOf(InvalidVehicleTypeException.class);
+        assertThat(index.supportedVehicleClasses("Stockholm")).containsExactly(VehicleClass.CAR);
+        assertThat(index.supportedVehicleClasses(null)).contains(VehicleClass.FOREIGN, VehicleClass.MOTORCYCLE);
+    }
+}
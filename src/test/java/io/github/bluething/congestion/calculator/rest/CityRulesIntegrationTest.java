@@ -0,0 +1,72 @@
+package io.github.bluething.congestion.calculator.rest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Foreign vehicles are dropped in the default city from 2014 but stay supported in Stockholm
+@SpringBootTest(properties = {
+        "congestion.tax.rule-sets[0].effective-from=2014-01-01",
+        "congestion.tax.rule-sets[0].all-vehicle-types=Car,Motorcycle",
+        "congestion.tax.rule-sets[1].city=Stockholm"
+})
+@AutoConfigureMockMvc
+@DisplayName("City and Date Specific Rules Integration Tests")
+class CityRulesIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("POST /calculate - type supported by the requested city is accepted")
+    void calculateTax_withTypeSupportedByCity_shouldSucceed() throws Exception {
+        String requestJson = """
+            {
+                "vehicleType": "Foreign",
+                "passageTimes": ["2015-02-06T07:30:00"],
+                "city": "Stockholm"
+            }
+            """;
+
+        mockMvc.perform(post("/api/v1/congestion-tax/calculate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.city", is("Stockholm")))
+                .andExpect(jsonPath("$.tollFreeVehicle", is(true)));
+    }
+
+    @Test
+    @DisplayName("POST /calculate - type supported on the passage dates is accepted")
+    void calculateTax_withTypeSupportedOnPassageDates_shouldSucceed() throws Exception {
+        mockMvc.perform(post("/api/v1/congestion-tax/calculate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"vehicleType\": \"Foreign\", \"passageTimes\": [\"2013-02-08T07:30:00\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalTax", is(0)));
+    }
+
+    @Test
+    @DisplayName("POST and GET /calculate - type not supported in the default city is rejected the same way")
+    void calculateTax_withTypeUnsupportedByDefaultCity_shouldRejectForBothVerbs() throws Exception {
+        mockMvc.perform(post("/api/v1/congestion-tax/calculate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"vehicleType\": \"Foreign\", \"passageTimes\": [\"2015-02-06T07:30:00\"]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode", is("INVALID_VEHICLE_TYPE")));
+        mockMvc.perform(get("/api/v1/congestion-tax/calculate")
+                        .param("vehicleType", "Foreign")
+                        .param("passageTimes", "2015-02-06T07:30:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode", is("INVALID_VEHICLE_TYPE")));
+    }
+}
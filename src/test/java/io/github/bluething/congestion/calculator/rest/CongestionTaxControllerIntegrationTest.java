@@ -1,6 +1,8 @@
 package io.github.bluething.congestion.calculator.rest;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,10 +10,29 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -25,6 +46,12 @@ class CongestionTaxControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private NdjsonTaxStreamProcessor ndjsonTaxStreamProcessor;
+
     @Test
     @DisplayName("POST /calculate - Car with multiple passages should return correct tax")
     void calculateTax_withValidCarRequest_shouldReturnCorrectTax() throws Exception {
@@ -47,9 +74,161 @@ class CongestionTaxControllerIntegrationTest {
                 .andExpect(jsonPath("$.totalTax", greaterThan(0)))
                 .andExpect(jsonPath("$.tollFreeVehicle", is(false)))
                 .andExpect(jsonPath("$.passageDetails", hasSize(3)))
+                .andExpect(jsonPath("$.ruleVersion").value(1))
                 .andExpect(jsonPath("$.calculatedAt", notNullValue()));
     }
 
+    @Test
+    @DisplayName("POST /calculate/batch - should return one result or error per item, in order")
+    void calculateTaxBatch_withMixedItems_shouldReturnPerItemOutcome() throws Exception {
+        String requestJson = """
+            {
+                "requests": [
+                    {"vehicleType": "Car", "passageTimes": ["2013-02-08T06:27:00", "2013-02-08T15:29:00"]},
+                    {"vehicleType": "Car", "passageTimes": []},
+                    {"vehicleType": "Motorcycle", "passageTimes": ["2013-02-08T07:30:00"]}
+                ]
+            }
+            """;
+
+        mockMvc.perform(post("/api/v1/congestion-tax/calculate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded", is(2)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.results[0].index", is(0)))
+                .andExpect(jsonPath("$.results[0].result.totalTax", is(21)))
+                .andExpect(jsonPath("$.results[1].error.errorCode", is("INVALID_DATE_FORMAT")))
+                .andExpect(jsonPath("$.results[1].result").doesNotExist())
+                .andExpect(jsonPath("$.results[2].result.tollFreeVehicle", is(true)));
+    }
+
+    @Test
+    @DisplayName("POST /calculate/stream - should stream finalized days, late passages and record errors")
+    void calculateTaxStream_withNdjsonRecords_shouldStreamResults() throws Exception {
+        String records = """
+            {"vehicleId": "ABC123", "vehicleType": "Car", "passageTime": "2013-02-07T06:23:27"}
+            {"vehicleId": "XYZ789", "vehicleType": "Car", "passageTime": "2013-02-07T07:05:00"}
+            {"vehicleId": "ABC123", "vehicleType": "Car", "passageTime": "2013-02-07T15:27:00"}
+            {"vehicleId": "BOAT1", "vehicleType": "Boat", "passageTime": "2013-02-07T15:28:00"}
+            {"vehicleId": "XYZ789", "vehicleType": "Car", "passageTime": "2013-02-07T06:00:00"}
+            42
+            {"vehicleId": "ABC123", "vehicleType": "Car", "passageTime": "2013-02-08T06:27:00"}
+            """;
+
+        String body = mockMvc.perform(post("/api/v1/congestion-tax/calculate/stream")
+                        .contentType("application/x-ndjson")
+                        .content(records))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+
+        assertThat(lines).extracting(line -> line.get("type").asText())
+                .containsExactlyInAnyOrder("error", "late", "error", "day", "day", "day", "summary");
+        assertThat(lines).filteredOn(line -> line.get("type").asText().equals("day"))
+                .extracting(line -> line.get("vehicleId").asText() + " " + line.get("date").asText()
+                        + " " + line.get("dailyTax").asInt())
+                .containsExactlyInAnyOrder("ABC123 2013-02-07 21", "XYZ789 2013-02-07 18", "ABC123 2013-02-08 8");
+        assertThat(lines).filteredOn(line -> line.get("type").asText().equals("error"))
+                .extracting(line -> line.get("record").asInt() + " " + line.get("errorCode").asText())
+                .containsExactly("4 INVALID_VEHICLE_TYPE", "6 MALFORMED_REQUEST");
+
+        JsonNode summary = lines.get(lines.size() - 1);
+        assertThat(summary.get("type").asText()).isEqualTo("summary");
+        assertThat(summary.get("records").asInt()).isEqualTo(7);
+        assertThat(summary.get("accepted").asInt()).isEqualTo(4);
+        assertThat(summary.get("late").asInt()).isEqualTo(1);
+        assertThat(summary.get("errors").asInt()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("POST /calculate/stream - should write a finalized day while the input is still open")
+    void calculateTaxStream_shouldFlushDaysBeforeInputEnds() throws Exception {
+        PipedOutputStream input = new PipedOutputStream();
+        PipedInputStream body = new PipedInputStream(input);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> processing = executor.submit(() -> {
+                ndjsonTaxStreamProcessor.process(body, output);
+                return null;
+            });
+            try {
+                input.write("""
+                        {"vehicleId": "ABC123", "vehicleType": "Car", "passageTime": "2013-02-07T06:23:27"}
+                        {"vehicleId": "ABC123", "vehicleType": "Car", "passageTime": "2013-02-08T08:00:00"}
+                        """.getBytes(StandardCharsets.UTF_8));
+                input.flush();
+
+                awaitOutput(output, "\"type\":\"day\"");
+                assertThat(output.toString(StandardCharsets.UTF_8))
+                        .contains("\"date\":\"2013-02-07\"")
+                        .doesNotContain("summary");
+            } finally {
+                // Ends the input, so the processor finishes even when the assertion fails
+                input.close();
+            }
+            processing.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(output.toString(StandardCharsets.UTF_8)).contains("\"date\":\"2013-02-08\"", "summary");
+    }
+
+    @Test
+    @DisplayName("POST /calculate/stream - should write an idle vehicle's day once other traffic reaches the next day")
+    void calculateTaxStream_shouldFlushIdleVehicleDayBeforeInputEnds() throws Exception {
+        PipedOutputStream input = new PipedOutputStream();
+        PipedInputStream body = new PipedInputStream(input);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> processing = executor.submit(() -> {
+                ndjsonTaxStreamProcessor.process(body, output);
+                return null;
+            });
+            try {
+                // IDLE01 sends nothing after the 7th; only BUSY01 moves event time on
+                input.write("""
+                        {"vehicleId": "IDLE01", "vehicleType": "Car", "passageTime": "2013-02-07T07:00:00"}
+                        {"vehicleId": "BUSY01", "vehicleType": "Car", "passageTime": "2013-02-07T16:00:00"}
+                        {"vehicleId": "BUSY01", "vehicleType": "Car", "passageTime": "2013-02-08T08:00:00"}
+                        """.getBytes(StandardCharsets.UTF_8));
+                input.flush();
+
+                awaitOutput(output, "\"vehicleId\":\"IDLE01\"");
+                assertThat(output.toString(StandardCharsets.UTF_8))
+                        .contains("\"vehicleId\":\"IDLE01\"", "\"date\":\"2013-02-07\"")
+                        .doesNotContain("summary");
+            } finally {
+                // Ends the input, so the processor finishes even when the assertion fails
+                input.close();
+            }
+            processing.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void awaitOutput(ByteArrayOutputStream output, String expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!output.toString(StandardCharsets.UTF_8).contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("POST /calculate/batch - empty batch should return 400")
+    void calculateTaxBatch_withNoItems_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/congestion-tax/calculate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"requests\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode", is("VALIDATION_ERROR")));
+    }
+
     @Test
     @DisplayName("POST /calculate - Motorcycle should return zero tax")
     void calculateTax_withMotorcycle_shouldReturnZeroTax() throws Exception {
@@ -101,7 +280,7 @@ class CongestionTaxControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestJson))
                 .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("$.errorCode", is("VALIDATION_ERROR")));
+                .andExpect(jsonPath("$.errorCode", is("INVALID_VEHICLE_TYPE")));
     }
 
     @Test
@@ -115,6 +294,59 @@ class CongestionTaxControllerIntegrationTest {
                 .andExpect(jsonPath("$.totalTax", greaterThan(0)));
     }
 
+    @Test
+    @DisplayName("POST /calculate?detail - Should leave out what was not asked for and use reason codes")
+    void calculateTax_withDetail_shouldProjectResponse() throws Exception {
+        String requestJson = """
+            {
+                "vehicleType": "Car",
+                "passageTimes": ["2013-02-08T06:27:00", "2013-02-08T06:50:00", "2013-02-09T10:00:00"]
+            }
+            """;
+
+        mockMvc.perform(post("/api/v1/congestion-tax/calculate").param("detail", "none")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalTax", is(13)))
+                .andExpect(jsonPath("$.passageDetails").doesNotExist())
+                .andExpect(jsonPath("$.dailyTaxSummaries").doesNotExist());
+
+        mockMvc.perform(post("/api/v1/congestion-tax/calculate").param("detail", "Daily")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.passageDetails").doesNotExist())
+                .andExpect(jsonPath("$.dailyTaxSummaries[*].reasonCode", contains("REGULAR_DAY", "TOLL_FREE_DAY")))
+                .andExpect(jsonPath("$.dailyTaxSummaries[0].reason").doesNotExist());
+
+        mockMvc.perform(post("/api/v1/congestion-tax/calculate").param("detail", "full")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.passageDetails[*].reasonCode",
+                        contains("SINGLE_CHARGE_COVERED", "REGULAR_TOLL", "TOLL_FREE_DAY")))
+                .andExpect(jsonPath("$.passageDetails[0].reason").doesNotExist());
+
+        mockMvc.perform(get("/api/v1/congestion-tax/calculate")
+                        .param("vehicleType", "Car")
+                        .param("passageTimes", "2013-02-08T06:27:00")
+                        .param("detail", "everything"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode", is("TYPE_MISMATCH")));
+    }
+
+    @Test
+    @DisplayName("GET /reason-codes - Should describe every reason code once")
+    void getReasonCodes_shouldReturnDescriptions() throws Exception {
+        mockMvc.perform(get("/api/v1/congestion-tax/reason-codes"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.REGULAR_TOLL", is("Regular toll period")))
+                .andExpect(jsonPath("$.SINGLE_CHARGE_COVERED",
+                        is("Covered by a higher fee within the single charge interval")));
+    }
+
     @Test
     @DisplayName("GET /calculate - Invalid date format should return 400")
     void calculateTaxSimple_withInvalidDateFormat_shouldReturnBadRequest() throws Exception {
@@ -146,9 +378,45 @@ class CongestionTaxControllerIntegrationTest {
                 .andExpect(jsonPath("$.maxDailyAmount", is(60)))
                 .andExpect(jsonPath("$.currency", is("SEK")))
                 .andExpect(jsonPath("$.timeSlots", isA(java.util.List.class)))
+                .andExpect(jsonPath("$.timeSlots", hasSize(10)))
                 .andExpect(jsonPath("$.tollFreeVehicles", isA(java.util.List.class)));
     }
 
+    @Test
+    @DisplayName("GET /toll-schedule - Should answer a matching If-None-Match with 304 and no body")
+    void getTollSchedule_withMatchingETag_shouldReturnNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/congestion-tax/toll-schedule"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("max-age=60")))
+                .andExpect(header().string("Vary", containsString("Accept-Encoding")))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).startsWith("\"").doesNotStartWith("W/");
+
+        mockMvc.perform(get("/api/v1/congestion-tax/toll-schedule").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    @DisplayName("GET /vehicle-types - Should serve a gzip copy with its own ETag")
+    void getSupportedVehicleTypes_withGzip_shouldReturnCompressedBody() throws Exception {
+        MvcResult plain = mockMvc.perform(get("/api/v1/congestion-tax/vehicle-types")).andReturn();
+        MvcResult gzipped = mockMvc.perform(get("/api/v1/congestion-tax/vehicle-types")
+                        .header("Accept-Encoding", "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn();
+
+        byte[] unzipped;
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+            unzipped = in.readAllBytes();
+        }
+        assertThat(unzipped).isEqualTo(plain.getResponse().getContentAsByteArray());
+        assertThat(gzipped.getResponse().getHeader("ETag")).isNotEqualTo(plain.getResponse().getHeader("ETag"));
+    }
+
     @Test
     @DisplayName("POST /calculate - Colleague's post-it data test")
     void calculateTax_withColleagueData_shouldReturnExpectedResults() throws Exception {
@@ -198,4 +466,119 @@ class CongestionTaxControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.totalTax", lessThanOrEqualTo(60))); // Should not exceed daily max
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("POST /calculate - effective fees of each day's passages sum to that day's tax")
+    void calculateTax_effectiveFeesShouldSumToDailyTax() throws Exception {
+        String requestJson = """
+            {
+                "vehicleType": "Car",
+                "passageTimes": [
+                    "2013-02-07T06:23:27",
+                    "2013-02-07T06:50:00",
+                    "2013-02-07T15:27:00",
+                    "2013-02-08T06:27:00",
+                    "2013-02-08T07:00:00",
+                    "2013-02-08T09:00:00",
+                    "2013-02-08T11:00:00",
+                    "2013-02-08T13:00:00",
+                    "2013-02-08T15:30:00",
+                    "2013-02-08T17:00:00"
+                ]
+            }
+            """;
+
+        String body = mockMvc.perform(post("/api/v1/congestion-tax/calculate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.passageDetails[0].individualFee", is(8)))
+                .andExpect(jsonPath("$.passageDetails[0].effectiveFee", is(0)))
+                .andExpect(jsonPath("$.passageDetails[1].effectiveFee", is(13)))
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode response = objectMapper.readTree(body);
+        Map<String, Integer> effectiveByDay = new HashMap<>();
+        for (JsonNode passage : response.get("passageDetails")) {
+            effectiveByDay.merge(passage.get("passageTime").asText().substring(0, 10),
+                    passage.get("effectiveFee").asInt(), Integer::sum);
+        }
+        assertThat(response.get("dailyTaxSummaries")).hasSize(2);
+        for (JsonNode day : response.get("dailyTaxSummaries")) {
+            assertThat(effectiveByDay.get(day.get("date").asText()))
+                    .as("effective fees on %s", day.get("date").asText())
+                    .isEqualTo(day.get("dailyTax").asInt());
+        }
+    }
+
+    @Test
+    @DisplayName("Metrics - calculations, rejections, daily caps and cache hits are recorded")
+    void calculateTax_shouldRecordMetrics() throws Exception {
+        long calculations = timerCount("congestion.tax.calculation", "vehicle.class", "car", "outcome", "success");
+        long rejected = timerCount("congestion.tax.calculation", "vehicle.class", "unknown", "outcome", "rejected");
+        double capHits = counter("congestion.tax.daily.cap.hits", "vehicle.class", "car");
+        double tollFreeDays = counter("congestion.tax.toll.free.days", "reason", "calendar");
+        double bodyRejections = counter("congestion.tax.validation.rejections", "reason", "request-body");
+        double typeRejections = counter("congestion.tax.validation.rejections", "reason", "vehicle-type");
+
+        String cappedWeekdayAndSaturday = """
+            {
+                "vehicleType": "Car",
+                "passageTimes": [
+                    "2013-02-08T07:00:00", "2013-02-08T09:00:00", "2013-02-08T11:00:00",
+                    "2013-02-08T13:00:00", "2013-02-08T15:30:00", "2013-02-08T17:00:00",
+                    "2013-02-09T07:00:00"
+                ]
+            }
+            """;
+        mockMvc.perform(post("/api/v1/congestion-tax/calculate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cappedWeekdayAndSaturday))
+                .andExpect(status().isOk());
+        // Answered from the result cache, still counted per request
+        mockMvc.perform(post("/api/v1/congestion-tax/calculate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cappedWeekdayAndSaturday))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/v1/congestion-tax/calculate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"vehicleType\": \"Bus\", \"passageTimes\": [\"2013-02-08T07:00:00\"]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/congestion-tax/calculate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"passageTimes\": [\"2013-02-08T07:00:00\"]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/congestion-tax/calculate")
+                        .param("vehicleType", "Bus")
+                        .param("passageTimes", "2013-02-08T07:00:00"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/congestion-tax/vehicle-types")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/congestion-tax/vehicle-types")).andExpect(status().isOk());
+
+        assertThat(timerCount("congestion.tax.calculation", "vehicle.class", "car", "outcome", "success"))
+                .isEqualTo(calculations + 2);
+        assertThat(timerCount("congestion.tax.calculation", "vehicle.class", "unknown", "outcome", "rejected"))
+                .isEqualTo(rejected + 2);
+        assertThat(counter("congestion.tax.validation.rejections", "reason", "request-body"))
+                .isEqualTo(bodyRejections + 1);
+        assertThat(counter("congestion.tax.validation.rejections", "reason", "vehicle-type"))
+                .isEqualTo(typeRejections + 2);
+        assertThat(counter("congestion.tax.daily.cap.hits", "vehicle.class", "car")).isEqualTo(capHits + 2);
+        assertThat(counter("congestion.tax.toll.free.days", "reason", "calendar")).isEqualTo(tollFreeDays + 2);
+        assertThat(meterRegistry.get("congestion.tax.request.passages").tag("vehicle.class", "car")
+                .summary().max()).isGreaterThanOrEqualTo(7);
+        assertThat(meterRegistry.get("congestion.tax.mapping").tag("direction", "request").timer().count())
+                .isPositive();
+        assertThat(meterRegistry.get("congestion.tax.response.write").timer().count()).isPositive();
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "taxResults").tag("result", "hit")
+                .functionCounter().count()).isPositive();
+    }
+
+    private long timerCount(String name, String... tags) {
+        return meterRegistry.get(name).tags(tags).timer().count();
+    }
+
+    private double counter(String name, String... tags) {
+        return meterRegistry.get(name).tags(tags).counter().count();
+    }
+}
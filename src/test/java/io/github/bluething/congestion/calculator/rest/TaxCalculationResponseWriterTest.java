@@ -0,0 +1,94 @@
+package io.github.bluething.congestion.calculator.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.bluething.congestion.calculator.domain.DailyTaxSummary;
+import io.github.bluething.congestion.calculator.domain.PassageCalculation;
+import io.github.bluething.congestion.calculator.domain.ReasonCode;
+import io.github.bluething.congestion.calculator.domain.ResponseDetail;
+import io.github.bluething.congestion.calculator.domain.TaxCalculationServiceResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TaxCalculationResponseWriter Tests")
+class TaxCalculationResponseWriterTest {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TaxCalculationResponseWriter writer = new TaxCalculationResponseWriter(objectMapper, registry);
+    private final DTOMapper dtoMapper = new DTOMapper(registry);
+
+    @Test
+    @DisplayName("Should write the same JSON as mapping to the web DTO and serializing it")
+    void shouldMatchMappedSerialization() throws Exception {
+        List<PassageCalculation> passages = List.of(
+                new PassageCalculation(LocalDateTime.of(2013, 2, 8, 6, 27), 8, 0, false, false,
+                        "Covered by a higher fee within the single charge interval"),
+                new PassageCalculation(LocalDateTime.of(2013, 2, 8, 7, 5, 9), 18, 18, false, true,
+                        "Regular toll period - 18 SEK"),
+                new PassageCalculation(LocalDateTime.of(2013, 2, 9, 9, 0, 0, 500_000_000), 0, 0, true, false,
+                        "Toll-free day (weekend/holiday/July) \"quoted\""),
+                new PassageCalculation(LocalDateTime.of(987, 1, 2, 3, 4), 0, 0, true, false, "Early"));
+        List<DailyTaxSummary> days = List.of(
+                new DailyTaxSummary(LocalDate.of(2013, 2, 8), 18, 2, false, "Regular toll day"),
+                new DailyTaxSummary(LocalDate.of(2013, 2, 9), 0, 1, true, "Toll-free day (weekend/holiday/July)"),
+                new DailyTaxSummary(LocalDate.of(987, 1, 2), 0, 1, true, "Toll-free day (weekend/holiday/July)"));
+        TaxCalculationServiceResponse response = new TaxCalculationServiceResponse("Car", 18, false, days, passages, 3);
+        LocalDateTime calculatedAt = LocalDateTime.of(2025, 5, 6, 7, 8, 9, 123_456_000);
+
+        assertThat(writeDirect(response, calculatedAt)).isEqualTo(mapAndSerialize(response, calculatedAt));
+
+        response.setCity("Gothenburg");
+        assertThat(writeDirect(response, calculatedAt)).isEqualTo(mapAndSerialize(response, calculatedAt));
+    }
+
+    @Test
+    @DisplayName("Should leave out unrequested sections and write reason codes below verbose detail")
+    void shouldProjectByDetail() throws Exception {
+        List<PassageCalculation> passages = List.of(new PassageCalculation(LocalDateTime.of(2013, 2, 8, 7, 5), 18, 18,
+                false, true, ReasonCode.REGULAR_TOLL, null));
+        List<DailyTaxSummary> days = List.of(
+                new DailyTaxSummary(LocalDate.of(2013, 2, 8), 18, 1, false, ReasonCode.REGULAR_DAY));
+        TaxCalculationServiceResponse response = new TaxCalculationServiceResponse("Car", 18, false, days, passages, 3);
+        LocalDateTime calculatedAt = LocalDateTime.of(2025, 5, 6, 7, 8, 9, 123_000_000);
+
+        response.setDetail(ResponseDetail.FULL);
+        assertThat(writeDirect(response, calculatedAt)).isEqualTo("{\"vehicleType\":\"Car\",\"totalTax\":18,"
+                + "\"tollFreeVehicle\":false,\"passageDetails\":[{\"passageTime\":\"2013-02-08T07:05:00\","
+                + "\"individualFee\":18,\"effectiveFee\":18,\"tollFreeDay\":false,\"reasonCode\":\"REGULAR_TOLL\"}],"
+                + "\"dailyTaxSummaries\":[{\"date\":\"2013-02-08\",\"dailyTax\":18,\"passageCount\":1,"
+                + "\"tollFreeDay\":false,\"reasonCode\":\"REGULAR_DAY\"}],\"city\":null,\"ruleVersion\":3,"
+                + "\"calculatedAt\":\"2025-05-06T07:08:09.123\"}");
+
+        response.setDetail(ResponseDetail.DAILY);
+        assertThat(writeDirect(response, calculatedAt)).doesNotContain("passageDetails").contains("dailyTaxSummaries");
+
+        response.setDetail(ResponseDetail.NONE);
+        assertThat(writeDirect(response, calculatedAt)).isEqualTo("{\"vehicleType\":\"Car\",\"totalTax\":18,"
+                + "\"tollFreeVehicle\":false,\"city\":null,\"ruleVersion\":3,"
+                + "\"calculatedAt\":\"2025-05-06T07:08:09.123\"}");
+    }
+
+    private String writeDirect(TaxCalculationServiceResponse response, LocalDateTime calculatedAt) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writer.write(response, calculatedAt, output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private String mapAndSerialize(TaxCalculationServiceResponse response, LocalDateTime calculatedAt) throws Exception {
+        TaxCalculationResponse mapped = dtoMapper.toWebResponse(response);
+        return objectMapper.writeValueAsString(new TaxCalculationResponse(mapped.vehicleType(), mapped.totalTax(),
+                mapped.tollFreeVehicle(), mapped.passageDetails(), mapped.dailyTaxSummaries(), mapped.city(),
+                mapped.ruleVersion(), calculatedAt));
+    }
+}